@@ -1,6 +1,10 @@
+import java.time.LocalDateTime
+import java.time.format.DateTimeFormatter
+
 plugins {
     id("org.springframework.boot") version "3.5.6"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
     java
 }
 
@@ -37,13 +41,22 @@ dependencies {
     implementation("org.glassfish:jakarta.el:4.0.2")
     implementation("org.springframework.boot:spring-boot-starter-data-redis")
     implementation("org.hibernate.orm:hibernate-envers")
+    implementation("org.hibernate.orm:hibernate-jcache")
+    implementation("org.hibernate.orm:hibernate-micrometer")
+    implementation("com.github.ben-manes.caffeine:jcache")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-aop")
+    implementation("io.github.resilience4j:resilience4j-spring-boot3:2.3.0")
+    implementation("net.ttddyy:datasource-proxy:1.10.1")
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.6.0")
     implementation("io.jsonwebtoken:jjwt-api:0.12.3")
     implementation("com.puppycrawl.tools:checkstyle:12.1.0")
     implementation("software.amazon.awssdk:s3")
+    implementation("org.commonmark:commonmark:0.24.0")
+    implementation("org.jsoup:jsoup:1.18.1")
+    implementation("org.sejda.imageio:webp-imageio:0.1.6")
 
-    runtimeOnly("org.postgresql:postgresql")
+    implementation("org.postgresql:postgresql") // CopyManager for the seed profile
     runtimeOnly("io.jsonwebtoken:jjwt-impl:0.12.3")
     runtimeOnly("io.jsonwebtoken:jjwt-jackson:0.12.3")
 
@@ -51,8 +64,39 @@ dependencies {
     annotationProcessor("org.projectlombok:lombok:1.18.42")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testImplementation("org.springframework.security:spring-security-test")
 }
 
+// tests tagged "database" need the docker-compose database and Redis and only run with -PtestDatabase
 tasks.withType<Test> {
-    useJUnitPlatform()
+    useJUnitPlatform {
+        if (!project.hasProperty("testDatabase")) {
+            excludeTags("database")
+        }
+    }
+}
+
+// ./gradlew jmh runs the in-memory benchmarks; -PjmhDatabase and -PjmhRedis also run those needing the
+// docker-compose database or Redis.
+// The gc profiler reports the allocation per operation next to every timing.
+// Every run writes its own JSON report to benchmarks/results, so runs can be compared over time.
+jmh {
+    jmhVersion = "1.37"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    resultFormat = "JSON"
+    profilers = listOf("gc")
+    resultsFile = layout.projectDirectory.file(
+        "benchmarks/results/jmh-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json"
+    )
+    val needsServices = mutableListOf<String>()
+    if (!project.hasProperty("jmhDatabase")) {
+        needsServices += ".*BulkInsertBenchmark.*"
+        needsServices += ".*FeedPageBenchmark.*"
+    }
+    if (!project.hasProperty("jmhRedis")) {
+        needsServices += ".*TokenVersionLookupBenchmark.*"
+    }
+    excludes = needsServices
 }
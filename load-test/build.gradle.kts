@@ -0,0 +1,30 @@
+plugins {
+    java
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_21
+    targetCompatibility = JavaVersion.VERSION_21
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation("org.hdrhistogram:HdrHistogram:2.2.2")
+    implementation("com.fasterxml.jackson.core:jackson-databind:2.19.2")
+    implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310:2.19.2")
+}
+
+// Start the docker-compose services and the application first, then:
+//   ./gradlew :load-test:run --args="--duration=PT2M --users=100"
+// Add --update-baseline to store the run as the new baseline.
+application {
+    mainClass = "com.worfwint.tabletoprpgmanager.loadtest.LoadTest"
+}
+
+tasks.named<JavaExec>("run") {
+    workingDir = projectDir
+}
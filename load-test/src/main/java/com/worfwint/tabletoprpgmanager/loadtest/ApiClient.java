@@ -0,0 +1,124 @@
+package com.worfwint.tabletoprpgmanager.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Calls the application API and records every call under its endpoint name.
+ */
+public class ApiClient {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI baseUrl;
+    private final EndpointMetrics metrics;
+
+    public ApiClient(URI baseUrl, EndpointMetrics metrics) {
+        this.baseUrl = baseUrl;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sends a GET request.
+     *
+     * @param endpoint    name the call is recorded under
+     * @param path        path and query
+     * @param accessToken bearer token, {@code null} for anonymous calls
+     * @return parsed response body, {@code null} when it is empty
+     */
+    public JsonNode get(String endpoint, String path, String accessToken) throws IOException, InterruptedException {
+        return send(endpoint, request(path, accessToken).GET());
+    }
+
+    /**
+     * Sends a JSON body.
+     *
+     * @param endpoint    name the call is recorded under
+     * @param method      HTTP method
+     * @param path        path and query
+     * @param body        object serialized as the JSON body, {@code null} for no body
+     * @param accessToken bearer token, {@code null} for anonymous calls
+     * @return parsed response body, {@code null} when it is empty or not JSON
+     */
+    public JsonNode sendJson(String endpoint, String method, String path, Object body, String accessToken)
+            throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        return send(endpoint, request(path, accessToken)
+                .header("Content-Type", "application/json")
+                .method(method, publisher));
+    }
+
+    /**
+     * Sends raw bytes, such as an image upload.
+     *
+     * @param endpoint    name the call is recorded under
+     * @param path        path and query
+     * @param contentType content type of the body
+     * @param body        request body
+     * @param accessToken bearer token
+     * @return parsed response body
+     */
+    public JsonNode sendBytes(String endpoint, String path, String contentType, byte[] body, String accessToken)
+            throws IOException, InterruptedException {
+        return send(endpoint, request(path, accessToken)
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body)));
+    }
+
+    private HttpRequest.Builder request(String path, String accessToken) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUrl.resolve(path)).timeout(Duration.ofSeconds(30));
+        if (accessToken != null) {
+            builder.header("Authorization", "Bearer " + accessToken);
+        }
+        return builder;
+    }
+
+    private JsonNode send(String endpoint, HttpRequest.Builder builder) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException ex) {
+            metrics.record(endpoint, System.nanoTime() - start, true);
+            throw ex;
+        }
+        long latency = System.nanoTime() - start;
+        boolean failed = response.statusCode() >= 400;
+        metrics.record(endpoint, latency, failed);
+        if (failed) {
+            throw new ApiException(endpoint, response.statusCode());
+        }
+        boolean json = response.headers().firstValue("Content-Type").orElse("").contains("json");
+        return json && response.body().length > 0 ? objectMapper.readTree(response.body()) : null;
+    }
+
+    /**
+     * Thrown for error responses, after the call was recorded.
+     */
+    public static class ApiException extends IOException {
+
+        private final int status;
+
+        public ApiException(String endpoint, int status) {
+            super(endpoint + " returned " + status);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+}
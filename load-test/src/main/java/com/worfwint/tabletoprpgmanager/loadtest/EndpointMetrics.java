@@ -0,0 +1,69 @@
+package com.worfwint.tabletoprpgmanager.loadtest;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies and errors per endpoint, recorded concurrently by all virtual users.
+ */
+public class EndpointMetrics {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Records a completed call.
+     *
+     * @param endpoint      method and path pattern, such as {@code GET /api/news/{id}}
+     * @param latencyNanos  time from sending the request to reading the full response
+     * @param failed        whether the call failed or returned an error status
+     */
+    public void record(String endpoint, long latencyNanos, boolean failed) {
+        Endpoint metrics = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        metrics.recorder.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        if (failed) {
+            metrics.errors.increment();
+        }
+    }
+
+    /**
+     * Drops everything recorded so far, at the end of the warm-up.
+     */
+    public void reset() {
+        endpoints.values().forEach(metrics -> {
+            metrics.recorder.reset();
+            metrics.errors.reset();
+        });
+    }
+
+    /**
+     * Takes the latencies recorded since the last reset.
+     *
+     * @return histogram and error count per endpoint
+     */
+    public ConcurrentMap<String, Snapshot> snapshot() {
+        ConcurrentMap<String, Snapshot> snapshot = new ConcurrentHashMap<>();
+        endpoints.forEach((name, metrics) ->
+                snapshot.put(name, new Snapshot(metrics.recorder.getIntervalHistogram(), metrics.errors.sum())));
+        return snapshot;
+    }
+
+    /**
+     * Recorded latencies in nanoseconds and the number of failed calls of one endpoint.
+     *
+     * @param latencies latency histogram
+     * @param errors    failed calls
+     */
+    public record Snapshot(Histogram latencies, long errors) {}
+
+    private static final class Endpoint {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
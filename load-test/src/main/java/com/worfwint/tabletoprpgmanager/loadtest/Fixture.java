@@ -0,0 +1,131 @@
+package com.worfwint.tabletoprpgmanager.loadtest;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Data the scenarios work on: registered accounts, articles in the feed and an image to upload. Created
+ * before the run through the public API, so repeated runs reuse what earlier runs created.
+ */
+public class Fixture {
+
+    static final String PASSWORD = "LoadTest#2024";
+    static final String USERNAME_PREFIX = "lt_user_";
+
+    private final List<String> usernames;
+    private final List<Long> articleIds;
+    private final String adminUsername;
+    private final String adminPassword;
+    private final byte[] image;
+
+    private Fixture(List<String> usernames, List<Long> articleIds, String adminUsername, String adminPassword,
+                    byte[] image) {
+        this.usernames = List.copyOf(usernames);
+        this.articleIds = List.copyOf(articleIds);
+        this.adminUsername = adminUsername;
+        this.adminPassword = adminPassword;
+        this.image = image;
+    }
+
+    /**
+     * Registers missing accounts and creates articles until the feed holds the requested number.
+     *
+     * @param client  API client, calls are recorded under {@code setup} endpoints
+     * @param options run settings
+     * @return prepared data
+     */
+    public static Fixture prepare(ApiClient client, LoadTestOptions options) throws IOException, InterruptedException {
+        List<String> usernames = new ArrayList<>(options.accounts());
+        for (int i = 0; i < options.accounts(); i++) {
+            String username = USERNAME_PREFIX + i;
+            try {
+                client.sendJson("setup register", "POST", "/api/auth/register", Map.of(
+                        "username", username,
+                        "email", username + "@loadtest.local",
+                        "password", PASSWORD,
+                        "displayName", "Load Test " + i), null);
+            } catch (ApiClient.ApiException ex) {
+                // registered by an earlier run
+            }
+            usernames.add(username);
+        }
+
+        String adminToken = login(client, "setup login", options.adminUsername(), options.adminPassword())
+                .path("accessToken").asText();
+        JsonNode feed = client.get("setup feed", "/api/news?page=0&size=100", null);
+        for (long existing = feed.path("totalElements").asLong(); existing < options.articles(); existing++) {
+            client.sendJson("setup article", "POST", "/api/news", Map.of(
+                    "title", "Load test article " + existing,
+                    "summary", "Generated for load testing.",
+                    "content", "# Load test\n\n" + "Session notes and house rules. ".repeat(80)), adminToken);
+        }
+        List<Long> articleIds = new ArrayList<>();
+        client.get("setup feed", "/api/news?page=0&size=100", null).path("content")
+                .forEach(article -> articleIds.add(article.path("id").asLong()));
+        return new Fixture(usernames, articleIds, options.adminUsername(), options.adminPassword(), createImage());
+    }
+
+    /**
+     * Signs in.
+     *
+     * @param client   API client
+     * @param endpoint name the call is recorded under
+     * @param login    username or email
+     * @param password password
+     * @return response holding the access and refresh token
+     */
+    static JsonNode login(ApiClient client, String endpoint, String login, String password)
+            throws IOException, InterruptedException {
+        return client.sendJson(endpoint, "POST", "/api/auth/login", Map.of("login", login, "password", password), null);
+    }
+
+    public List<String> getUsernames() {
+        return usernames;
+    }
+
+    public List<Long> getArticleIds() {
+        return articleIds;
+    }
+
+    /**
+     * @return article all like storms target
+     */
+    public long getHotArticleId() {
+        return articleIds.get(0);
+    }
+
+    public String getAdminUsername() {
+        return adminUsername;
+    }
+
+    public String getAdminPassword() {
+        return adminPassword;
+    }
+
+    public byte[] getImage() {
+        return image;
+    }
+
+    private static byte[] createImage() throws IOException {
+        BufferedImage image = new BufferedImage(1600, 900, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        for (int x = 0; x < image.getWidth(); x += 40) {
+            graphics.setColor(new Color(x % 256, (x / 4) % 256, 255 - x % 256));
+            graphics.fillRect(x, 0, 40, image.getHeight());
+        }
+        graphics.dispose();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,125 @@
+package com.worfwint.tabletoprpgmanager.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the traffic mix against a running application, prints throughput and latency percentiles per
+ * endpoint and compares them with the stored baseline. Exits with status 1 when an endpoint regressed.
+ * <p>
+ * Expects the services of {@code docker-compose.yml}, including the MinIO stand-in for S3, and the
+ * application configured to use them.
+ * <p>
+ * To compare two server configurations, store the first run as a labelled baseline, for example
+ * {@code --label=platform --update-baseline --baseline=platform.json}, then restart the application with
+ * {@code VIRTUAL_THREADS_ENABLED=true} and run {@code --label=virtual --baseline=platform.json}.
+ */
+public final class LoadTest {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneOffset.UTC);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        EndpointMetrics metrics = new EndpointMetrics();
+        ApiClient client = new ApiClient(options.baseUrl(), metrics);
+
+        System.out.printf("Preparing %d accounts and %d articles on %s%n",
+                options.accounts(), options.articles(), options.baseUrl());
+        Fixture fixture = Fixture.prepare(client, options);
+
+        List<Scenario> scenarios = Scenario.trafficMix();
+        int totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+        long end = System.nanoTime() + options.warmup().toNanos() + options.duration().toNanos();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.users(); i++) {
+                VirtualUser user = new VirtualUser(client, fixture, i);
+                users.submit(() -> runUser(user, scenarios, totalWeight, options, end));
+            }
+            System.out.printf("Warming up for %s with %d users%n", options.warmup(), options.users());
+            Thread.sleep(options.warmup());
+            metrics.reset();
+            Instant startedAt = Instant.now();
+            long measuringStart = System.nanoTime();
+            System.out.printf("Measuring for %s%n", options.duration());
+            users.shutdown();
+            users.awaitTermination(options.duration().toMillis() + 60_000, TimeUnit.MILLISECONDS);
+            double seconds = (System.nanoTime() - measuringStart) / 1e9;
+            report(options, LoadTestReport.of(options.label(), startedAt, seconds, options.users(), metrics.snapshot()));
+        }
+    }
+
+    private static void runUser(VirtualUser user, List<Scenario> scenarios, int totalWeight,
+                                LoadTestOptions options, long end) {
+        while (System.nanoTime() < end) {
+            Scenario scenario = pick(scenarios, totalWeight);
+            try {
+                scenario.script().run(user);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                // already counted as an error of the failing endpoint
+            }
+            try {
+                Thread.sleep(options.thinkTime());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static Scenario pick(List<Scenario> scenarios, int totalWeight) {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            ticket -= scenario.weight();
+            if (ticket < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    private static void report(LoadTestOptions options, LoadTestReport report) throws Exception {
+        System.out.println();
+        System.out.print(report.format());
+        Path resultFile = options.resultsDirectory().resolve("load-test-" + FILE_TIMESTAMP.format(report.startedAt()) + ".json");
+        report.write(resultFile);
+        System.out.printf("%nReport written to %s%n", resultFile);
+
+        if (options.updateBaseline()) {
+            report.write(options.baseline());
+            System.out.printf("Baseline %s updated%n", options.baseline());
+            return;
+        }
+        if (!Files.exists(options.baseline())) {
+            System.out.printf("No baseline at %s, run with --update-baseline to store one%n", options.baseline());
+            return;
+        }
+        LoadTestReport baseline = LoadTestReport.read(options.baseline());
+        System.out.println();
+        System.out.print(report.formatAgainst(baseline));
+        System.out.println();
+        List<String> regressions = report.regressionsAgainst(baseline,
+                options.latencyTolerance(), options.throughputTolerance());
+        if (regressions.isEmpty()) {
+            System.out.println("No regressions against the baseline");
+            return;
+        }
+        System.out.println("REGRESSIONS against the baseline:");
+        regressions.forEach(regression -> System.out.println("  " + regression));
+        System.exit(1);
+    }
+}
@@ -0,0 +1,87 @@
+package com.worfwint.tabletoprpgmanager.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from {@code --name=value} arguments.
+ *
+ * @param label               name of the run, for example the server configuration under test
+ * @param baseUrl             address of the running application
+ * @param duration            measured run time
+ * @param warmup              run time before measuring starts
+ * @param users               concurrent virtual users
+ * @param thinkTime           pause of a virtual user between two scenarios
+ * @param accounts            accounts registered for the virtual users to sign in with
+ * @param articles            articles the feed should contain before the run
+ * @param adminUsername       account with editorial rights, used to create articles and upload images
+ * @param adminPassword       password of that account
+ * @param baseline            stored baseline the run is compared with
+ * @param resultsDirectory    directory receiving the report of every run
+ * @param updateBaseline      whether the run replaces the baseline instead of being compared with it
+ * @param latencyTolerance    allowed relative increase of an endpoint's p99 latency
+ * @param throughputTolerance allowed relative decrease of an endpoint's throughput
+ */
+public record LoadTestOptions(
+        String label,
+        URI baseUrl,
+        Duration duration,
+        Duration warmup,
+        int users,
+        Duration thinkTime,
+        int accounts,
+        int articles,
+        String adminUsername,
+        String adminPassword,
+        Path baseline,
+        Path resultsDirectory,
+        boolean updateBaseline,
+        double latencyTolerance,
+        double throughputTolerance
+) {
+
+    /**
+     * Parses command line arguments, falling back to defaults that match a local docker-compose setup.
+     *
+     * @param args arguments such as {@code --users=100}
+     * @return parsed options
+     */
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return new LoadTestOptions(
+                values.getOrDefault("label", "run"),
+                URI.create(values.getOrDefault("base-url", "http://localhost:9010")),
+                Duration.parse(values.getOrDefault("duration", "PT60S")),
+                Duration.parse(values.getOrDefault("warmup", "PT15S")),
+                Integer.parseInt(values.getOrDefault("users", "50")),
+                Duration.parse(values.getOrDefault("think-time", "PT0.05S")),
+                Integer.parseInt(values.getOrDefault("accounts", "200")),
+                Integer.parseInt(values.getOrDefault("articles", "60")),
+                values.getOrDefault("admin-username", env("ADMIN_USERNAME", "admin")),
+                values.getOrDefault("admin-password", env("ADMIN_PASSWORD", "change-me")),
+                Path.of(values.getOrDefault("baseline", "baseline.json")),
+                Path.of(values.getOrDefault("results", "build/load-test")),
+                Boolean.parseBoolean(values.getOrDefault("update-baseline", "false")),
+                Double.parseDouble(values.getOrDefault("latency-tolerance", "0.20")),
+                Double.parseDouble(values.getOrDefault("throughput-tolerance", "0.10")));
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,171 @@
+package com.worfwint.tabletoprpgmanager.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Throughput, latency percentiles and error rate per endpoint of a run, and its comparison with a
+ * stored baseline.
+ *
+ * @param label           name of the run
+ * @param startedAt       when measuring started
+ * @param durationSeconds measured run time
+ * @param users           concurrent virtual users
+ * @param endpoints       results per endpoint
+ */
+public record LoadTestReport(String label, Instant startedAt, double durationSeconds, int users,
+                             Map<String, EndpointResult> endpoints) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * Results of one endpoint, latencies in milliseconds.
+     */
+    public record EndpointResult(long requests, long errors, double throughput,
+                                 double p50, double p90, double p99, double p999, double max) {
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+
+    /**
+     * Builds the report from the recorded metrics, leaving out setup calls.
+     *
+     * @param label           name of the run
+     * @param startedAt       when measuring started
+     * @param durationSeconds measured run time
+     * @param users           concurrent virtual users
+     * @param snapshot        recorded latencies and errors
+     * @return report
+     */
+    public static LoadTestReport of(String label, Instant startedAt, double durationSeconds, int users,
+                                    Map<String, EndpointMetrics.Snapshot> snapshot) {
+        Map<String, EndpointResult> endpoints = new TreeMap<>();
+        snapshot.forEach((name, metrics) -> {
+            Histogram latencies = metrics.latencies();
+            if (name.startsWith("setup ") || latencies.getTotalCount() == 0) {
+                return;
+            }
+            endpoints.put(name, new EndpointResult(
+                    latencies.getTotalCount(),
+                    metrics.errors(),
+                    latencies.getTotalCount() / durationSeconds,
+                    millis(latencies.getValueAtPercentile(50)),
+                    millis(latencies.getValueAtPercentile(90)),
+                    millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue())));
+        });
+        return new LoadTestReport(label, startedAt, durationSeconds, users, endpoints);
+    }
+
+    /**
+     * Reads a stored report.
+     *
+     * @param file JSON file
+     * @return report
+     */
+    public static LoadTestReport read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), LoadTestReport.class);
+    }
+
+    /**
+     * Stores the report as JSON.
+     *
+     * @param file target file, parent directories are created
+     */
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        MAPPER.writeValue(file.toFile(), this);
+    }
+
+    /**
+     * @return table of all endpoints
+     */
+    public String format() {
+        StringBuilder table = new StringBuilder(String.format("%-34s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        endpoints.forEach((name, result) -> table.append(String.format("%-34s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                name, result.requests(), result.errors(), result.throughput(),
+                result.p50(), result.p90(), result.p99(), result.max())));
+        return table.toString();
+    }
+
+    /**
+     * Puts throughput and latency percentiles of this run next to those of a baseline, for example to
+     * compare platform and virtual request threads under the same load.
+     *
+     * @param baseline earlier run
+     * @return table of the endpoints measured in both runs
+     */
+    public String formatAgainst(LoadTestReport baseline) {
+        String ours = label == null ? "run" : label;
+        String theirs = baseline.label() == null ? "baseline" : baseline.label();
+        StringBuilder table = new StringBuilder(String.format("%-34s %-12s %9s %9s %9s %9s %7s%n",
+                "endpoint", "run", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "err %"));
+        endpoints.forEach((name, result) -> {
+            EndpointResult base = baseline.endpoints().get(name);
+            if (base == null) {
+                return;
+            }
+            table.append(comparisonRow(name, theirs, base));
+            table.append(comparisonRow("", ours, result));
+        });
+        return table.toString();
+    }
+
+    private static String comparisonRow(String name, String label, EndpointResult result) {
+        return String.format("%-34s %-12s %9.1f %9.1f %9.1f %9.1f %7.2f%n", name, label, result.throughput(),
+                result.p50(), result.p99(), result.p999(), result.errorRate() * 100);
+    }
+
+    /**
+     * Compares this run with a baseline. An endpoint regresses when its p99 latency grew, its throughput
+     * dropped or its error rate rose by more than the tolerances.
+     *
+     * @param baseline            earlier run
+     * @param latencyTolerance    allowed relative p99 increase
+     * @param throughputTolerance allowed relative throughput decrease
+     * @return one line per regression, empty when there is none
+     */
+    public List<String> regressionsAgainst(LoadTestReport baseline, double latencyTolerance, double throughputTolerance) {
+        List<String> regressions = new ArrayList<>();
+        endpoints.forEach((name, result) -> {
+            EndpointResult base = baseline.endpoints().get(name);
+            if (base == null) {
+                return;
+            }
+            if (result.p99() > base.p99() * (1 + latencyTolerance)) {
+                regressions.add(String.format("%s: p99 %.1f ms, baseline %.1f ms", name, result.p99(), base.p99()));
+            }
+            if (result.throughput() < base.throughput() * (1 - throughputTolerance)) {
+                regressions.add(String.format("%s: %.1f req/s, baseline %.1f req/s", name, result.throughput(), base.throughput()));
+            }
+            if (result.errorRate() > base.errorRate() + 0.01) {
+                regressions.add(String.format("%s: %.1f%% errors, baseline %.1f%%", name,
+                        result.errorRate() * 100, base.errorRate() * 100));
+            }
+        });
+        return regressions;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
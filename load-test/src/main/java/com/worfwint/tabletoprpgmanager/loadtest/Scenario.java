@@ -0,0 +1,114 @@
+package com.worfwint.tabletoprpgmanager.loadtest;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A scripted interaction and how often it occurs relative to the others.
+ *
+ * @param name   scenario name
+ * @param weight share of the traffic mix
+ * @param script calls made by one execution
+ */
+public record Scenario(String name, int weight, Script script) {
+
+    /**
+     * Calls made by one execution of a scenario.
+     */
+    @FunctionalInterface
+    public interface Script {
+        void run(VirtualUser user) throws IOException, InterruptedException;
+    }
+
+    private interface TokenCall {
+        void run(String accessToken) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Traffic mix modelled on production: mostly anonymous feed and article reads, a steady share of
+     * sign-ins and refreshes, occasional writes, like storms on a single article and rare image uploads.
+     *
+     * @return scenarios with their weights
+     */
+    public static List<Scenario> trafficMix() {
+        return List.of(
+                new Scenario("feed browsing", 35, Scenario::browseFeed),
+                new Scenario("article detail", 25, Scenario::readArticle),
+                new Scenario("login and refresh", 10, Scenario::loginAndRefresh),
+                new Scenario("user search typeahead", 10, Scenario::searchUsers),
+                new Scenario("like storm", 10, Scenario::likeHotArticle),
+                new Scenario("comment posting", 8, Scenario::postComment),
+                new Scenario("image upload", 2, Scenario::uploadImage));
+    }
+
+    private static void browseFeed(VirtualUser user) throws IOException, InterruptedException {
+        int pages = 1 + ThreadLocalRandom.current().nextInt(3);
+        for (int page = 0; page < pages; page++) {
+            JsonNode response = user.client().get("GET /api/news", "/api/news?page=" + page + "&size=20", null);
+            if (response == null || response.path("last").asBoolean()) {
+                break;
+            }
+        }
+    }
+
+    private static void readArticle(VirtualUser user) throws IOException, InterruptedException {
+        long articleId = user.randomArticleId();
+        user.client().get("GET /api/news/{id}", "/api/news/" + articleId, null);
+        user.client().get("GET /api/news/{id}/comments", "/api/news/" + articleId + "/comments?page=0&size=20", null);
+    }
+
+    private static void loginAndRefresh(VirtualUser user) throws IOException, InterruptedException {
+        user.signIn();
+        user.refresh();
+    }
+
+    private static void searchUsers(VirtualUser user) throws IOException, InterruptedException {
+        // one request per keystroke, as the typeahead sends them
+        String term = Fixture.USERNAME_PREFIX + ThreadLocalRandom.current().nextInt(10);
+        authenticated(user, token -> {
+            for (int length = 2; length <= term.length(); length++) {
+                user.client().get("GET /api/users/search", "/api/users/search?q=" + term.substring(0, length)
+                        + "&page=0&size=10", token);
+            }
+        });
+    }
+
+    private static void likeHotArticle(VirtualUser user) throws IOException, InterruptedException {
+        String path = "/api/news/" + user.fixture().getHotArticleId() + "/likes";
+        authenticated(user, token -> {
+            user.client().sendJson("POST /api/news/{id}/likes", "POST", path, null, token);
+            user.client().sendJson("DELETE /api/news/{id}/likes", "DELETE", path, null, token);
+        });
+    }
+
+    private static void postComment(VirtualUser user) throws IOException, InterruptedException {
+        long articleId = user.randomArticleId();
+        authenticated(user, token -> user.client().sendJson("POST /api/news/{id}/comments", "POST",
+                "/api/news/" + articleId + "/comments",
+                Map.of("content", "Load test comment by " + user.username()), token));
+    }
+
+    private static void uploadImage(VirtualUser user) throws IOException, InterruptedException {
+        JsonNode tokens = Fixture.login(user.client(), "POST /api/auth/login",
+                user.fixture().getAdminUsername(), user.fixture().getAdminPassword());
+        user.client().sendBytes("POST /api/news/{id}/image", "/api/news/" + user.randomArticleId() + "/image",
+                "image/png", user.fixture().getImage(), tokens.path("accessToken").asText());
+    }
+
+    private static void authenticated(VirtualUser user, TokenCall call) throws IOException, InterruptedException {
+        try {
+            call.run(user.accessToken());
+        } catch (ApiClient.ApiException ex) {
+            if (ex.getStatus() != 401 && ex.getStatus() != 403) {
+                throw ex;
+            }
+            // expired access token: sign in again for the next execution
+            user.signOut();
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.worfwint.tabletoprpgmanager.loadtest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One simulated client. Signs in with one of the prepared accounts and keeps its tokens between
+ * scenarios, signing in again when the access token is rejected.
+ */
+public class VirtualUser {
+
+    private final ApiClient client;
+    private final Fixture fixture;
+    private final String username;
+    private String accessToken;
+    private String refreshToken;
+
+    public VirtualUser(ApiClient client, Fixture fixture, int index) {
+        this.client = client;
+        this.fixture = fixture;
+        this.username = fixture.getUsernames().get(index % fixture.getUsernames().size());
+    }
+
+    public ApiClient client() {
+        return client;
+    }
+
+    public Fixture fixture() {
+        return fixture;
+    }
+
+    public String username() {
+        return username;
+    }
+
+    /**
+     * @return a random article of the feed
+     */
+    public long randomArticleId() {
+        return fixture.getArticleIds().get(ThreadLocalRandom.current().nextInt(fixture.getArticleIds().size()));
+    }
+
+    /**
+     * @return access token, signing in first when there is none
+     */
+    public String accessToken() throws IOException, InterruptedException {
+        if (accessToken == null) {
+            signIn();
+        }
+        return accessToken;
+    }
+
+    /**
+     * Signs in and stores the issued tokens.
+     */
+    public void signIn() throws IOException, InterruptedException {
+        store(Fixture.login(client, "POST /api/auth/login", username, Fixture.PASSWORD));
+    }
+
+    /**
+     * Exchanges the refresh token for a new pair.
+     */
+    public void refresh() throws IOException, InterruptedException {
+        if (refreshToken == null) {
+            signIn();
+        }
+        store(client.sendJson("POST /api/auth/refresh", "POST", "/api/auth/refresh",
+                Map.of("refreshToken", refreshToken), null));
+    }
+
+    /**
+     * Forgets the tokens, for example after the server rejected them.
+     */
+    public void signOut() {
+        accessToken = null;
+        refreshToken = null;
+    }
+
+    private void store(JsonNode tokens) {
+        accessToken = tokens.path("accessToken").asText();
+        refreshToken = tokens.path("refreshToken").asText();
+    }
+}
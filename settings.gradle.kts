@@ -1 +1,2 @@
 rootProject.name = "tabletop-rpg-manager"
+include("load-test")
@@ -0,0 +1,129 @@
+package com.worfwint.tabletoprpgmanager.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Inserts of comments and likes one statement at a time compared with JDBC batches, with and without
+ * the driver rewriting a batch into multi-row inserts. Ids are assigned by the client, as with the
+ * pooled sequences used by the entities.
+ * <p>
+ * Needs the database of {@code docker-compose.yml}, configured through the same {@code PG*} variables as
+ * the application, and only runs with {@code ./gradlew jmh -PjmhDatabase}. Rows go to temporary copies of
+ * the real tables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkInsertBenchmark {
+
+    private static final int ROWS = 500;
+
+    @Param({"single", "batch", "rewritten-batch"})
+    private String strategy;
+
+    private Connection connection;
+    private long nextId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = "jdbc:postgresql://" + env("PGHOST", "localhost") + ":" + env("PGPORT", "5432") + "/"
+                + env("PGDATABASE", "trpg_db") + "?reWriteBatchedInserts=" + strategy.equals("rewritten-batch");
+        connection = DriverManager.getConnection(url, env("PGUSER", "trpg_user"), env("PGPASSWORD", "trpg_password"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE bench_comments (LIKE news_comments INCLUDING DEFAULTS)");
+            statement.execute("CREATE TEMP TABLE bench_likes (LIKE news_likes INCLUDING DEFAULTS)");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE bench_comments, bench_likes");
+        }
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void insertComments() throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO bench_comments (id, article_id, author_id, content, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                statement.setLong(1, nextId++);
+                statement.setLong(2, 1 + i % 20);
+                statement.setLong(3, 1 + i % 100);
+                statement.setString(4, "Comment " + i + " on the last session, with a few words of text.");
+                statement.setTimestamp(5, now);
+                statement.setTimestamp(6, now);
+                execute(statement);
+            }
+            finish(statement);
+        }
+    }
+
+    @Benchmark
+    public void insertLikes() throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO bench_likes (id, article_id, user_id, created_at) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                statement.setLong(1, nextId++);
+                // a like storm: many users on one article
+                statement.setLong(2, 1);
+                statement.setLong(3, nextId);
+                statement.setTimestamp(4, now);
+                execute(statement);
+            }
+            finish(statement);
+        }
+    }
+
+    private void execute(PreparedStatement statement) throws SQLException {
+        if (strategy.equals("single")) {
+            statement.executeUpdate();
+        } else {
+            statement.addBatch();
+            if (nextId % 50 == 0) {
+                // flush at the Hibernate batch size
+                statement.executeBatch();
+            }
+        }
+    }
+
+    private void finish(PreparedStatement statement) throws SQLException {
+        if (!strategy.equals("single")) {
+            statement.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
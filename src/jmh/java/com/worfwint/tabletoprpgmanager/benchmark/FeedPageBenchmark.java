@@ -0,0 +1,251 @@
+package com.worfwint.tabletoprpgmanager.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.worfwint.tabletoprpgmanager.news.entity.NewsArticle;
+import com.worfwint.tabletoprpgmanager.news.repository.NewsArticleRepository;
+import com.worfwint.tabletoprpgmanager.news.repository.NewsArticleRepositoryCustomImpl;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleSummaryView;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * A feed page of articles with 50 KB bodies, read through full entities as the feed did before, compared
+ * with the summary projection it uses now. Both run in read-only transactions through Spring Data
+ * repositories; the entity query selects the like and comment counts the entity used to map as formulas.
+ * The {@code gc} profiler of the build reports the allocation per page next to the latency.
+ * <p>
+ * Needs the database of {@code docker-compose.yml}, configured through the same {@code PG*} variables as
+ * the application, and only runs with {@code ./gradlew jmh -PjmhDatabase}. Rows go to copies of the real
+ * tables in a schema dropped after the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FeedPageBenchmark {
+
+    private static final String SCHEMA = "feed_benchmark";
+    private static final int ARTICLES = 500;
+    private static final int AUTHORS = 10;
+    private static final int BODY_CHARS = 50 * 1024;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private HikariDataSource dataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private TransactionTemplate readOnly;
+    private EntityFeedRepository entityFeed;
+    private NewsArticleRepository articles;
+
+    @Setup
+    public void setUp() throws SQLException {
+        try (Connection connection = connect()) {
+            createTables(connection);
+            insertRows(connection);
+        }
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url() + "?currentSchema=" + SCHEMA);
+        dataSource.setUsername(env("PGUSER", "trpg_user"));
+        dataSource.setPassword(env("PGPASSWORD", "trpg_password"));
+
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setPackagesToScan("com.worfwint.tabletoprpgmanager");
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        // the feed query is not served from the second-level cache, so both sides run without it
+        entityManagerFactory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "none",
+                "hibernate.cache.use_second_level_cache", "false",
+                "hibernate.integration.envers.enabled", "false"));
+        entityManagerFactory.afterPropertiesSet();
+
+        readOnly = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory.getObject()));
+        readOnly.setReadOnly(true);
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject());
+        JpaRepositoryFactory repositories = new JpaRepositoryFactory(entityManager);
+        entityFeed = repositories.getRepository(EntityFeedRepository.class);
+        articles = repositories.getRepository(NewsArticleRepository.class,
+                RepositoryFragments.just(new NewsArticleRepositoryCustomImpl(null, entityManagerFactory.getObject())));
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        entityManagerFactory.destroy();
+        dataSource.close();
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @Benchmark
+    public Page<Object[]> entities() {
+        return readOnly.execute(status -> entityFeed.findPage(PageRequest.of(0, pageSize)));
+    }
+
+    @Benchmark
+    public Page<NewsArticleSummaryView> summaries() {
+        return readOnly.execute(status -> articles.findSummariesByOrderByCreatedAtDesc(PageRequest.of(0, pageSize)));
+    }
+
+    /**
+     * The feed query from before the summary projection: whole articles with their authors.
+     */
+    interface EntityFeedRepository extends Repository<NewsArticle, Long> {
+
+        @Query(value = """
+            SELECT a,
+                   (SELECT COUNT(nl) FROM NewsLike nl WHERE nl.article = a),
+                   (SELECT COUNT(nc) FROM NewsComment nc WHERE nc.article = a)
+            FROM NewsArticle a
+            JOIN FETCH a.author
+            ORDER BY a.createdAt DESC
+        """,
+               countQuery = "SELECT COUNT(a) FROM NewsArticle a")
+        Page<Object[]> findPage(Pageable pageable);
+    }
+
+    private static void createTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            // INCLUDING ALL keeps the indexes and the column compression of the real tables
+            for (String table : new String[] {"users", "user_roles", "news_articles", "news_likes", "news_comments"}) {
+                statement.execute("CREATE TABLE " + SCHEMA + "." + table + " (LIKE public." + table + " INCLUDING ALL)");
+            }
+        }
+    }
+
+    private static void insertRows(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement users = connection.prepareStatement("INSERT INTO " + SCHEMA + ".users "
+                + "(id, username, email, password_hash, display_name, avatar_url, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement roles = connection.prepareStatement(
+                     "INSERT INTO " + SCHEMA + ".user_roles (user_id, roles) VALUES (?, 'USER')")) {
+            for (long id = 1; id <= AUTHORS; id++) {
+                users.setLong(1, id);
+                users.setString(2, "author" + id);
+                users.setString(3, "author" + id + "@example.com");
+                users.setString(4, "hash");
+                users.setString(5, "Game Master " + id);
+                users.setString(6, "https://media.example.com/avatars/" + id + ".png");
+                users.setTimestamp(7, now);
+                users.addBatch();
+                roles.setLong(1, id);
+                roles.addBatch();
+            }
+            users.executeBatch();
+            roles.executeBatch();
+        }
+        Random random = new Random(42);
+        try (PreparedStatement articles = connection.prepareStatement("INSERT INTO " + SCHEMA + ".news_articles "
+                + "(id, title, summary, content, content_html, image_url, image_variants, author_id, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement likes = connection.prepareStatement("INSERT INTO " + SCHEMA + ".news_likes "
+                     + "(id, article_id, user_id, created_at) VALUES (?, ?, ?, ?)");
+             PreparedStatement comments = connection.prepareStatement("INSERT INTO " + SCHEMA + ".news_comments "
+                     + "(id, article_id, author_id, content, created_at) VALUES (?, ?, ?, ?, ?)")) {
+            long nextId = 1;
+            for (long id = 1; id <= ARTICLES; id++) {
+                String body = body(random);
+                Timestamp createdAt = Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 12, 0).plusHours(id));
+                articles.setLong(1, id);
+                articles.setString(2, "Article " + id);
+                articles.setString(3, "Summary of article " + id + " with a sentence or two of text.");
+                articles.setString(4, body);
+                articles.setString(5, "<p>" + body.replace("\n\n", "</p><p>") + "</p>");
+                articles.setString(6, NewsFixtures.IMAGE_URL);
+                articles.setString(7, NewsFixtures.IMAGE_VARIANTS);
+                articles.setLong(8, 1 + id % AUTHORS);
+                articles.setTimestamp(9, createdAt);
+                articles.setTimestamp(10, createdAt);
+                articles.addBatch();
+                for (int i = 0; i < id % 20; i++) {
+                    likes.setLong(1, nextId++);
+                    likes.setLong(2, id);
+                    likes.setLong(3, 1 + i);
+                    likes.setTimestamp(4, now);
+                    likes.addBatch();
+                }
+                for (int i = 0; i < id % 5; i++) {
+                    comments.setLong(1, nextId++);
+                    comments.setLong(2, id);
+                    comments.setLong(3, 1 + i % AUTHORS);
+                    comments.setString(4, "Comment " + i + " on the last session, with a few words of text.");
+                    comments.setTimestamp(5, now);
+                    comments.addBatch();
+                }
+                if (id % 50 == 0) {
+                    articles.executeBatch();
+                    likes.executeBatch();
+                    comments.executeBatch();
+                }
+            }
+        }
+        connection.commit();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE " + SCHEMA + ".news_articles, " + SCHEMA + ".news_likes, "
+                    + SCHEMA + ".news_comments");
+        }
+        connection.commit();
+    }
+
+    private static String body(Random random) {
+        // random words compress about as well as prose, unlike a repeated sentence
+        String[] words = {"dragon", "session", "initiative", "campaign", "dungeon", "the", "party", "rolls", "a",
+                "critical", "saving", "throw", "against", "ancient", "curse", "while", "bard", "sings", "of", "gold"};
+        StringBuilder body = new StringBuilder(BODY_CHARS + 16);
+        while (body.length() < BODY_CHARS) {
+            body.append(words[random.nextInt(words.length)]).append(random.nextInt(12) == 0 ? ".\n\n" : " ");
+        }
+        return body.substring(0, BODY_CHARS);
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(url(), env("PGUSER", "trpg_user"), env("PGPASSWORD", "trpg_password"));
+    }
+
+    private static String url() {
+        return "jdbc:postgresql://" + env("PGHOST", "localhost") + ":" + env("PGPORT", "5432") + "/"
+                + env("PGDATABASE", "trpg_db");
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,98 @@
+package com.worfwint.tabletoprpgmanager.benchmark;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.worfwint.tabletoprpgmanager.auth.config.TokenCacheFallbackProperties;
+import com.worfwint.tabletoprpgmanager.auth.repository.UserTokenRepository;
+import com.worfwint.tabletoprpgmanager.auth.security.JwtService;
+import com.worfwint.tabletoprpgmanager.auth.service.TokenCacheService;
+import com.worfwint.tabletoprpgmanager.user.entity.User;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Access token issue, validation and claim extraction, which run on every sign-in and every
+ * authenticated request. Token versions are kept in memory instead of Redis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(new BCryptPasswordEncoder(), new InMemoryTokenCacheService(),
+                Stubs.of(UserTokenRepository.class, Map.of()));
+        Stubs.inject(jwtService, "secret", "benchmark-secret-benchmark-secret-benchmark-secret");
+        Stubs.inject(jwtService, "accessExpiration", 900_000L);
+        Stubs.inject(jwtService, "refreshExpiration", 604_800_000L);
+        Stubs.inject(jwtService, "refreshLength", 32);
+        Stubs.inject(jwtService, "issuer", "benchmark");
+
+        user = new User("benchmark", "benchmark@example.com", "hash");
+        user.setId(42L);
+        accessToken = jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public boolean isAccessTokenValid() {
+        return jwtService.isAccessTokenValid(accessToken);
+    }
+
+    @Benchmark
+    public String extractClaim() {
+        return jwtService.extractClaim(accessToken, "username", String.class);
+    }
+
+    /**
+     * Keeps the latest token version per user in a map.
+     */
+    static class InMemoryTokenCacheService extends TokenCacheService {
+
+        private final Map<Long, String> versions = new ConcurrentHashMap<>();
+
+        InMemoryTokenCacheService() {
+            super(null, null, CircuitBreakerRegistry.ofDefaults(),
+                    new TokenCacheFallbackProperties(TokenCacheFallbackProperties.Mode.REJECT, Duration.ZERO, 0),
+                    new SimpleMeterRegistry());
+        }
+
+        @Override
+        public void saveAccessTokenVersion(Long userId, String tokenVersion, Duration ttl) {
+            versions.put(userId, tokenVersion);
+        }
+
+        @Override
+        public boolean isValidAccessTokenVersion(Long userId, String tokenVersion, Instant issuedAt) {
+            return tokenVersion.equals(versions.get(userId));
+        }
+
+        @Override
+        public void invalidate(Long userId) {
+            versions.remove(userId);
+        }
+    }
+}
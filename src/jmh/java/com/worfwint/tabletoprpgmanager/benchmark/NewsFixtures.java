@@ -0,0 +1,129 @@
+package com.worfwint.tabletoprpgmanager.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.unit.DataSize;
+
+import com.worfwint.tabletoprpgmanager.common.coalesce.CoalescingProperties;
+import com.worfwint.tabletoprpgmanager.common.coalesce.RequestCoalescer;
+import com.worfwint.tabletoprpgmanager.news.entity.NewsArticle;
+import com.worfwint.tabletoprpgmanager.news.repository.NewsArticleRepository;
+import com.worfwint.tabletoprpgmanager.news.repository.NewsLikeRepository;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleCountsView;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleSummaryView;
+import com.worfwint.tabletoprpgmanager.news.service.NewsService;
+import com.worfwint.tabletoprpgmanager.storage.S3Properties;
+import com.worfwint.tabletoprpgmanager.storage.S3StorageService;
+import com.worfwint.tabletoprpgmanager.user.entity.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+
+/**
+ * A {@link NewsService} reading from fixed in-memory data, so benchmarks measure the mapping only.
+ */
+final class NewsFixtures {
+
+    static final String IMAGE_URL = "https://media.example.com/news/"
+            + "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef.jpg";
+    static final String IMAGE_VARIANTS = "w320,w640,w1280";
+
+    private NewsFixtures() {
+    }
+
+    /**
+     * Creates the service with repositories answering from fixed data.
+     *
+     * @param pageSize number of summaries in every page
+     * @return service instance without transactions or other proxies
+     */
+    static NewsService newsService(int pageSize) {
+        List<NewsArticleSummaryView> summaries = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            summaries.add(summary(id));
+        }
+        NewsArticle article = article();
+        NewsArticleCountsView counts = counts();
+
+        NewsArticleRepository articles = Stubs.of(NewsArticleRepository.class, Map.of(
+                "findSummariesByOrderByCreatedAtDesc", args -> new PageImpl<>(summaries, (Pageable) args[0], 1_000),
+                "findById", args -> Optional.of(article),
+                "findCountsById", args -> counts));
+        NewsLikeRepository likes = Stubs.of(NewsLikeRepository.class, Map.of(
+                "findArticleIdsLikedByUser", args -> Set.of(1L, 3L, 5L),
+                "existsByArticleIdAndUserId", args -> true));
+        // coalescing off: the benchmark measures the mapping of a single caller
+        RequestCoalescer coalescer = new RequestCoalescer(new CoalescingProperties(false), new SimpleMeterRegistry());
+        return new NewsService(articles, null, likes, null, storageService(), null, null, null, null, null, coalescer);
+    }
+
+    private static S3StorageService storageService() {
+        S3Properties properties = new S3Properties("https://s3.example.com", "bucket", "https://media.example.com",
+                "/api/media", "ru-1", null, null, true, DataSize.ofMegabytes(10), Duration.ofMinutes(10),
+                DataSize.ofMegabytes(8), 4, 16);
+        return new S3StorageService(null, null, null, null, properties);
+    }
+
+    private static NewsArticle article() {
+        User author = new User("author", "author@example.com", "hash");
+        author.setId(7L);
+        author.setDisplayName("Game Master");
+        author.setAvatarUrl("https://media.example.com/avatars/7.png");
+        NewsArticle article = new NewsArticle();
+        article.setId(1L);
+        article.setTitle("Session zero checklist");
+        article.setSummary("What to agree on before the first session.");
+        article.setContent("# Session zero\n\n" + "Talk about safety tools, tone and scheduling. ".repeat(60));
+        article.setContentHtml("<h1>Session zero</h1><p>" + "Talk about safety tools, tone and scheduling. ".repeat(60) + "</p>");
+        article.setImageUrl(IMAGE_URL);
+        article.setImageVariants(IMAGE_VARIANTS);
+        article.setAuthor(author);
+        article.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        article.setUpdatedAt(LocalDateTime.of(2025, 1, 2, 12, 0));
+        return article;
+    }
+
+    private static NewsArticleCountsView counts() {
+        return new NewsArticleCountsView() {
+            @Override
+            public long getLikeCount() {
+                return 128;
+            }
+
+            @Override
+            public long getCommentCount() {
+                return 16;
+            }
+        };
+    }
+
+    private static NewsArticleSummaryView summary(long id) {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 12, 0).plusHours(id);
+        Map<String, Object> values = Map.ofEntries(
+                Map.entry("getId", id),
+                Map.entry("getTitle", "Article " + id),
+                Map.entry("getSummary", "Summary of article " + id + " with a sentence or two of text."),
+                Map.entry("getCreatedAt", createdAt),
+                Map.entry("getUpdatedAt", createdAt.plusMinutes(5)),
+                Map.entry("getImageUrl", IMAGE_URL),
+                Map.entry("getImageVariants", IMAGE_VARIANTS),
+                Map.entry("getLikeCount", 10L * id),
+                Map.entry("getCommentCount", id),
+                Map.entry("getAuthorId", 7L),
+                Map.entry("getAuthorUsername", "author"),
+                Map.entry("getAuthorDisplayName", "Game Master"),
+                Map.entry("getAuthorAvatarUrl", "https://media.example.com/avatars/7.png"));
+        // plain map lookups, comparable to the tuple-backed projections Spring Data creates
+        return (NewsArticleSummaryView) Proxy.newProxyInstance(NewsArticleSummaryView.class.getClassLoader(),
+                new Class<?>[] {NewsArticleSummaryView.class}, (proxy, method, args) -> values.get(method.getName()));
+    }
+}
@@ -0,0 +1,50 @@
+package com.worfwint.tabletoprpgmanager.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageRequest;
+
+import com.worfwint.tabletoprpgmanager.common.dto.AuthenticatedUser;
+import com.worfwint.tabletoprpgmanager.common.dto.response.PageResponse;
+import com.worfwint.tabletoprpgmanager.news.dto.response.NewsDetailResponse;
+import com.worfwint.tabletoprpgmanager.news.dto.response.NewsSummaryResponse;
+import com.worfwint.tabletoprpgmanager.news.service.NewsService;
+
+/**
+ * Mapping of article projections and entities to the feed and detail responses, including the image
+ * variant URLs. Repositories answer from memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NewsMappingBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private final AuthenticatedUser currentUser = new AuthenticatedUser(3L, "reader", "reader@example.com");
+    private NewsService newsService;
+
+    @Setup
+    public void setUp() {
+        newsService = NewsFixtures.newsService(pageSize);
+    }
+
+    @Benchmark
+    public PageResponse<NewsSummaryResponse> feedPage() {
+        return newsService.listArticles(PageRequest.of(0, pageSize), currentUser);
+    }
+
+    @Benchmark
+    public NewsDetailResponse articleDetail() {
+        return newsService.getArticle(1L, currentUser);
+    }
+}
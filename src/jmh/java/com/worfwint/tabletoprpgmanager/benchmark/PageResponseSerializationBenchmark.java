@@ -0,0 +1,47 @@
+package com.worfwint.tabletoprpgmanager.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worfwint.tabletoprpgmanager.common.dto.AuthenticatedUser;
+import com.worfwint.tabletoprpgmanager.common.dto.response.PageResponse;
+import com.worfwint.tabletoprpgmanager.news.dto.response.NewsSummaryResponse;
+
+/**
+ * Jackson serialization of a feed page, with an object mapper configured like the one of the web layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PageResponseSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private PageResponse<NewsSummaryResponse> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        page = NewsFixtures.newsService(pageSize).listArticles(PageRequest.of(0, pageSize),
+                new AuthenticatedUser(3L, "reader", "reader@example.com"));
+    }
+
+    @Benchmark
+    public byte[] serializeFeedPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,47 @@
+package com.worfwint.tabletoprpgmanager.benchmark;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Hashing done for refresh tokens: the random token value is hashed with the application password
+ * encoder when the token is issued and checked against the hash when it is exchanged.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RefreshTokenHashingBenchmark {
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private String tokenValue;
+    private String tokenHash;
+
+    @Setup
+    public void setUp() {
+        byte[] randomBytes = new byte[32];
+        new SecureRandom().nextBytes(randomBytes);
+        tokenValue = Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+        tokenHash = passwordEncoder.encode(tokenValue);
+    }
+
+    @Benchmark
+    public String hashOnIssue() {
+        return passwordEncoder.encode(tokenValue);
+    }
+
+    @Benchmark
+    public boolean verifyOnRefresh() {
+        return passwordEncoder.matches(tokenValue, tokenHash);
+    }
+}
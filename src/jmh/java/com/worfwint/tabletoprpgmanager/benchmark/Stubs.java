@@ -0,0 +1,59 @@
+package com.worfwint.tabletoprpgmanager.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Minimal stand-ins for collaborators of the benchmarked services.
+ */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    /**
+     * Implements an interface by answering the named methods and failing on all others, so a benchmark
+     * cannot silently measure an unexpected call.
+     *
+     * @param type    interface to implement
+     * @param answers results per method name, computed from the call arguments
+     * @param <T>     interface type
+     * @return stub instance
+     */
+    static <T> T of(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return answer.apply(args);
+        });
+        return type.cast(stub);
+    }
+
+    /**
+     * Sets a field normally injected by Spring.
+     *
+     * @param target object to modify
+     * @param name   field name
+     * @param value  value to set
+     */
+    static void inject(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot set " + name, ex);
+        }
+    }
+}
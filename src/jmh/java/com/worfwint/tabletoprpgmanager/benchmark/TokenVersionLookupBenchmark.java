@@ -0,0 +1,119 @@
+package com.worfwint.tabletoprpgmanager.benchmark;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import com.worfwint.tabletoprpgmanager.auth.config.TokenCacheFallbackProperties;
+import com.worfwint.tabletoprpgmanager.auth.config.TokenVersionBatchingProperties;
+import com.worfwint.tabletoprpgmanager.auth.service.TokenCacheService;
+import com.worfwint.tabletoprpgmanager.auth.service.TokenVersionBatcher;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Token version checks of many concurrent requests, reading each version with its own {@code GET}
+ * compared with batching them into {@code MGET}s. Throughput and sampled latency percentiles are reported
+ * by JMH; the Redis commands spent per check are printed after each run.
+ * <p>
+ * Needs the Redis of {@code docker-compose.yml}, configured through {@code REDIS_HOST} and
+ * {@code REDIS_PORT}, and only runs with {@code ./gradlew jmh -PjmhRedis}. Uses keys of users that do not
+ * exist in the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(64)
+public class TokenVersionLookupBenchmark {
+
+    private static final long FIRST_USER = 9_000_000_000L;
+    private static final int USERS = 10_000;
+
+    @Param({"off", "on"})
+    private String batching;
+
+    private LettuceConnectionFactory connectionFactory;
+    private TokenVersionBatcher batcher;
+    private TokenCacheService tokenCacheService;
+    private final Instant issuedAt = Instant.now();
+    private final LongAdder lookups = new LongAdder();
+    private long commandsBefore;
+
+    @Setup
+    public void setUp() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(env("REDIS_HOST", "localhost"), Integer.parseInt(env("REDIS_PORT", "6379"))));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        RedisTemplate<String, String> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+
+        if (batching.equals("on")) {
+            batcher = new TokenVersionBatcher(redisTemplate,
+                    new TokenVersionBatchingProperties(true, Duration.ofNanos(200_000), 256, Duration.ofMillis(300)),
+                    new SimpleMeterRegistry());
+        }
+        tokenCacheService = new TokenCacheService(redisTemplate, batcher, CircuitBreakerRegistry.ofDefaults(),
+                new TokenCacheFallbackProperties(TokenCacheFallbackProperties.Mode.REJECT, Duration.ZERO, 0),
+                new SimpleMeterRegistry());
+        for (int i = 0; i < USERS; i++) {
+            tokenCacheService.saveAccessTokenVersion(FIRST_USER + i, "version-" + i, Duration.ofMinutes(10));
+        }
+        commandsBefore = commandsProcessed();
+    }
+
+    @TearDown
+    public void tearDown() {
+        long commands = commandsProcessed() - commandsBefore;
+        System.out.printf("%nbatching %s: %d lookups, %d Redis commands, %.3f commands per lookup%n",
+                batching, lookups.sum(), commands, (double) commands / Math.max(1, lookups.sum()));
+        if (batcher != null) {
+            batcher.destroy();
+        }
+        for (int i = 0; i < USERS; i++) {
+            tokenCacheService.invalidate(FIRST_USER + i);
+        }
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public boolean isValidAccessTokenVersion() {
+        int user = ThreadLocalRandom.current().nextInt(USERS);
+        lookups.increment();
+        return tokenCacheService.isValidAccessTokenVersion(FIRST_USER + user, "version-" + user, issuedAt);
+    }
+
+    private long commandsProcessed() {
+        try (var connection = connectionFactory.getConnection()) {
+            Properties stats = connection.serverCommands().info("stats");
+            return Long.parseLong(stats.getProperty("total_commands_processed", "0"));
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
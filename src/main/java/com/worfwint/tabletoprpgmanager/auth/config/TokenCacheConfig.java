@@ -0,0 +1,35 @@
+package com.worfwint.tabletoprpgmanager.auth.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.worfwint.tabletoprpgmanager.auth.service.TokenVersionBatcher;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configures how token metadata is read from Redis.
+ */
+@Configuration
+@EnableConfigurationProperties({TokenVersionBatchingProperties.class, TokenCacheFallbackProperties.class})
+public class TokenCacheConfig {
+
+    /**
+     * Creates the batcher of token version lookups, unless batching is switched off.
+     *
+     * @param redisTemplate template whose shared connection carries the batches
+     * @param properties    batching settings
+     * @param meterRegistry registry receiving the batch sizes
+     * @return batcher used by {@code TokenCacheService}
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.auth.token-version-batching", name = "enabled", matchIfMissing = true)
+    public TokenVersionBatcher tokenVersionBatcher(RedisTemplate<String, String> redisTemplate,
+                                                   TokenVersionBatchingProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        return new TokenVersionBatcher(redisTemplate, properties, meterRegistry);
+    }
+}
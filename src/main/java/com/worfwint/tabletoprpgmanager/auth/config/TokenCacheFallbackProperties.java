@@ -0,0 +1,49 @@
+package com.worfwint.tabletoprpgmanager.auth.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * How access tokens are validated while their versions cannot be read from Redis, because the
+ * {@code tokenCache} circuit breaker is open or a lookup failed.
+ *
+ * @param mode         degraded validation strategy
+ * @param maxTokenAge  age up to which a token with a valid signature is accepted without its version
+ * @param snapshotSize token versions of recently seen users kept locally
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.auth.token-cache.fallback")
+public record TokenCacheFallbackProperties(
+        @DefaultValue("SNAPSHOT") @NotNull Mode mode,
+        @DefaultValue("60s") Duration maxTokenAge,
+        @DefaultValue("100000") @Min(0) int snapshotSize
+) {
+
+    /**
+     * Degraded validation strategies.
+     */
+    public enum Mode {
+
+        /**
+         * Rejects every token, so all authenticated requests fail until Redis is back.
+         */
+        REJECT,
+
+        /**
+         * Accepts tokens issued within {@link #maxTokenAge()}. Revocations of such tokens are not seen.
+         */
+        MAX_AGE,
+
+        /**
+         * Compares the token with the last version this node read or wrote for its user, and applies
+         * {@link #MAX_AGE} to users it has not seen.
+         */
+        SNAPSHOT
+    }
+}
@@ -0,0 +1,26 @@
+package com.worfwint.tabletoprpgmanager.auth.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+
+/**
+ * Settings of the batched token version lookups of {@code TokenVersionBatcher}.
+ *
+ * @param enabled      whether lookups are gathered into batches instead of issuing one {@code GET} each
+ * @param window       how long the first lookup of a batch waits for others to join it
+ * @param maxBatchSize most keys read by a single {@code MGET}
+ * @param timeout      how long a caller waits for its batch before failing
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.auth.token-version-batching")
+public record TokenVersionBatchingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("200us") Duration window,
+        @DefaultValue("256") @Min(1) int maxBatchSize,
+        @DefaultValue("300ms") Duration timeout
+) {}
@@ -6,6 +6,8 @@ import java.util.UUID;
 
 import com.worfwint.tabletoprpgmanager.user.entity.User;
 import lombok.Data;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.envers.Audited;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -15,6 +17,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -24,7 +27,8 @@ import lombok.NoArgsConstructor;
  * Stores metadata about refresh tokens issued to users.
  */
 @Entity
-@Table(name = "user_token")
+@Table(name = "user_token",
+       indexes = @Index(name = "idx_user_token_user", columnList = "user_id"))
 @Audited
 @EntityListeners(AuditingEntityListener.class)
 @NoArgsConstructor
@@ -48,6 +52,7 @@ public class UserToken {
      */
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private User user;
 
     /**
@@ -4,12 +4,16 @@ import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import com.worfwint.tabletoprpgmanager.user.entity.User;
 import com.worfwint.tabletoprpgmanager.auth.entity.UserToken;
 
@@ -67,4 +71,19 @@ public interface UserTokenRepository extends JpaRepository<UserToken, UUID> {
           AND ut.revoked = false
     """)
     void revokeAllTokensForUser(@Param("userId") Long userId, @Param("revokedAt") Date revokedAt);
+
+    /**
+     * Deletes up to {@code limit} tokens of the given user without loading them.
+     *
+     * @param userId user identifier
+     * @param limit maximum number of rows to delete
+     * @return number of deleted rows
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_token"))
+    @Query(value = """
+        DELETE FROM user_token
+        WHERE jti IN (SELECT jti FROM user_token WHERE user_id = :userId LIMIT :limit)
+    """, nativeQuery = true)
+    int deleteChunkByUserId(@Param("userId") Long userId, @Param("limit") int limit);
 }
@@ -21,6 +21,8 @@ import com.worfwint.tabletoprpgmanager.common.dto.TokenPair;
 import com.worfwint.tabletoprpgmanager.user.entity.User;
 import com.worfwint.tabletoprpgmanager.auth.entity.UserToken;
 import com.worfwint.tabletoprpgmanager.common.exception.UnauthorizedException;
+import com.worfwint.tabletoprpgmanager.common.jfr.JwtVerificationEvent;
+import com.worfwint.tabletoprpgmanager.common.jfr.Stages;
 import com.worfwint.tabletoprpgmanager.auth.repository.UserTokenRepository;
 import com.worfwint.tabletoprpgmanager.auth.service.TokenCacheService;
 
@@ -158,12 +160,14 @@ public class JwtService {
      */
     public boolean isAccessTokenValid(String token) {
         try {
-            final Claims claims = extractAllClaims(token);
+            final Claims claims = Stages.record(new JwtVerificationEvent(), "isAccessTokenValid",
+                    () -> extractAllClaims(token));
             final String tokenIssuer = claims.getIssuer();
             final Long subject = Long.valueOf(claims.getSubject());
             return !isTokenExpired(claims)
                    && tokenIssuer.equals(issuer)
-                   && tokenCacheService.isValidAccessTokenVersion(subject, claims.getId());
+                   && tokenCacheService.isValidAccessTokenVersion(subject, claims.getId(),
+                           claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null);
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
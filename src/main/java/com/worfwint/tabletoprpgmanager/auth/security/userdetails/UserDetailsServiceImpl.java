@@ -12,11 +12,14 @@ import org.springframework.stereotype.Service;
 
 import com.worfwint.tabletoprpgmanager.user.entity.User;
 import com.worfwint.tabletoprpgmanager.user.repository.UserRepository;
+import com.worfwint.tabletoprpgmanager.common.datasource.DataSourcePool;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLane;
 
 /**
  * Loads user details for Spring Security based on username or identifier.
  */
 @Service
+@DataSourcePool(PoolLane.AUTH)
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
@@ -40,6 +43,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
+                     .filter(found -> !found.isDeletionRequested())
                      .orElseThrow(() -> new UsernameNotFoundException("Not found"));
         List<GrantedAuthority> auth = user.getRoles().stream()
                  .map(role -> new SimpleGrantedAuthority(role.name()))
@@ -56,6 +60,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     public UserDetails loadUserById(Long userId) throws UsernameNotFoundException {
         User user = userRepository.findById(userId)
+                     .filter(found -> !found.isDeletionRequested())
                      .orElseThrow(() -> new UsernameNotFoundException("Not found"));
         List<GrantedAuthority> auth = user.getRoles().stream()
                  .map(role -> new SimpleGrantedAuthority(role.name()))
@@ -15,6 +15,8 @@ import com.worfwint.tabletoprpgmanager.auth.exception.InvalidCredentialsExceptio
 import com.worfwint.tabletoprpgmanager.auth.exception.UsernameAlreadyExistsException;
 import com.worfwint.tabletoprpgmanager.user.repository.UserRepository;
 import com.worfwint.tabletoprpgmanager.auth.security.JwtService;
+import com.worfwint.tabletoprpgmanager.common.datasource.DataSourcePool;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLane;
 
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
@@ -24,6 +26,7 @@ import lombok.AllArgsConstructor;
  */
 @Service
 @AllArgsConstructor
+@DataSourcePool(PoolLane.AUTH)
 public class AuthService {
 
     private final UserRepository userRepository;
@@ -81,6 +84,9 @@ public class AuthService {
         if (!passwordEncoder.matches(request.password, user.getPasswordHash())) {
             throw new InvalidCredentialsException("Invalid credentails");
         }
+        if (user.isDeletionRequested()) {
+            throw new InvalidCredentialsException();
+        }
 
         jwtService.revokeAllTokens(user.getId());
         TokenPair tokenPair = jwtService.generateTokenPair(user);
@@ -0,0 +1,46 @@
+package com.worfwint.tabletoprpgmanager.auth.service;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import com.worfwint.tabletoprpgmanager.auth.config.TokenCacheFallbackProperties;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+/**
+ * Reports whether access tokens are validated against Redis or by the degraded fallback. While the
+ * circuit breaker is not closed the status is {@code DEGRADED}, which still answers with HTTP 200 so the
+ * node keeps receiving traffic.
+ */
+@Component
+public class TokenCacheHealthIndicator implements HealthIndicator {
+
+    /**
+     * Status of a node validating tokens without Redis.
+     */
+    public static final Status DEGRADED = new Status("DEGRADED", "Access tokens are validated without Redis");
+
+    private final TokenCacheService tokenCacheService;
+    private final TokenCacheFallbackProperties fallback;
+
+    public TokenCacheHealthIndicator(TokenCacheService tokenCacheService, TokenCacheFallbackProperties fallback) {
+        this.tokenCacheService = tokenCacheService;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Health health() {
+        CircuitBreaker circuitBreaker = tokenCacheService.getCircuitBreaker();
+        CircuitBreaker.State state = circuitBreaker.getState();
+        Health.Builder health = state == CircuitBreaker.State.CLOSED ? Health.up() : Health.status(DEGRADED);
+        return health
+                .withDetail("circuit", state.name())
+                .withDetail("failureRate", circuitBreaker.getMetrics().getFailureRate())
+                .withDetail("slowCallRate", circuitBreaker.getMetrics().getSlowCallRate())
+                .withDetail("fallbackMode", fallback.mode().name())
+                .withDetail("snapshotSize", tokenCacheService.getSnapshotSize())
+                .build();
+    }
+}
@@ -1,25 +1,76 @@
 package com.worfwint.tabletoprpgmanager.auth.service;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.worfwint.tabletoprpgmanager.auth.config.TokenCacheFallbackProperties;
+import com.worfwint.tabletoprpgmanager.common.jfr.Stages;
+import com.worfwint.tabletoprpgmanager.common.jfr.TokenCheckEvent;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Manages short-lived token metadata stored in Redis.
+ * <p>
+ * All Redis calls pass the {@code tokenCache} circuit breaker, so an unavailable or slow Redis fails fast
+ * instead of holding every request until the command timeout. Version checks that cannot reach Redis are
+ * decided by the configured {@link TokenCacheFallbackProperties.Mode}, using a local snapshot of the
+ * versions this node read or wrote recently. Such decisions are counted in {@code auth.token.fallback}.
  */
 @Service
 public class TokenCacheService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(TokenCacheService.class);
+    private static final String CIRCUIT_BREAKER = "tokenCache";
+    // snapshot value of a user whose version is known to be revoked
+    private static final String REVOKED = "";
+
     private final RedisTemplate<String, String> redisTemplate;
+    private final TokenVersionBatcher batcher;
+    private final CircuitBreaker circuitBreaker;
+    private final TokenCacheFallbackProperties fallback;
+    private final MeterRegistry meterRegistry;
+    private final Cache<Long, String> snapshot;
 
     /**
      * Creates a new service with the provided Redis template.
      *
      * @param redisTemplate template used for interacting with Redis
+     * @param batcher batcher of version lookups, {@code null} to read each version on its own
+     * @param circuitBreakers registry providing the {@code tokenCache} circuit breaker
+     * @param fallback validation settings while Redis cannot be reached
+     * @param meterRegistry registry receiving fallback decisions
      */
-    public TokenCacheService(RedisTemplate<String, String> redisTemplate) {
+    public TokenCacheService(RedisTemplate<String, String> redisTemplate,
+                             @Nullable TokenVersionBatcher batcher,
+                             CircuitBreakerRegistry circuitBreakers,
+                             TokenCacheFallbackProperties fallback,
+                             MeterRegistry meterRegistry) {
         this.redisTemplate = redisTemplate;
+        this.batcher = batcher;
+        this.circuitBreaker = circuitBreakers.circuitBreaker(CIRCUIT_BREAKER);
+        this.fallback = fallback;
+        this.meterRegistry = meterRegistry;
+        this.snapshot = Caffeine.newBuilder()
+                .maximumSize(fallback.snapshotSize())
+                .build();
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            LOG.warn("Token cache circuit breaker changed {}", event.getStateTransition());
+            meterRegistry.counter("auth.token.circuit.transitions",
+                    "from", event.getStateTransition().getFromState().name(),
+                    "to", event.getStateTransition().getToState().name()).increment();
+        });
     }
 
     /**
@@ -31,19 +82,37 @@ public class TokenCacheService {
      */
     public void saveAccessTokenVersion(Long userId, String tokenVersion, Duration ttl) {
         String key = buildKey(userId);
-        redisTemplate.opsForValue().set(key, tokenVersion, ttl);
+        snapshot.put(userId, tokenVersion);
+        run(() -> {
+            redisTemplate.opsForValue().set(key, tokenVersion, ttl);
+            return null;
+        });
     }
 
     /**
-     * Checks if the provided token version matches the cached version.
+     * Checks if the provided token version matches the cached version. While Redis cannot be reached
+     * the configured fallback decides.
      *
      * @param userId identifier of the user
      * @param tokenVersion version identifier to validate
+     * @param issuedAt issue time of the token, used by the fallback
      * @return {@code true} if the cached version matches the provided version
      */
-    public boolean isValidAccessTokenVersion(Long userId, String tokenVersion) {
+    public boolean isValidAccessTokenVersion(Long userId, String tokenVersion, Instant issuedAt) {
+        return Stages.record(new TokenCheckEvent(), "isValidAccessTokenVersion",
+                () -> checkAccessTokenVersion(userId, tokenVersion, issuedAt));
+    }
+
+    private boolean checkAccessTokenVersion(Long userId, String tokenVersion, Instant issuedAt) {
         String key = buildKey(userId);
-        String storedVersion = redisTemplate.opsForValue().get(key);
+        String storedVersion;
+        try {
+            storedVersion = run(() -> batcher != null ? batcher.get(key) : redisTemplate.opsForValue().get(key));
+        } catch (RuntimeException ex) {
+            LOG.debug("Could not read the token version of user {}: {}", userId, ex.getMessage());
+            return validateDegraded(userId, tokenVersion, issuedAt);
+        }
+        snapshot.put(userId, storedVersion != null ? storedVersion : REVOKED);
         return storedVersion != null && storedVersion.equals(tokenVersion);
     }
 
@@ -53,7 +122,52 @@ public class TokenCacheService {
      * @param userId identifier of the user
      */
     public void invalidate(Long userId) {
-        redisTemplate.delete(buildKey(userId));
+        // revoked on this node right away, even if Redis is unavailable
+        snapshot.put(userId, REVOKED);
+        run(() -> redisTemplate.delete(buildKey(userId)));
+    }
+
+    /**
+     * @return circuit breaker guarding the Redis calls
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return number of token versions in the local snapshot
+     */
+    public long getSnapshotSize() {
+        return snapshot.estimatedSize();
+    }
+
+    private <T> T run(Supplier<T> call) {
+        return circuitBreaker.executeSupplier(call);
+    }
+
+    private boolean validateDegraded(Long userId, String tokenVersion, Instant issuedAt) {
+        String basis = "age";
+        boolean accepted = switch (fallback.mode()) {
+            case REJECT -> false;
+            case MAX_AGE -> isRecent(issuedAt);
+            case SNAPSHOT -> {
+                String known = snapshot.getIfPresent(userId);
+                if (known == null) {
+                    yield isRecent(issuedAt);
+                }
+                basis = "snapshot";
+                yield known.equals(tokenVersion);
+            }
+        };
+        meterRegistry.counter("auth.token.fallback",
+                "mode", fallback.mode().name(),
+                "basis", fallback.mode() == TokenCacheFallbackProperties.Mode.REJECT ? "none" : basis,
+                "decision", accepted ? "accepted" : "rejected").increment();
+        return accepted;
+    }
+
+    private boolean isRecent(Instant issuedAt) {
+        return issuedAt != null && issuedAt.isAfter(Instant.now().minus(fallback.maxTokenAge()));
     }
 
     /**
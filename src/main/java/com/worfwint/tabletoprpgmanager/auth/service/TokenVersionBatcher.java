@@ -0,0 +1,136 @@
+package com.worfwint.tabletoprpgmanager.auth.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.worfwint.tabletoprpgmanager.auth.config.TokenVersionBatchingProperties;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Gathers token version lookups arriving within a short window into one {@code MGET}.
+ * <p>
+ * Every authenticated request reads the token version of its user. Under high concurrency, reading them
+ * one {@code GET} at a time spends most of the Redis capacity on round trips. Here callers register the
+ * key they need and wait; a single flushing thread waits for the configured window after the first key
+ * arrives, reads all pending keys at once over the shared Lettuce connection and completes the callers.
+ * Concurrent lookups of the same key share one future. Batch sizes are published as
+ * {@code redis.token-version.batch.size}.
+ */
+public class TokenVersionBatcher implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TokenVersionBatcher.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final TokenVersionBatchingProperties properties;
+    private final DistributionSummary batchSizes;
+    private final Map<String, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+    private final Semaphore wakeups = new Semaphore(0);
+    private final Function<String, CompletableFuture<String>> enqueue = key -> {
+        wakeups.release();
+        return new CompletableFuture<>();
+    };
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public TokenVersionBatcher(RedisTemplate<String, String> redisTemplate,
+                               TokenVersionBatchingProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.batchSizes = DistributionSummary.builder("redis.token-version.batch.size")
+                .description("Keys read by one batched token version lookup")
+                .register(meterRegistry);
+        // a platform thread: it parks for sub-millisecond windows in a tight loop
+        this.flusher = Thread.ofPlatform().daemon().name("token-version-batcher").start(this::run);
+    }
+
+    /**
+     * Reads the value of a key as part of the next batch.
+     *
+     * @param key Redis key
+     * @return stored value, or {@code null} when the key does not exist
+     */
+    public String get(String key) {
+        CompletableFuture<String> value = pending.computeIfAbsent(key, enqueue);
+        try {
+            return value.get(properties.timeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading " + key, ex);
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Timed out reading " + key, ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Could not read " + key, ex.getCause());
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (pending.isEmpty()) {
+                    wakeups.acquire();
+                }
+                LockSupport.parkNanos(properties.window().toNanos());
+                wakeups.drainPermits();
+                flush();
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                LOG.error("Token version batch failed unexpectedly", ex);
+            }
+        }
+    }
+
+    private void flush() {
+        List<String> keys = new ArrayList<>();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        Iterator<String> candidates = pending.keySet().iterator();
+        while (candidates.hasNext() && keys.size() < properties.maxBatchSize()) {
+            String key = candidates.next();
+            // removing claims the future; callers arriving later start the next batch
+            CompletableFuture<String> future = pending.remove(key);
+            if (future != null) {
+                keys.add(key);
+                futures.add(future);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        batchSizes.record(keys.size());
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).complete(values == null ? null : values.get(i));
+            }
+        } catch (RuntimeException ex) {
+            futures.forEach(future -> future.completeExceptionally(ex));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        flusher.interrupt();
+    }
+}
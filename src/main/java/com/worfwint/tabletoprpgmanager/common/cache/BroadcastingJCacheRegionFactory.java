@@ -0,0 +1,29 @@
+package com.worfwint.tabletoprpgmanager.common.cache;
+
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.internal.SimpleCacheKeysFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+
+/**
+ * JCache region factory whose entity and collection regions broadcast invalidations to other nodes.
+ * Entries are always keyed by the plain identifier so invalidations can be sent by value.
+ */
+public class BroadcastingJCacheRegionFactory extends JCacheRegionFactory {
+
+    private final CacheInvalidationBroadcaster broadcaster;
+
+    public BroadcastingJCacheRegionFactory(CacheInvalidationBroadcaster broadcaster) {
+        super(SimpleCacheKeysFactory.INSTANCE);
+        this.broadcaster = broadcaster;
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        DomainDataStorageAccess local = super.createDomainDataStorageAccess(regionConfig, buildingContext);
+        broadcaster.register(regionConfig.getRegionName(), local);
+        return new BroadcastingStorageAccess(local, regionConfig.getRegionName(), broadcaster);
+    }
+}
@@ -0,0 +1,80 @@
+package com.worfwint.tabletoprpgmanager.common.cache;
+
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Region storage that publishes writes and evictions so other nodes drop their copy.
+ * <p>
+ * Read-write regions store database loads through {@link #putIntoCache} as well, so a put is
+ * only published when it installs a soft lock (an update or delete has started) or replaces one
+ * (the lock is released after the write). Plain loads and freshly inserted entries stay local.
+ */
+class BroadcastingStorageAccess implements DomainDataStorageAccess {
+
+    private final DomainDataStorageAccess delegate;
+    private final String regionName;
+    private final CacheInvalidationBroadcaster broadcaster;
+
+    BroadcastingStorageAccess(DomainDataStorageAccess delegate,
+                              String regionName,
+                              CacheInvalidationBroadcaster broadcaster) {
+        this.delegate = delegate;
+        this.regionName = regionName;
+        this.broadcaster = broadcaster;
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        return delegate.getFromCache(key, session);
+    }
+
+    @Override
+    public void putFromLoad(Object key, Object value, SharedSessionContractImplementor session) {
+        delegate.putFromLoad(key, value, session);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        boolean write = value instanceof SoftLock || delegate.getFromCache(key, session) instanceof SoftLock;
+        delegate.putIntoCache(key, value, session);
+        if (write) {
+            broadcaster.publishEviction(regionName, key);
+        }
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return delegate.contains(key);
+    }
+
+    @Override
+    public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+        delegate.removeFromCache(key, session);
+        broadcaster.publishEviction(regionName, key);
+    }
+
+    @Override
+    public void clearCache(SharedSessionContractImplementor session) {
+        delegate.clearCache(session);
+        broadcaster.publishClear(regionName);
+    }
+
+    @Override
+    public void evictData(Object key) {
+        delegate.evictData(key);
+        broadcaster.publishEviction(regionName, key);
+    }
+
+    @Override
+    public void evictData() {
+        delegate.evictData();
+        broadcaster.publishClear(regionName);
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+    }
+}
@@ -0,0 +1,100 @@
+package com.worfwint.tabletoprpgmanager.common.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Keeps second-level cache regions of several nodes coherent over Redis pub/sub.
+ * <p>
+ * Every local write or eviction of a cached entry is published as {@code node|region|id}, or with {@code *}
+ * instead of the identifier when the whole region is cleared. Other nodes evict the same entry from their
+ * local region without publishing again. Entries are keyed by the plain identifier
+ * ({@code hibernate.cache.keys_factory=simple}), so only {@link Long} keys are sent individually and any
+ * other key clears the region on the remote nodes.
+ */
+public class CacheInvalidationBroadcaster implements MessageListener {
+
+    /**
+     * Redis channel carrying invalidation messages.
+     */
+    public static final String CHANNEL = "cache:l2:invalidate";
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheInvalidationBroadcaster.class);
+    private static final String ALL = "*";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, DomainDataStorageAccess> regions = new ConcurrentHashMap<>();
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public CacheInvalidationBroadcaster(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Registers the local storage of a region so remote invalidations can be applied to it.
+     *
+     * @param regionName unqualified region name
+     * @param storage    storage that evicts without broadcasting
+     */
+    void register(String regionName, DomainDataStorageAccess storage) {
+        regions.put(regionName, storage);
+    }
+
+    /**
+     * Asks the other nodes to evict one entry of the region.
+     *
+     * @param regionName unqualified region name
+     * @param key        cache key of the entry
+     */
+    void publishEviction(String regionName, Object key) {
+        publish(regionName, key instanceof Long id ? id.toString() : ALL);
+    }
+
+    /**
+     * Asks the other nodes to clear the region.
+     *
+     * @param regionName unqualified region name
+     */
+    void publishClear(String regionName) {
+        publish(regionName, ALL);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        DomainDataStorageAccess storage = regions.get(parts[1]);
+        if (storage == null) {
+            return;
+        }
+        if (ALL.equals(parts[2])) {
+            storage.evictData();
+            return;
+        }
+        try {
+            storage.evictData(Long.valueOf(parts[2]));
+        } catch (NumberFormatException ex) {
+            storage.evictData();
+        }
+    }
+
+    private void publish(String regionName, String key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + "|" + regionName + "|" + key);
+        } catch (RuntimeException ex) {
+            // the local cache stays correct, remote nodes catch up when the entry expires
+            LOG.warn("Failed to broadcast invalidation of cache region {}", regionName, ex);
+        }
+    }
+}
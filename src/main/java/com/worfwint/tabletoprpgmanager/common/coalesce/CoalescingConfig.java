@@ -0,0 +1,27 @@
+package com.worfwint.tabletoprpgmanager.common.coalesce;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Provides the coalescing of identical concurrent reads.
+ */
+@Configuration
+@EnableConfigurationProperties(CoalescingProperties.class)
+public class CoalescingConfig {
+
+    /**
+     * Creates the coalescer shared by the read services.
+     *
+     * @param properties    coalescing settings
+     * @param meterRegistry registry receiving the coalescing counters
+     * @return request coalescer
+     */
+    @Bean
+    public RequestCoalescer requestCoalescer(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        return new RequestCoalescer(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,16 @@
+package com.worfwint.tabletoprpgmanager.common.coalesce;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Settings of {@link RequestCoalescer}.
+ *
+ * @param enabled whether identical concurrent reads share one computation
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.coalescing")
+public record CoalescingProperties(
+        @DefaultValue("true") boolean enabled
+) {}
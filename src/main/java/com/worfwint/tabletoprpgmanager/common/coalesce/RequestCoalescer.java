@@ -0,0 +1,86 @@
+package com.worfwint.tabletoprpgmanager.common.coalesce;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.worfwint.tabletoprpgmanager.common.datasource.ReadYourWrites;
+
+/**
+ * Lets identical concurrent reads share one computation. The first caller of a key computes the result;
+ * callers arriving with the same key while it runs wait for it and receive the same result or exception.
+ * Nothing is kept once the computation finishes, but a waiter may receive a result that was read before
+ * it arrived, so callers pinned to the primary by {@link ReadYourWrites} always compute their own result.
+ * <p>
+ * Shared results must not depend on the caller and must not be modified afterwards. Calls are counted in
+ * {@code coalescing.calls} per operation, tagged {@code role=leader} for computations and
+ * {@code role=follower} for callers that waited; the coalescing ratio is followers over all calls.
+ */
+public class RequestCoalescer {
+
+    private final Map<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final CoalescingProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescer(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns the result of the computation, joining one already running for the same operation and key.
+     *
+     * @param operation   name of the operation, used in metrics
+     * @param key         arguments identifying the result, compared with {@code equals}
+     * @param computation computes the result when no identical call is running
+     * @param <T>         type of the result
+     * @return shared result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object key, Supplier<T> computation) {
+        if (!properties.enabled() || ReadYourWrites.isPrimaryRequired()) {
+            return computation.get();
+        }
+        List<Object> id = List.of(operation, key);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            meterRegistry.counter("coalescing.calls", "operation", operation, "role", "follower").increment();
+            return (T) await(running);
+        }
+        meterRegistry.counter("coalescing.calls", "operation", operation, "role", "leader").increment();
+        try {
+            T result = computation.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared computation", ex);
+        } catch (ExecutionException ex) {
+            // the leader's exception, such as a not found error, applies to every waiter
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Shared computation failed", ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.worfwint.tabletoprpgmanager.common.concurrency;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.cors.CorsConfigurationSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Registers the adaptive concurrency limits in front of all other filters.
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+
+    /**
+     * Registers the filter first in the chain, ahead of request metrics and Spring Security.
+     *
+     * @param properties              limit settings
+     * @param corsConfigurationSource CORS settings applied to rejections
+     * @param meterRegistry           registry receiving the limit metrics
+     * @return filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(ConcurrencyLimitProperties properties,
+                                                                                 CorsConfigurationSource corsConfigurationSource,
+                                                                                 MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(properties, corsConfigurationSource, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
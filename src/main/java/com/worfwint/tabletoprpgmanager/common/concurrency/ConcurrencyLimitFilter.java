@@ -0,0 +1,155 @@
+package com.worfwint.tabletoprpgmanager.common.concurrency;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.CorsProcessor;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Rejects requests with {@code 503 Service Unavailable} and a {@code Retry-After} header once the adaptive
+ * concurrency limit of their {@link RouteClass} is reached, so overload is shed right away instead of
+ * queueing in Tomcat until every request times out.
+ * <p>
+ * Runs before the security filters, so authentication of shed requests costs nothing. Because the CORS
+ * filter of the security chain is never reached, rejections carry the CORS headers themselves, letting
+ * browsers read the status and {@code Retry-After}. Actuator endpoints and {@code OPTIONS} requests,
+ * including CORS preflights, are never limited. Limits, requests in flight and rejections are published per route class as
+ * {@code http.server.concurrency.limit}, {@code http.server.concurrency.in-flight} and
+ * {@code http.server.concurrency.rejected}.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD");
+
+    private final ConcurrencyLimitProperties properties;
+    private final CorsConfigurationSource corsConfigurationSource;
+    private final CorsProcessor corsProcessor = new DefaultCorsProcessor();
+    private final Map<RouteClass, ConcurrencyLimiter> limiters = new EnumMap<>(RouteClass.class);
+    private final Map<RouteClass, Counter> rejections = new EnumMap<>(RouteClass.class);
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties,
+                                  CorsConfigurationSource corsConfigurationSource,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.corsConfigurationSource = corsConfigurationSource;
+        for (RouteClass routeClass : RouteClass.values()) {
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter(new GradientLimit(properties.limit(routeClass)));
+            limiters.put(routeClass, limiter);
+            Gauge.builder("http.server.concurrency.limit", limiter, ConcurrencyLimiter::limit)
+                    .description("Concurrent requests currently admitted")
+                    .tag("route", routeClass.key())
+                    .register(meterRegistry);
+            Gauge.builder("http.server.concurrency.in-flight", limiter, ConcurrencyLimiter::inFlight)
+                    .description("Requests currently in flight")
+                    .tag("route", routeClass.key())
+                    .register(meterRegistry);
+            rejections.put(routeClass, Counter.builder("http.server.concurrency.rejected")
+                    .description("Requests rejected because the concurrency limit was reached")
+                    .tag("route", routeClass.key())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled()
+                || request.getRequestURI().startsWith("/actuator")
+                || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RouteClass routeClass = classify(request);
+        ConcurrencyLimiter limiter = limiters.get(routeClass);
+        int inFlight = limiter.tryAcquire();
+        if (inFlight < 0) {
+            rejections.get(routeClass).increment();
+            CorsConfiguration cors = corsConfigurationSource.getCorsConfiguration(request);
+            if (cors != null) {
+                corsProcessor.processRequest(cors, request, response);
+            }
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    Long.toString(Math.max(1, properties.retryAfter().toSeconds())));
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(limiter, start, inFlight));
+            } else {
+                limiter.release(System.nanoTime() - start, inFlight, failed || overloaded(response));
+            }
+        }
+    }
+
+    private static RouteClass classify(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith("/api/auth/")) {
+            return RouteClass.AUTH;
+        }
+        if (request.getRequestURI().startsWith("/api/media/")) {
+            return RouteClass.MEDIA;
+        }
+        if (READ_METHODS.contains(request.getMethod())) {
+            return RouteClass.READ;
+        }
+        String contentType = request.getContentType();
+        if (contentType != null && (contentType.startsWith("multipart/") || contentType.startsWith("image/"))) {
+            return RouteClass.UPLOAD;
+        }
+        return RouteClass.WRITE;
+    }
+
+    private static boolean overloaded(HttpServletResponse response) {
+        return response.getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE
+                || response.getStatus() == HttpServletResponse.SC_GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Frees the slot of an asynchronous request once it completes.
+     */
+    private record ReleasingListener(ConcurrencyLimiter limiter, long start, int inFlight) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            limiter.release(System.nanoTime() - start, inFlight, overloaded(response));
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
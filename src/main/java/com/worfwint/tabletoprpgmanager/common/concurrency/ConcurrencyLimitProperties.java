@@ -0,0 +1,71 @@
+package com.worfwint.tabletoprpgmanager.common.concurrency;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+
+/**
+ * Settings of the adaptive concurrency limits applied per {@link RouteClass}.
+ *
+ * @param enabled    whether requests over the limit are rejected
+ * @param retryAfter value of the {@code Retry-After} header of rejected requests
+ * @param auth       limit of authentication requests
+ * @param read       limit of reading requests
+ * @param media      limit of media downloads
+ * @param write      limit of writing requests
+ * @param upload     limit of image uploads
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1s") Duration retryAfter,
+        @DefaultValue @Valid Limit auth,
+        @DefaultValue @Valid Limit read,
+        @DefaultValue @Valid Limit media,
+        @DefaultValue @Valid Limit write,
+        @DefaultValue @Valid Limit upload
+) {
+
+    /**
+     * Returns the settings of the given route class.
+     *
+     * @param routeClass route class
+     * @return limit settings
+     */
+    public Limit limit(RouteClass routeClass) {
+        return switch (routeClass) {
+            case AUTH -> auth;
+            case READ -> read;
+            case MEDIA -> media;
+            case WRITE -> write;
+            case UPLOAD -> upload;
+        };
+    }
+
+    /**
+     * Settings of a single limit.
+     *
+     * @param initialLimit concurrent requests allowed before any latency was measured
+     * @param minLimit     lowest limit the algorithm may settle on
+     * @param maxLimit     highest limit the algorithm may settle on
+     * @param rttTolerance ratio by which latency may exceed its long-term average before the limit shrinks
+     * @param smoothing    weight of each new estimate, lower values react slower but steadier
+     * @param longWindow   number of samples the long-term latency average spans
+     */
+    public record Limit(
+            @DefaultValue("20") @Min(1) int initialLimit,
+            @DefaultValue("4") @Min(1) int minLimit,
+            @DefaultValue("200") @Min(1) int maxLimit,
+            @DefaultValue("1.5") @DecimalMin("1.0") double rttTolerance,
+            @DefaultValue("0.2") @DecimalMin("0.01") @DecimalMax("1.0") double smoothing,
+            @DefaultValue("600") @Min(10) int longWindow
+    ) {}
+}
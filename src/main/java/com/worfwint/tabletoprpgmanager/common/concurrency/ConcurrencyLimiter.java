@@ -0,0 +1,63 @@
+package com.worfwint.tabletoprpgmanager.common.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits requests of one route class while fewer than its {@link GradientLimit} are in flight.
+ */
+public class ConcurrencyLimiter {
+
+    private final GradientLimit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public ConcurrencyLimiter(GradientLimit limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Reserves a slot for a request.
+     *
+     * @return requests in flight including this one, or {@code -1} when the limit is reached
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.limit()) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot of a completed request and feeds its outcome to the limit.
+     *
+     * @param rttNanos latency of the request
+     * @param inFlight value returned by {@link #tryAcquire()}
+     * @param dropped  whether the request failed in a way that suggests overload
+     */
+    public void release(long rttNanos, int inFlight, boolean dropped) {
+        this.inFlight.decrementAndGet();
+        if (dropped) {
+            limit.onDrop();
+        } else {
+            limit.onSample(rttNanos, inFlight);
+        }
+    }
+
+    /**
+     * @return current limit
+     */
+    public int limit() {
+        return limit.limit();
+    }
+
+    /**
+     * @return requests currently in flight
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
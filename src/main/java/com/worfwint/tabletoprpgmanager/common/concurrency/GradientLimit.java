@@ -0,0 +1,89 @@
+package com.worfwint.tabletoprpgmanager.common.concurrency;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit estimated from request latency, following the gradient approach of Netflix'
+ * concurrency-limits library.
+ * <p>
+ * A short-term latency average is compared with a long-term one. While they are close, the limit grows by
+ * a queue allowance of the square root of the limit. Once the short-term latency rises above the
+ * tolerated ratio, requests are queueing somewhere and the limit shrinks proportionally. Dropped requests
+ * shrink the limit multiplicatively. The limit only grows while at least half of it is in use, so an idle
+ * period does not inflate it.
+ */
+public class GradientLimit {
+
+    private static final int SHORT_WINDOW = 10;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final ConcurrencyLimitProperties.Limit settings;
+    // a lock rather than synchronized so waiting virtual threads do not pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile double estimatedLimit;
+    private double shortRtt;
+    private double longRtt;
+    private long samples;
+
+    public GradientLimit(ConcurrencyLimitProperties.Limit settings) {
+        this.settings = settings;
+        this.estimatedLimit = Math.clamp(settings.initialLimit(), settings.minLimit(), settings.maxLimit());
+    }
+
+    /**
+     * @return current limit
+     */
+    public int limit() {
+        return (int) estimatedLimit;
+    }
+
+    /**
+     * Updates the limit with the latency of a completed request.
+     *
+     * @param rttNanos latency of the request
+     * @param inFlight requests in flight when it started
+     */
+    public void onSample(long rttNanos, int inFlight) {
+        lock.lock();
+        try {
+            samples++;
+            shortRtt = average(shortRtt, rttNanos, Math.min(samples, SHORT_WINDOW));
+            longRtt = average(longRtt, rttNanos, Math.min(samples, settings.longWindow()));
+            if (samples < SHORT_WINDOW) {
+                return;
+            }
+            // after a long overload the long-term average catches up with high latency; let it recover
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+            if (inFlight < estimatedLimit / 2) {
+                return;
+            }
+            double gradient = Math.clamp(settings.rttTolerance() * longRtt / shortRtt, 0.5, 1.0);
+            double next = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            update(estimatedLimit * (1 - settings.smoothing()) + next * settings.smoothing());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Shrinks the limit after a request failed in a way that suggests overload.
+     */
+    public void onDrop() {
+        lock.lock();
+        try {
+            update(estimatedLimit * DROP_BACKOFF);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(double limit) {
+        estimatedLimit = Math.clamp(limit, settings.minLimit(), settings.maxLimit());
+    }
+
+    private static double average(double current, long sample, long window) {
+        return current + (sample - current) / window;
+    }
+}
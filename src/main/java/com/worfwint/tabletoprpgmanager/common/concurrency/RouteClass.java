@@ -0,0 +1,46 @@
+package com.worfwint.tabletoprpgmanager.common.concurrency;
+
+/**
+ * Kinds of requests that get their own concurrency limit, so a surge in one kind is shed without
+ * rejecting the others.
+ */
+public enum RouteClass {
+
+    /**
+     * Sign-in, registration, token refresh and sign-out.
+     */
+    AUTH("auth"),
+
+    /**
+     * Requests that do not change state, such as feed and profile reads.
+     */
+    READ("read"),
+
+    /**
+     * Media downloads, which are long-lived and would otherwise skew the latency of other reads.
+     */
+    MEDIA("media"),
+
+    /**
+     * Requests that change state, except uploads.
+     */
+    WRITE("write"),
+
+    /**
+     * Image uploads passing their body through the application.
+     */
+    UPLOAD("upload");
+
+    private final String key;
+
+    RouteClass(String key) {
+        this.key = key;
+    }
+
+    /**
+     * @return name used in metric tags
+     */
+    public String key() {
+        return key;
+    }
+}
@@ -0,0 +1,194 @@
+package com.worfwint.tabletoprpgmanager.common.config;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.worfwint.tabletoprpgmanager.common.datasource.DataSourcePoolProperties;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLane;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLaneRoutingDataSource;
+import com.worfwint.tabletoprpgmanager.common.datasource.ReplicaNode;
+import com.worfwint.tabletoprpgmanager.common.datasource.ReplicaProperties;
+import com.worfwint.tabletoprpgmanager.common.datasource.ReplicaRoutingDataSource;
+import com.worfwint.tabletoprpgmanager.common.sql.QueryCountingListener;
+import com.worfwint.tabletoprpgmanager.common.sql.SlowQueryCapture;
+import com.worfwint.tabletoprpgmanager.common.sql.SlowQueryProperties;
+import com.worfwint.tabletoprpgmanager.common.sql.SqlMonitoringProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Defines one primary connection pool per {@link PoolLane}, one pool per read replica and the routing data
+ * source used by JPA.
+ */
+@Configuration
+@EnableConfigurationProperties({ReplicaProperties.class, DataSourcePoolProperties.class, SqlMonitoringProperties.class,
+        SlowQueryProperties.class})
+public class DataSourceConfig {
+
+    /**
+     * Binds the pool settings shared by all primary lanes from {@code spring.datasource.*}.
+     *
+     * @param properties standard data source settings
+     * @return settings copied into every lane
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariConfig primaryHikariConfig(DataSourceProperties properties) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(properties.determineUrl());
+        config.setUsername(properties.determineUsername());
+        config.setPassword(properties.determinePassword());
+        config.setDriverClassName(properties.determineDriverClassName());
+        return config;
+    }
+
+    /**
+     * Creates a pool per lane and the data source choosing between them.
+     *
+     * @param primaryHikariConfig settings shared by all lanes
+     * @param poolProperties per-lane sizes and timeouts
+     * @param meterRegistry registry receiving the pool metrics
+     * @return lane routing data source
+     */
+    @Bean
+    public PoolLaneRoutingDataSource primaryDataSource(HikariConfig primaryHikariConfig,
+                                                       DataSourcePoolProperties poolProperties,
+                                                       MeterRegistry meterRegistry) {
+        Map<Object, Object> lanes = new HashMap<>();
+        for (PoolLane lane : PoolLane.values()) {
+            DataSourcePoolProperties.Lane settings = poolProperties.lane(lane);
+            HikariConfig config = new HikariConfig();
+            primaryHikariConfig.copyStateTo(config);
+            config.setPoolName(primaryHikariConfig.getPoolName() + "-" + lane.key());
+            config.setMaximumPoolSize(settings.maximumPoolSize());
+            config.setMinimumIdle(Math.min(settings.minimumIdle(), settings.maximumPoolSize()));
+            config.setConnectionTimeout(settings.connectionTimeout().toMillis());
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            HikariDataSource pool = new HikariDataSource(config);
+            registerSaturation(pool, meterRegistry);
+            lanes.put(lane, pool);
+        }
+        PoolLaneRoutingDataSource routing = new PoolLaneRoutingDataSource();
+        routing.setTargetDataSources(lanes);
+        routing.setDefaultTargetDataSource(lanes.get(PoolLane.WRITE));
+        return routing;
+    }
+
+    /**
+     * Closes the lane pools on shutdown.
+     *
+     * @param primaryDataSource lane routing data source
+     * @return shutdown hook
+     */
+    @Bean
+    public DisposableBean primaryPoolsShutdown(PoolLaneRoutingDataSource primaryDataSource) {
+        return () -> primaryDataSource.getResolvedDataSources().values().forEach(pool -> ((HikariDataSource) pool).close());
+    }
+
+    /**
+     * Creates a read-only pool for every configured replica and the data source choosing between them.
+     *
+     * @param primaryDataSource lane routing data source of the primary
+     * @param dataSourceProperties primary settings, used for the replica credentials when none are set
+     * @param replicaProperties replica settings
+     * @param meterRegistry registry receiving the replica pool metrics
+     * @return routing data source
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(PoolLaneRoutingDataSource primaryDataSource,
+                                                             DataSourceProperties dataSourceProperties,
+                                                             ReplicaProperties replicaProperties,
+                                                             MeterRegistry meterRegistry) {
+        List<ReplicaNode> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.urls().size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaProperties.urls().get(i));
+            boolean ownCredentials = !replicaProperties.username().isBlank();
+            replica.setUsername(ownCredentials ? replicaProperties.username() : dataSourceProperties.determineUsername());
+            replica.setPassword(ownCredentials ? replicaProperties.password() : dataSourceProperties.determinePassword());
+            replica.setMaximumPoolSize(replicaProperties.maximumPoolSize());
+            replica.setConnectionTimeout(replicaProperties.connectionTimeout().toMillis());
+            replica.setReadOnly(true);
+            // a replica that is down at startup must not prevent the application from starting
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            registerSaturation(replica, meterRegistry);
+            replicas.add(new ReplicaNode(replica.getPoolName(), replica));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    /**
+     * Exposes the routing data source behind a lazy proxy, so the physical connection is only requested
+     * once the transaction has started and its read-only flag is known. Statements are counted for the
+     * open {@link com.worfwint.tabletoprpgmanager.common.sql.QueryScope query scopes} unless SQL monitoring
+     * is disabled, fetched rows only when row counting is enabled, and slow statements are handed to
+     * {@link SlowQueryCapture}.
+     *
+     * @param replicaRoutingDataSource routing data source
+     * @param sqlMonitoringProperties statement counting settings
+     * @param slowQueryCapture slow statement capture
+     * @return data source used by JPA and JDBC
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                 SqlMonitoringProperties sqlMonitoringProperties,
+                                 SlowQueryCapture slowQueryCapture) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(proxy)
+                .name("primary")
+                .listener(slowQueryCapture);
+        if (sqlMonitoringProperties.enabled()) {
+            QueryCountingListener listener = new QueryCountingListener();
+            builder.listener(listener);
+            if (sqlMonitoringProperties.countRows()) {
+                builder.methodListener(listener).proxyResultSet();
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Publishes the share of busy connections of a pool, counting threads waiting for one, as
+     * {@code datasource.pool.saturation}. Values above 1 mean requests are queueing for connections.
+     * Hikari's own {@code hikaricp.connections.*} meters carry the raw numbers.
+     */
+    private static void registerSaturation(HikariDataSource pool, MeterRegistry meterRegistry) {
+        Gauge.builder("datasource.pool.saturation", pool, DataSourceConfig::saturation)
+                .tag("pool", pool.getPoolName())
+                .description("Active plus waiting connections divided by the maximum pool size")
+                .register(meterRegistry);
+    }
+
+    private static double saturation(HikariDataSource pool) {
+        HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+        if (bean == null) {
+            return 0;
+        }
+        return (bean.getActiveConnections() + bean.getThreadsAwaitingConnection()) / (double) pool.getMaximumPoolSize();
+    }
+}
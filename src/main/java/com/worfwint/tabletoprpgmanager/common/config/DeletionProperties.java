@@ -0,0 +1,27 @@
+package com.worfwint.tabletoprpgmanager.common.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+
+/**
+ * Settings of article and account deletion.
+ *
+ * @param inlineThreshold maximum number of dependent rows removed by the database cascade within the request;
+ *                        larger articles and accounts are hidden and removed by the background job
+ * @param chunkSize       number of dependent rows removed per transaction by the background job
+ * @param batchSize       number of pending articles or accounts processed per job run
+ * @param interval        delay between job runs
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.deletion")
+public record DeletionProperties(
+        @DefaultValue("5000") @Min(0) int inlineThreshold,
+        @DefaultValue("5000") @Min(1) int chunkSize,
+        @DefaultValue("20") @Min(1) int batchSize,
+        @DefaultValue("PT5S") Duration interval
+) {}
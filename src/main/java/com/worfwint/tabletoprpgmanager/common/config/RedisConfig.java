@@ -1,14 +1,19 @@
 package com.worfwint.tabletoprpgmanager.common.config;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import io.lettuce.core.ClientOptions;
+
 /**
  * Defines Redis beans used by the application for token caching and other fast lookups.
  */
@@ -22,6 +27,7 @@ public class RedisConfig {
      * @param port Redis port, defaults to {@code 6379}
      * @param username optional username for Redis authentication
      * @param password optional password for Redis authentication
+     * @param timeout time after which a command fails, kept short since Redis only holds caches
      * @return a fully configured {@link RedisConnectionFactory}
      */
     @Bean
@@ -29,7 +35,8 @@ public class RedisConfig {
             @Value("${spring.data.redis.host:localhost}") String host,
             @Value("${spring.data.redis.port:6379}") int port,
             @Value("${spring.data.redis.username:}") String username,
-            @Value("${spring.data.redis.password:}") String password) {
+            @Value("${spring.data.redis.password:}") String password,
+            @Value("${spring.data.redis.timeout:500ms}") Duration timeout) {
 
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(host, port);
         if (!username.isBlank()) {
@@ -38,7 +45,14 @@ public class RedisConfig {
         if (!password.isBlank()) {
             config.setPassword(password);
         }
-        return new LettuceConnectionFactory(config);
+        LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+                .commandTimeout(timeout)
+                // fail right away while disconnected instead of queueing commands until they time out
+                .clientOptions(ClientOptions.builder()
+                        .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                        .build())
+                .build();
+        return new LettuceConnectionFactory(config, clientConfig);
     }
 
     /**
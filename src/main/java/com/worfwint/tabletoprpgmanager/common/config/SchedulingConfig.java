@@ -0,0 +1,14 @@
+package com.worfwint.tabletoprpgmanager.common.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@link org.springframework.scheduling.annotation.Scheduled} background jobs.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(DeletionProperties.class)
+public class SchedulingConfig {
+}
@@ -0,0 +1,60 @@
+package com.worfwint.tabletoprpgmanager.common.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.worfwint.tabletoprpgmanager.common.cache.BroadcastingJCacheRegionFactory;
+import com.worfwint.tabletoprpgmanager.common.cache.CacheInvalidationBroadcaster;
+
+/**
+ * Wires the Hibernate second-level cache to Caffeine through JCache and keeps the regions of all nodes
+ * coherent over Redis. Region sizes and expiry are defined in {@code application.conf}.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    /**
+     * Creates the component publishing and applying cache invalidations.
+     *
+     * @param redisTemplate template used to publish invalidations
+     * @return invalidation broadcaster
+     */
+    @Bean
+    public CacheInvalidationBroadcaster cacheInvalidationBroadcaster(RedisTemplate<String, String> redisTemplate) {
+        return new CacheInvalidationBroadcaster(redisTemplate);
+    }
+
+    /**
+     * Hands Hibernate a region factory instance that is connected to the broadcaster.
+     *
+     * @param broadcaster invalidation broadcaster
+     * @return customizer registering the region factory
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheInvalidationBroadcaster broadcaster) {
+        return properties -> properties.put(AvailableSettings.CACHE_REGION_FACTORY,
+                new BroadcastingJCacheRegionFactory(broadcaster));
+    }
+
+    /**
+     * Subscribes the broadcaster to invalidations published by other nodes.
+     *
+     * @param connectionFactory Redis connection factory
+     * @param broadcaster invalidation broadcaster
+     * @return listener container receiving invalidations
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           CacheInvalidationBroadcaster broadcaster) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(broadcaster, new ChannelTopic(CacheInvalidationBroadcaster.CHANNEL));
+        return container;
+    }
+}
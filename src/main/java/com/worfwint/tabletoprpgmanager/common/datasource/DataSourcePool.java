@@ -0,0 +1,25 @@
+package com.worfwint.tabletoprpgmanager.common.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects the connection pool lane used by the annotated method, or by all methods of the annotated class.
+ * <p>
+ * The lane applies to connections requested while the method runs. A transaction that already holds a
+ * connection when the method is entered keeps using it. Methods running in an explicit lane never read
+ * from replicas.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface DataSourcePool {
+
+    /**
+     * @return lane serving the connections of the annotated code
+     */
+    PoolLane value();
+}
@@ -0,0 +1,41 @@
+package com.worfwint.tabletoprpgmanager.common.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@link DataSourcePool} before transactions start, so the lane is known when the first
+ * connection is requested.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DataSourcePoolAspect {
+
+    @Around("@annotation(com.worfwint.tabletoprpgmanager.common.datasource.DataSourcePool) "
+            + "|| @within(com.worfwint.tabletoprpgmanager.common.datasource.DataSourcePool)")
+    public Object selectLane(ProceedingJoinPoint joinPoint) throws Throwable {
+        DataSourcePool pool = AnnotatedElementUtils.findMergedAnnotation(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), DataSourcePool.class);
+        if (pool == null) {
+            pool = AnnotatedElementUtils.findMergedAnnotation(AopUtils.getTargetClass(joinPoint.getTarget()),
+                    DataSourcePool.class);
+        }
+        if (pool == null) {
+            return joinPoint.proceed();
+        }
+        PoolLane previous = PoolLanes.enter(pool.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            PoolLanes.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.worfwint.tabletoprpgmanager.common.datasource;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+
+/**
+ * Sizes and timeouts of the primary pool lanes. Connection settings shared by all lanes come from
+ * {@code spring.datasource.*}.
+ *
+ * @param interactiveRead read-only transactions that cannot use a replica
+ * @param write           read-write transactions of user requests
+ * @param auth            authentication
+ * @param maintenance     scheduled and background jobs
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.datasource.pools")
+public record DataSourcePoolProperties(
+        @DefaultValue @Valid Lane interactiveRead,
+        @DefaultValue @Valid Lane write,
+        @DefaultValue @Valid Lane auth,
+        @DefaultValue @Valid Lane maintenance
+) {
+
+    /**
+     * Returns the settings of the given lane.
+     *
+     * @param lane pool lane
+     * @return lane settings
+     */
+    public Lane lane(PoolLane lane) {
+        return switch (lane) {
+            case INTERACTIVE_READ -> interactiveRead;
+            case WRITE -> write;
+            case AUTH -> auth;
+            case MAINTENANCE -> maintenance;
+        };
+    }
+
+    /**
+     * Settings of a single lane.
+     *
+     * @param maximumPoolSize   maximum number of connections
+     * @param minimumIdle       idle connections kept open
+     * @param connectionTimeout time to wait for a free connection before the request fails
+     */
+    public record Lane(
+            @DefaultValue("10") @Min(1) int maximumPoolSize,
+            @DefaultValue("2") @Min(0) int minimumIdle,
+            @DefaultValue("5s") Duration connectionTimeout
+    ) {}
+}
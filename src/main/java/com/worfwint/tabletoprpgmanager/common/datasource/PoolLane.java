@@ -0,0 +1,42 @@
+package com.worfwint.tabletoprpgmanager.common.datasource;
+
+/**
+ * Partitions of the primary connection pool. Each lane has its own connections and timeouts, so a storm in
+ * one kind of traffic cannot starve the others.
+ */
+public enum PoolLane {
+
+    /**
+     * Read-only transactions served by the primary, when no replica is available or the request has to
+     * see its own writes.
+     */
+    INTERACTIVE_READ("interactive-read"),
+
+    /**
+     * Read-write transactions of user requests. Used when nothing else is selected.
+     */
+    WRITE("write"),
+
+    /**
+     * Sign-in, token refresh and user lookups of the authentication filter.
+     */
+    AUTH("auth"),
+
+    /**
+     * Scheduled jobs, backfills and other background work.
+     */
+    MAINTENANCE("maintenance");
+
+    private final String key;
+
+    PoolLane(String key) {
+        this.key = key;
+    }
+
+    /**
+     * @return name used in pool names and metric tags
+     */
+    public String key() {
+        return key;
+    }
+}
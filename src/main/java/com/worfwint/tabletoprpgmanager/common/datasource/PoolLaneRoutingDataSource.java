@@ -0,0 +1,22 @@
+package com.worfwint.tabletoprpgmanager.common.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Chooses the primary pool lane for a connection: the lane selected with {@link DataSourcePool}, otherwise
+ * {@link PoolLane#INTERACTIVE_READ} for read-only and {@link PoolLane#WRITE} for all other transactions.
+ */
+public class PoolLaneRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        PoolLane lane = PoolLanes.current();
+        if (lane != null) {
+            return lane;
+        }
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? PoolLane.INTERACTIVE_READ
+                : PoolLane.WRITE;
+    }
+}
@@ -0,0 +1,62 @@
+package com.worfwint.tabletoprpgmanager.common.datasource;
+
+/**
+ * Holds the pool lane selected for the current thread.
+ */
+public final class PoolLanes {
+
+    private static final ThreadLocal<PoolLane> CURRENT = new ThreadLocal<>();
+
+    private PoolLanes() {
+    }
+
+    /**
+     * @return lane selected for the current thread, {@code null} when none was selected
+     */
+    public static PoolLane current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wraps a task so it runs in the given lane on whichever thread executes it.
+     *
+     * @param lane lane to use
+     * @param task task to wrap
+     * @return wrapped task
+     */
+    public static Runnable wrap(PoolLane lane, Runnable task) {
+        return () -> {
+            PoolLane previous = enter(lane);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Selects a lane for the current thread.
+     *
+     * @param lane lane to select
+     * @return previously selected lane, to be passed to {@link #restore(PoolLane)}
+     */
+    static PoolLane enter(PoolLane lane) {
+        PoolLane previous = CURRENT.get();
+        CURRENT.set(lane);
+        return previous;
+    }
+
+    /**
+     * Restores the lane that was selected before {@link #enter(PoolLane)}.
+     *
+     * @param previous lane returned by {@link #enter(PoolLane)}
+     */
+    static void restore(PoolLane previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
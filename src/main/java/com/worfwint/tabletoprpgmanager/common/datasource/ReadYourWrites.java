@@ -0,0 +1,34 @@
+package com.worfwint.tabletoprpgmanager.common.datasource;
+
+/**
+ * Marks the current request as one that must read from the primary, either because it writes or because
+ * its user wrote recently and replicas may not have caught up yet.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Sends every transaction of the current thread to the primary until {@link #clear()} is called.
+     */
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    /**
+     * @return {@code true} if the current thread must not read from replicas
+     */
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    /**
+     * Lifts the restriction set by {@link #requirePrimary()}.
+     */
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+}
@@ -0,0 +1,94 @@
+package com.worfwint.tabletoprpgmanager.common.datasource;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.worfwint.tabletoprpgmanager.common.dto.AuthenticatedUser;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Pins requests to the primary where replica reads could be stale.
+ * <p>
+ * Writing requests always use the primary. After a successful write the user is remembered in Redis for
+ * the read-your-writes window, so their following reads on any node also go to the primary and see the
+ * change right away. Anonymous reads and reads of users without recent writes may use replicas.
+ * <p>
+ * Runs whether or not replicas are configured, because the pin also keeps
+ * {@link com.worfwint.tabletoprpgmanager.common.coalesce.RequestCoalescer} from handing a user a shared
+ * result that was read before their own write committed.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadYourWritesFilter.class);
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ReplicaProperties properties;
+
+    public ReadYourWritesFilter(RedisTemplate<String, String> redisTemplate, ReplicaProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Long userId = currentUserId();
+        boolean writing = !READ_METHODS.contains(request.getMethod());
+        if (writing || (userId != null && hasRecentWrite(userId))) {
+            ReadYourWrites.requirePrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.clear();
+            if (writing && userId != null && response.getStatus() < 400) {
+                recordWrite(userId);
+            }
+        }
+    }
+
+    private boolean hasRecentWrite(Long userId) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(buildKey(userId)));
+        } catch (RuntimeException ex) {
+            // without the marker the primary is the only safe choice
+            LOG.debug("Could not read the write marker of user {}: {}", userId, ex.getMessage());
+            return true;
+        }
+    }
+
+    private void recordWrite(Long userId) {
+        try {
+            redisTemplate.opsForValue().set(buildKey(userId), "1", properties.readYourWritesWindow());
+        } catch (RuntimeException ex) {
+            LOG.warn("Could not record the write marker of user {}: {}", userId, ex.getMessage());
+        }
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        return null;
+    }
+
+    private String buildKey(Long userId) {
+        return "rw:user:" + userId;
+    }
+}
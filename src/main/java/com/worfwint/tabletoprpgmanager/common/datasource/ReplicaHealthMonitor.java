@@ -0,0 +1,83 @@
+package com.worfwint.tabletoprpgmanager.common.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Periodically checks that each replica answers and is not lagging behind the primary by more than the
+ * configured limit. Replicas failing either check stop receiving reads until they recover.
+ * <p>
+ * Lag is the age of the last replayed transaction while WAL is still pending replay, and zero when the
+ * replica has replayed everything it received, so an idle primary does not make replicas look stale.
+ */
+@Component
+public class ReplicaHealthMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    private static final String LAG_QUERY = """
+        SELECT CASE
+                   WHEN pg_last_wal_receive_lsn() IS NULL
+                     OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                   ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+               END
+        """;
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReplicaProperties properties;
+
+    public ReplicaHealthMonitor(ReplicaRoutingDataSource routingDataSource,
+                                ReplicaProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.properties = properties;
+        for (ReplicaNode replica : routingDataSource.getReplicas()) {
+            Gauge.builder("datasource.replica.lag", replica, ReplicaNode::getLagSeconds)
+                    .tag("replica", replica.getName())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.available", replica, node -> node.isAvailable() ? 1 : 0)
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Checks every replica and updates whether it may serve reads.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-interval:PT5S}")
+    public void check() {
+        double maxLag = properties.maxLag().toMillis() / 1000.0;
+        for (ReplicaNode replica : routingDataSource.getReplicas()) {
+            boolean wasAvailable = replica.isAvailable();
+            try (Connection connection = replica.getDataSource().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                double lag = resultSet.getDouble(1);
+                replica.update(lag <= maxLag, lag);
+                if (wasAvailable && lag > maxLag) {
+                    LOG.warn("Replica {} lags {}s behind the primary, reads fall back to the primary", replica.getName(), lag);
+                }
+            } catch (SQLException ex) {
+                replica.update(false, Double.NaN);
+                if (wasAvailable) {
+                    LOG.warn("Replica {} failed its health check: {}", replica.getName(), ex.getMessage());
+                }
+            }
+            if (!wasAvailable && replica.isAvailable()) {
+                LOG.info("Replica {} serves reads", replica.getName());
+            }
+        }
+    }
+}
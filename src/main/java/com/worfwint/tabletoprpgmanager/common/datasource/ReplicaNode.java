@@ -0,0 +1,53 @@
+package com.worfwint.tabletoprpgmanager.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * A replica connection pool together with its last observed health.
+ */
+public class ReplicaNode {
+
+    private final String name;
+    private final HikariDataSource dataSource;
+    private volatile boolean available;
+    private volatile double lagSeconds;
+
+    public ReplicaNode(String name, HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    /**
+     * Records the outcome of a health check.
+     *
+     * @param available  whether the replica may serve reads
+     * @param lagSeconds observed replication lag, {@code NaN} when unknown
+     */
+    void update(boolean available, double lagSeconds) {
+        this.available = available;
+        this.lagSeconds = lagSeconds;
+    }
+
+    /**
+     * Takes the replica out of rotation until the next successful health check.
+     */
+    void markUnavailable() {
+        this.available = false;
+    }
+}
@@ -0,0 +1,36 @@
+package com.worfwint.tabletoprpgmanager.common.datasource;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+
+/**
+ * Settings of the read replicas serving read-only transactions.
+ *
+ * @param urls                 JDBC URLs of the replicas, empty to send all traffic to the primary
+ * @param username             replica user, blank to reuse the primary credentials
+ * @param password             replica password, blank to reuse the primary credentials
+ * @param maximumPoolSize      connections per replica pool
+ * @param connectionTimeout    time to wait for a replica connection before falling back to the primary
+ * @param maxLag               replication lag above which a replica stops receiving reads
+ * @param healthCheckInterval  delay between replica availability and lag checks
+ * @param readYourWritesWindow time after a user's own write during which that user reads from the primary and
+ *                             does not share coalesced reads, applied with or without replicas
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.datasource.replicas")
+public record ReplicaProperties(
+        @DefaultValue List<String> urls,
+        @DefaultValue("") String username,
+        @DefaultValue("") String password,
+        @DefaultValue("10") @Min(1) int maximumPoolSize,
+        @DefaultValue("2s") Duration connectionTimeout,
+        @DefaultValue("10s") Duration maxLag,
+        @DefaultValue("5s") Duration healthCheckInterval,
+        @DefaultValue("5s") Duration readYourWritesWindow
+) {}
@@ -0,0 +1,97 @@
+package com.worfwint.tabletoprpgmanager.common.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections of read-only transactions to available replicas in round-robin order and everything
+ * else to the primary. Code running in an explicit {@link PoolLane} always uses the primary.
+ * <p>
+ * The decision is taken when a connection is requested, so this data source has to be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} to see the read-only flag of
+ * the transaction. A replica that fails to hand out a connection is taken out of rotation until the next
+ * successful health check and the primary serves the transaction instead. Sessions reading from a replica
+ * do not populate the second-level cache.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<ReplicaNode> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReplicaNode> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    /**
+     * @return configured replicas, available or not
+     */
+    public List<ReplicaNode> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicas.isEmpty()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ReadYourWrites.isPrimaryRequired()
+                || PoolLanes.current() != null) {
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaNode replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isAvailable()) {
+                continue;
+            }
+            try {
+                Connection connection = replica.getDataSource().getConnection();
+                preventSecondLevelCachePuts();
+                return connection;
+            } catch (SQLException ex) {
+                replica.markUnavailable();
+                LOG.warn("Replica {} is unavailable, reads fall back to the primary: {}", replica.getName(), ex.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Stops the transaction's session from putting what it reads into the second-level cache. Rows read from
+     * a lagging replica could otherwise be cached after the newer version was evicted and stay stale until
+     * they expire. Cached entries are still read.
+     */
+    private void preventSecondLevelCachePuts() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder) {
+                holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.getDataSource().close());
+    }
+}
@@ -0,0 +1,16 @@
+package com.worfwint.tabletoprpgmanager.common.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Parsing and signature check of an access token.
+ */
+@Name(JwtVerificationEvent.NAME)
+@Label("JWT Verification")
+@Description("Parsing and signature check of an access token")
+public class JwtVerificationEvent extends StageEvent {
+
+    static final String NAME = "com.worfwint.tabletoprpgmanager.JwtVerification";
+}
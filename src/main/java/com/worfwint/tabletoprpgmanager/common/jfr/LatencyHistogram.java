@@ -0,0 +1,94 @@
+package com.worfwint.tabletoprpgmanager.common.jfr;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with power-of-two microsecond buckets, cheap enough to update for every event.
+ * Percentiles are reported as the upper bound of their bucket.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Adds a measurement.
+     *
+     * @param duration measured latency
+     */
+    public void record(Duration duration) {
+        long micros = Math.max(1, duration.toNanos() / 1_000);
+        // bucket i holds latencies up to 2^i microseconds
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros - 1));
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    /**
+     * @return current state of the histogram
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        Map<String, Long> nonEmpty = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0) {
+                nonEmpty.put("<=" + millis(1L << i) + "ms", counts[i]);
+            }
+        }
+        long max = maxMicros.get();
+        return new Snapshot(
+                total,
+                total == 0 ? 0 : millis(totalMicros.sum()) / count.sum(),
+                percentile(counts, total, 0.50, max),
+                percentile(counts, total, 0.90, max),
+                percentile(counts, total, 0.99, max),
+                millis(max),
+                nonEmpty);
+    }
+
+    private static double percentile(long[] counts, long total, double quantile, long max) {
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return millis(Math.min(1L << i, max));
+            }
+        }
+        return millis(max);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    /**
+     * Histogram state, latencies in milliseconds.
+     *
+     * @param count   measurements
+     * @param mean    average latency
+     * @param p50     median latency
+     * @param p90     90th percentile
+     * @param p99     99th percentile
+     * @param max     highest latency
+     * @param buckets measurements per non-empty bucket, keyed by its upper bound
+     */
+    public record Snapshot(long count, double mean, double p50, double p90, double p99, double max,
+                           Map<String, Long> buckets) {}
+}
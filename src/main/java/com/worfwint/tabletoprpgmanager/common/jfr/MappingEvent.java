@@ -0,0 +1,16 @@
+package com.worfwint.tabletoprpgmanager.common.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Mapping of entities to response objects.
+ */
+@Name(MappingEvent.NAME)
+@Label("DTO Mapping")
+@Description("Mapping of entities to response objects")
+public class MappingEvent extends StageEvent {
+
+    static final String NAME = "com.worfwint.tabletoprpgmanager.Mapping";
+}
@@ -0,0 +1,16 @@
+package com.worfwint.tabletoprpgmanager.common.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Call of a Spring Data repository method.
+ */
+@Name(RepositoryCallEvent.NAME)
+@Label("Repository Call")
+@Description("Call of a Spring Data repository method")
+public class RepositoryCallEvent extends StageEvent {
+
+    static final String NAME = "com.worfwint.tabletoprpgmanager.RepositoryCall";
+}
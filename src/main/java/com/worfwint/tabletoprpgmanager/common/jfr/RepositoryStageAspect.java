@@ -0,0 +1,49 @@
+package com.worfwint.tabletoprpgmanager.common.jfr;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records a {@link RepositoryCallEvent} for every call of a Spring Data repository, named after the
+ * repository interface and method.
+ */
+@Aspect
+@Component
+public class RepositoryStageAspect {
+
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        Stages.begin(event);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            Stages.commit(event, repositoryNameOf(joinPoint.getThis().getClass()) + "."
+                    + joinPoint.getSignature().getName());
+        }
+    }
+
+    private String repositoryNameOf(Class<?> proxyClass) {
+        return repositoryNames.computeIfAbsent(proxyClass, type -> {
+            // the proxy implements the application's repository interface besides Spring's own
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (Repository.class.isAssignableFrom(candidate)
+                        && !candidate.getName().startsWith("org.springframework.")) {
+                    return candidate.getSimpleName();
+                }
+            }
+            return type.getSimpleName();
+        });
+    }
+}
@@ -0,0 +1,16 @@
+package com.worfwint.tabletoprpgmanager.common.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Request to the object storage.
+ */
+@Name(S3OperationEvent.NAME)
+@Label("S3 Operation")
+@Description("Request to the object storage")
+public class S3OperationEvent extends StageEvent {
+
+    static final String NAME = "com.worfwint.tabletoprpgmanager.S3Operation";
+}
@@ -0,0 +1,42 @@
+package com.worfwint.tabletoprpgmanager.common.jfr;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+/**
+ * Records an {@link S3OperationEvent} for every call of an S3 client, named after the S3 operation.
+ * Covers retries and, for asynchronous clients, the whole exchange.
+ */
+public class S3StageInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<S3OperationEvent> EVENT = new ExecutionAttribute<>("S3OperationEvent");
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        S3OperationEvent event = new S3OperationEvent();
+        if (event.isEnabled()) {
+            Stages.begin(event);
+            executionAttributes.putAttribute(EVENT, event);
+        }
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        finish(executionAttributes);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        finish(executionAttributes);
+    }
+
+    private static void finish(ExecutionAttributes executionAttributes) {
+        S3OperationEvent event = executionAttributes.getAttribute(EVENT);
+        if (event != null) {
+            Stages.commit(event, executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME));
+        }
+    }
+}
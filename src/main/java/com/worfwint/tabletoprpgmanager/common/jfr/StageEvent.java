@@ -0,0 +1,23 @@
+package com.worfwint.tabletoprpgmanager.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Time spent in one stage of request processing. Disabled unless a recording or the
+ * {@code stages} endpoint enables it, so instrumented code only pays for an {@link #isEnabled()} check.
+ */
+@Category({"Tabletop RPG Manager", "Request Stages"})
+@Enabled(false)
+@StackTrace(false)
+public abstract class StageEvent extends Event {
+
+    @Label("Request Id")
+    String requestId;
+
+    @Label("Operation")
+    String operation;
+}
@@ -0,0 +1,58 @@
+package com.worfwint.tabletoprpgmanager.common.jfr;
+
+import java.time.Duration;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Live per-stage latency histograms at {@code /actuator/stages}, restricted to administrators. A
+ * {@code POST} starts streaming the JFR stage events for the given number of {@code seconds}, a
+ * {@code GET} returns what was collected so far and a {@code DELETE} stops early.
+ */
+@Component
+@Endpoint(id = "stages")
+public class StageLatencyEndpoint {
+
+    private static final long DEFAULT_SECONDS = 300;
+    private static final long MAX_SECONDS = 3_600;
+
+    private final StageLatencyMonitor monitor;
+
+    public StageLatencyEndpoint(StageLatencyMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    /**
+     * @return histograms and slowest events of the current or last stream
+     */
+    @ReadOperation
+    public StageLatencyMonitor.StageLatencyReport stages() {
+        return monitor.report();
+    }
+
+    /**
+     * Starts streaming, discarding earlier results.
+     *
+     * @param seconds streaming time, five minutes when absent and at most an hour
+     * @return empty report of the new stream
+     */
+    @WriteOperation
+    public StageLatencyMonitor.StageLatencyReport start(@Nullable Long seconds) {
+        long duration = seconds == null ? DEFAULT_SECONDS : Math.clamp(seconds, 1, MAX_SECONDS);
+        monitor.start(Duration.ofSeconds(duration));
+        return monitor.report();
+    }
+
+    /**
+     * Stops streaming, keeping the collected results.
+     */
+    @DeleteOperation
+    public void stop() {
+        monitor.stop();
+    }
+}
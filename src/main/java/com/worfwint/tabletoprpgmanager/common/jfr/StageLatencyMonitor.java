@@ -0,0 +1,175 @@
+package com.worfwint.tabletoprpgmanager.common.jfr;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Streams the {@link StageEvent}s of this JVM for a limited time and aggregates them into latency
+ * histograms per stage and operation, together with the slowest events and their request ids.
+ * <p>
+ * The events are only enabled while streaming, so the instrumented code runs at full speed otherwise.
+ */
+@Component
+public class StageLatencyMonitor implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StageLatencyMonitor.class);
+    private static final int SLOWEST_PER_STAGE = 10;
+    private static final Map<String, String> STAGES = Map.of(
+            JwtVerificationEvent.NAME, "jwt-verification",
+            TokenCheckEvent.NAME, "token-check",
+            RepositoryCallEvent.NAME, "repository",
+            MappingEvent.NAME, "mapping",
+            S3OperationEvent.NAME, "s3");
+
+    // guards the stream and the slowest events; histograms are updated lock-free
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Map<String, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+    private final Map<String, PriorityQueue<SlowStage>> slowest = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+    private Instant startedAt;
+    private Instant stopsAt;
+
+    /**
+     * Starts streaming with empty histograms, replacing a running stream.
+     *
+     * @param duration time after which streaming stops by itself
+     */
+    public void start(Duration duration) {
+        lock.lock();
+        try {
+            closeStream();
+            histograms.clear();
+            slowest.clear();
+            startedAt = Instant.now();
+            stopsAt = startedAt.plus(duration);
+
+            RecordingStream started = new RecordingStream();
+            started.setMaxAge(Duration.ofMinutes(1));
+            for (String name : STAGES.keySet()) {
+                started.enable(name).withThreshold(Duration.ZERO);
+                started.onEvent(name, this::record);
+            }
+            started.onFlush(() -> {
+                if (Instant.now().isAfter(stopsAt)) {
+                    stop();
+                }
+            });
+            started.startAsync();
+            stream = started;
+            LOG.info("Streaming request stage events until {}", stopsAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops streaming and disables the events. The collected histograms are kept.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            closeStream();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return histograms and slowest events collected by the current or last stream
+     */
+    public StageLatencyReport report() {
+        lock.lock();
+        try {
+            Map<String, Map<String, LatencyHistogram.Snapshot>> stages = new TreeMap<>();
+            histograms.forEach((stage, operations) -> {
+                Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+                operations.forEach((operation, histogram) -> snapshots.put(operation, histogram.snapshot()));
+                stages.put(stage, snapshots);
+            });
+            Map<String, List<SlowStage>> slowestByStage = new TreeMap<>();
+            slowest.forEach((stage, queue) -> {
+                List<SlowStage> sorted = new ArrayList<>(queue);
+                sorted.sort(Comparator.comparingDouble(SlowStage::durationMs).reversed());
+                slowestByStage.put(stage, sorted);
+            });
+            return new StageLatencyReport(stream != null, startedAt, stopsAt, stages, slowestByStage);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        String stage = STAGES.get(event.getEventType().getName());
+        String operation = event.getString("operation");
+        Duration duration = event.getDuration();
+        histograms.computeIfAbsent(stage, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(operation != null ? operation : "unknown", key -> new LatencyHistogram())
+                .record(duration);
+
+        SlowStage slow = new SlowStage(event.getString("requestId"), operation, duration.toNanos() / 1_000_000.0,
+                event.getStartTime());
+        lock.lock();
+        try {
+            PriorityQueue<SlowStage> queue = slowest.computeIfAbsent(stage,
+                    key -> new PriorityQueue<>(Comparator.comparingDouble(SlowStage::durationMs)));
+            queue.add(slow);
+            if (queue.size() > SLOWEST_PER_STAGE) {
+                queue.poll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeStream() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+            LOG.info("Stopped streaming request stage events");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        stop();
+    }
+
+    /**
+     * One of the slowest events of a stage.
+     *
+     * @param requestId  request the stage belonged to, {@code null} outside requests
+     * @param operation  what the stage did
+     * @param durationMs time spent
+     * @param startedAt  when the stage started
+     */
+    public record SlowStage(String requestId, String operation, double durationMs, Instant startedAt) {}
+
+    /**
+     * Result of a stream.
+     *
+     * @param streaming whether events are still being collected
+     * @param startedAt when streaming started, {@code null} before the first stream
+     * @param stopsAt   when streaming stops or stopped by itself
+     * @param stages    latency histograms per stage and operation
+     * @param slowest   slowest events per stage, slowest first
+     */
+    public record StageLatencyReport(boolean streaming, Instant startedAt, Instant stopsAt,
+                                     Map<String, Map<String, LatencyHistogram.Snapshot>> stages,
+                                     Map<String, List<SlowStage>> slowest) {}
+}
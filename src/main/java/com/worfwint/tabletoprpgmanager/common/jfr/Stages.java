@@ -0,0 +1,59 @@
+package com.worfwint.tabletoprpgmanager.common.jfr;
+
+import java.util.function.Supplier;
+
+import org.slf4j.MDC;
+
+/**
+ * Records {@link StageEvent}s around pieces of work.
+ */
+public final class Stages {
+
+    private Stages() {
+    }
+
+    /**
+     * Runs the work, recording the event around it when the event is enabled.
+     *
+     * @param event     new event of the stage
+     * @param operation what the stage does, such as the repository method
+     * @param work      work to time
+     * @param <T>       type of the result
+     * @return result of the work
+     */
+    public static <T> T record(StageEvent event, String operation, Supplier<T> work) {
+        if (!event.isEnabled()) {
+            return work.get();
+        }
+        begin(event);
+        try {
+            return work.get();
+        } finally {
+            commit(event, operation);
+        }
+    }
+
+    /**
+     * Starts an event, taking the request id of the current thread.
+     *
+     * @param event new event of the stage
+     */
+    public static void begin(StageEvent event) {
+        event.requestId = MDC.get(RequestIdFilter.MDC_KEY);
+        event.begin();
+    }
+
+    /**
+     * Ends and commits an event started with {@link #begin(StageEvent)}, when it exceeds its threshold.
+     *
+     * @param event     started event
+     * @param operation what the stage did
+     */
+    public static void commit(StageEvent event, String operation) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.worfwint.tabletoprpgmanager.common.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Redis lookup of the current access token version.
+ */
+@Name(TokenCheckEvent.NAME)
+@Label("Token Version Check")
+@Description("Redis lookup of the current access token version")
+public class TokenCheckEvent extends StageEvent {
+
+    static final String NAME = "com.worfwint.tabletoprpgmanager.TokenCheck";
+}
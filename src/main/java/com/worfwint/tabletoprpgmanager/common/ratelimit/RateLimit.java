@@ -0,0 +1,43 @@
+package com.worfwint.tabletoprpgmanager.common.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits how often a controller method may be called, using a token bucket kept in Redis and shared by
+ * all application nodes. Each call takes one token; the bucket refills {@link #capacity()} tokens over
+ * {@link #period()}. Calls finding the bucket empty are answered with {@code 429 Too Many Requests}.
+ * <p>
+ * Methods may declare several limits, for example one per user and a looser one per client address.
+ * Methods sharing a {@link #name()} and key share their bucket.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(RateLimits.class)
+public @interface RateLimit {
+
+    /**
+     * @return name of the bucket, used in Redis keys and metric tags
+     */
+    String name();
+
+    /**
+     * @return what the bucket is kept for
+     */
+    RateLimitKey key() default RateLimitKey.USER;
+
+    /**
+     * @return calls allowed in a burst
+     */
+    int capacity();
+
+    /**
+     * @return time to refill the whole bucket, such as {@code 1m} or {@code PT1H}
+     */
+    String period() default "1m";
+}
@@ -0,0 +1,33 @@
+package com.worfwint.tabletoprpgmanager.common.ratelimit;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Registers the {@link RateLimit} checks for controller methods.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final RedisTokenBuckets buckets;
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitConfig(RedisTokenBuckets buckets, RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.buckets = buckets;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (properties.enabled()) {
+            registry.addInterceptor(new RateLimitInterceptor(buckets, properties, meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.worfwint.tabletoprpgmanager.common.ratelimit;
+
+/**
+ * Outcome of taking a token from a bucket.
+ *
+ * @param allowed          whether a token was available
+ * @param capacity         size of the bucket
+ * @param remaining        tokens left afterwards
+ * @param retryAfterMillis time until the next token is available, zero when allowed
+ * @param resetMillis      time until the bucket is full again
+ */
+public record RateLimitDecision(boolean allowed, int capacity, long remaining, long retryAfterMillis, long resetMillis) {
+
+    /**
+     * Rejection decided without asking Redis.
+     *
+     * @param capacity         size of the bucket
+     * @param retryAfterMillis time until the next token is available
+     * @return rejected decision
+     */
+    static RateLimitDecision rejected(int capacity, long retryAfterMillis) {
+        return new RateLimitDecision(false, capacity, 0, retryAfterMillis, retryAfterMillis);
+    }
+}
@@ -0,0 +1,183 @@
+package com.worfwint.tabletoprpgmanager.common.ratelimit;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.worfwint.tabletoprpgmanager.common.dto.AuthenticatedUser;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Enforces the {@link RateLimit} declarations of controller methods. All buckets of a request are checked
+ * together, so a request rejected by one limit does not use up the others.
+ * <p>
+ * Buckets Redis reported as empty are remembered locally until their next token is due, so a client
+ * hammering an endpoint is turned away without a Redis round trip. Responses carry the
+ * {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code RateLimit-Reset} headers of the most
+ * restrictive limit, and rejections a {@code Retry-After} header. Rejections are counted in
+ * {@code http.server.rate-limit.rejected}. When Redis cannot be reached requests are let through, since
+ * the concurrency limits still protect the service.
+ * <p>
+ * Anonymous clients are keyed by {@link HttpServletRequest#getRemoteAddr()}, which only names the client
+ * behind a reverse proxy when {@code server.forward-headers-strategy} resolves {@code X-Forwarded-For}.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RateLimitInterceptor.class);
+
+    private final RedisTokenBuckets buckets;
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, List<Policy>> policies = new ConcurrentHashMap<>();
+    // bucket -> System.nanoTime() at which it has a token again
+    private final Cache<String, Long> emptyBuckets;
+
+    public RateLimitInterceptor(RedisTokenBuckets buckets, RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.buckets = buckets;
+        this.meterRegistry = meterRegistry;
+        this.emptyBuckets = Caffeine.newBuilder()
+                .maximumSize(properties.localBlockSize())
+                .expireAfter(new UntilRefilled())
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        List<Policy> declared = policies.computeIfAbsent(handlerMethod.getMethod(), RateLimitInterceptor::policiesOf);
+        if (declared.isEmpty()) {
+            return true;
+        }
+        long now = System.nanoTime();
+        List<TokenBucket> requested = new ArrayList<>(declared.size());
+        for (Policy policy : declared) {
+            String bucket = policy.bucket(request);
+            Long availableAt = emptyBuckets.getIfPresent(bucket);
+            if (availableAt != null && availableAt - now > 0) {
+                meterRegistry.counter("http.server.rate-limit.rejected", "name", policy.name(), "source", "local").increment();
+                reject(response, RateLimitDecision.rejected(policy.capacity(), Duration.ofNanos(availableAt - now).toMillis()));
+                return false;
+            }
+            requested.add(new TokenBucket(bucket, policy.capacity(), policy.period()));
+        }
+
+        List<RateLimitDecision> decisions;
+        try {
+            decisions = buckets.take(requested);
+        } catch (RuntimeException ex) {
+            LOG.warn("Could not check rate limits {}, letting the request through: {}",
+                    requested.stream().map(TokenBucket::id).toList(), ex.getMessage());
+            return true;
+        }
+
+        RateLimitDecision rejection = null;
+        RateLimitDecision tightest = null;
+        for (int i = 0; i < decisions.size(); i++) {
+            RateLimitDecision decision = decisions.get(i);
+            if (!decision.allowed()) {
+                emptyBuckets.put(requested.get(i).id(), now + Duration.ofMillis(decision.retryAfterMillis()).toNanos());
+                meterRegistry.counter("http.server.rate-limit.rejected", "name", declared.get(i).name(), "source", "redis").increment();
+                if (rejection == null || decision.retryAfterMillis() > rejection.retryAfterMillis()) {
+                    rejection = decision;
+                }
+            } else if (tightest == null || decision.remaining() < tightest.remaining()) {
+                tightest = decision;
+            }
+        }
+        if (rejection != null) {
+            reject(response, rejection);
+            return false;
+        }
+        if (tightest != null) {
+            writeHeaders(response, tightest);
+        }
+        return true;
+    }
+
+    private static void reject(HttpServletResponse response, RateLimitDecision decision) throws Exception {
+        writeHeaders(response, decision);
+        long retryAfter = seconds(decision.retryAfterMillis());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests, retry in " + retryAfter + " s");
+    }
+
+    private static void writeHeaders(HttpServletResponse response, RateLimitDecision decision) {
+        response.setHeader("RateLimit-Limit", Integer.toString(decision.capacity()));
+        response.setHeader("RateLimit-Remaining", Long.toString(decision.remaining()));
+        response.setHeader("RateLimit-Reset", Long.toString(seconds(decision.resetMillis())));
+    }
+
+    private static long seconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    private static List<Policy> policiesOf(Method method) {
+        return AnnotatedElementUtils.findMergedRepeatableAnnotations(method, RateLimit.class).stream()
+                .map(limit -> new Policy(limit.name(), limit.key(), limit.capacity(),
+                        DurationStyle.detectAndParse(limit.period())))
+                .toList();
+    }
+
+    /**
+     * A parsed {@link RateLimit} declaration.
+     */
+    private record Policy(String name, RateLimitKey key, int capacity, Duration period) {
+
+        String bucket(HttpServletRequest request) {
+            if (key == RateLimitKey.USER) {
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+                    return name + ":user:" + user.id();
+                }
+            }
+            return name + ":ip:" + request.getRemoteAddr();
+        }
+    }
+
+    /**
+     * Keeps an empty bucket until its next token is due.
+     */
+    private static final class UntilRefilled implements Expiry<String, Long> {
+
+        @Override
+        public long expireAfterCreate(String bucket, Long availableAt, long currentTime) {
+            return Math.max(0, availableAt - currentTime);
+        }
+
+        @Override
+        public long expireAfterUpdate(String bucket, Long availableAt, long currentTime,
+                                      long currentDuration) {
+            return Math.max(0, availableAt - currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String bucket, Long availableAt, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.worfwint.tabletoprpgmanager.common.ratelimit;
+
+/**
+ * What a rate limit bucket is kept for.
+ */
+public enum RateLimitKey {
+
+    /**
+     * One bucket per authenticated user. Anonymous requests fall back to their client address.
+     */
+    USER,
+
+    /**
+     * One bucket per client address, shared by all accounts using it.
+     */
+    IP
+}
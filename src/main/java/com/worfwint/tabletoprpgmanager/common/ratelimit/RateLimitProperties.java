@@ -0,0 +1,21 @@
+package com.worfwint.tabletoprpgmanager.common.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+
+/**
+ * Settings of the {@link RateLimit} checks.
+ *
+ * @param enabled        whether declared limits are enforced
+ * @param localBlockSize buckets remembered locally as empty, so their requests are rejected without
+ *                       asking Redis until they refill
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") @Min(0) int localBlockSize
+) {}
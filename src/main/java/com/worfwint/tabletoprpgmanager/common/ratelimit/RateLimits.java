@@ -0,0 +1,21 @@
+package com.worfwint.tabletoprpgmanager.common.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Container of repeated {@link RateLimit} declarations.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimits {
+
+    /**
+     * @return declared limits
+     */
+    RateLimit[] value();
+}
@@ -0,0 +1,60 @@
+package com.worfwint.tabletoprpgmanager.common.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token buckets kept in Redis. A Lua script refills and takes from all buckets of a request in one atomic
+ * step, so concurrent requests on any node never take the same token twice and a request rejected by one
+ * bucket takes nothing from the others. The buckets of one call must live on the same Redis node.
+ */
+@Component
+public class RedisTokenBuckets {
+
+    private static final String KEY_PREFIX = "rl:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> script =
+            RedisScript.of(new ClassPathResource("scripts/token-bucket.lua"), List.class);
+
+    public RedisTokenBuckets(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Takes one token from each bucket if every bucket has one, and nothing otherwise.
+     *
+     * @param requested buckets to take from
+     * @return decisions in the order of the buckets, each telling whether that bucket had a token
+     */
+    public List<RateLimitDecision> take(List<TokenBucket> requested) {
+        List<String> keys = new ArrayList<>(requested.size());
+        Object[] args = new Object[requested.size() * 2];
+        for (int i = 0; i < requested.size(); i++) {
+            TokenBucket bucket = requested.get(i);
+            keys.add(KEY_PREFIX + bucket.id());
+            args[2 * i] = Integer.toString(bucket.capacity());
+            args[2 * i + 1] = Long.toString(bucket.period().toMillis());
+        }
+        List<?> result = redisTemplate.execute(script, keys, args);
+        if (result == null || result.size() < requested.size() * 4) {
+            throw new IllegalStateException("Unexpected token bucket reply " + result);
+        }
+        List<RateLimitDecision> decisions = new ArrayList<>(requested.size());
+        for (int i = 0; i < requested.size(); i++) {
+            decisions.add(new RateLimitDecision(
+                    ((Number) result.get(4 * i)).longValue() == 1,
+                    requested.get(i).capacity(),
+                    ((Number) result.get(4 * i + 1)).longValue(),
+                    ((Number) result.get(4 * i + 2)).longValue(),
+                    ((Number) result.get(4 * i + 3)).longValue()));
+        }
+        return decisions;
+    }
+}
@@ -0,0 +1,12 @@
+package com.worfwint.tabletoprpgmanager.common.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * A bucket to take a token from.
+ *
+ * @param id       bucket identifier
+ * @param capacity size of the bucket
+ * @param period   time to refill the whole bucket
+ */
+public record TokenBucket(String id, int capacity, Duration period) {}
@@ -0,0 +1,85 @@
+package com.worfwint.tabletoprpgmanager.common.seed;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * Streams rows into a table with {@code COPY ... FROM STDIN} in text format, buffering them in chunks.
+ */
+class CopyWriter implements AutoCloseable {
+
+    private static final int FLUSH_THRESHOLD = 1 << 20;
+
+    private final CopyIn copyIn;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 4096);
+    private long rows;
+
+    CopyWriter(CopyManager copyManager, String table, String columns) throws SQLException {
+        this.copyIn = copyManager.copyIn("COPY " + table + " (" + columns + ") FROM STDIN");
+    }
+
+    /**
+     * Appends a row. {@code null} values are written as SQL {@code NULL}.
+     *
+     * @param values column values in the declared order
+     */
+    void row(Object... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                buffer.append('\t');
+            }
+            append(values[i]);
+        }
+        buffer.append('\n');
+        rows++;
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    /**
+     * @return rows written so far
+     */
+    long rows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!copyIn.isActive()) {
+            return;
+        }
+        flush();
+        copyIn.endCopy();
+    }
+
+    private void append(Object value) {
+        if (value == null) {
+            buffer.append("\\N");
+            return;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> buffer.append("\\\\");
+                case '\t' -> buffer.append("\\t");
+                case '\n' -> buffer.append("\\n");
+                case '\r' -> buffer.append("\\r");
+                default -> buffer.append(c);
+            }
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+}
@@ -0,0 +1,286 @@
+package com.worfwint.tabletoprpgmanager.common.seed;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.worfwint.tabletoprpgmanager.common.datasource.DataSourcePool;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLane;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLaneRoutingDataSource;
+import com.worfwint.tabletoprpgmanager.news.service.NewsContentRenderer;
+
+/**
+ * Loads a synthetic dataset with {@code COPY} once the application has started.
+ * <p>
+ * Likes and comments per article follow a Zipf distribution over a shuffled article order, so a few
+ * articles of any age collect most of the activity. Comments are written mostly by a small group of active
+ * users and articles by the configured authors. New rows get ids above both the current maximum and the
+ * sequence value, and the sequences are moved past them afterwards, so the application keeps allocating
+ * ids normally. Rows are not audited and no caches are involved, so it is meant for a stopped cluster
+ * with only this instance running.
+ */
+public class DatasetSeeder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DatasetSeeder.class);
+
+    private static final List<String> FIRST_NAMES = List.of("Ada", "Brom", "Cora", "Dain", "Elra", "Finn", "Gwen",
+            "Hugo", "Ivy", "Jarl", "Kira", "Lorn", "Mira", "Nox", "Orla", "Pike", "Quin", "Rhea", "Sven", "Tova");
+    private static final List<String> LAST_NAMES = List.of("Ashdown", "Blackwood", "Copperfield", "Duskmere",
+            "Emberly", "Frostholm", "Greymantle", "Hollow", "Ironside", "Juniper", "Kestrel", "Lark", "Mossbrook");
+    private static final List<String> TOPICS = List.of("Session zero", "Dungeon design", "House rules",
+            "Campaign recap", "Encounter balance", "Worldbuilding", "Character backstories", "Loot tables",
+            "Initiative tracking", "One-shot ideas", "Homebrew classes", "Table etiquette");
+    private static final List<String> SENTENCES = List.of(
+            "The party argued about the map for half an hour.",
+            "Our rogue rolled a natural twenty at the worst possible moment.",
+            "Keep the pacing tight and let the players drive the scene.",
+            "A short rest in the middle of the dungeon changed everything.",
+            "The villain should want something the heroes can understand.",
+            "Nobody expected the tavern keeper to be the dragon.",
+            "Write the consequences down so the world remembers them.",
+            "Two sessions later the cursed sword finally paid off.");
+    private static final int TEMPLATES = 16;
+
+    private final PoolLaneRoutingDataSource primaryDataSource;
+    private final PasswordEncoder passwordEncoder;
+    private final NewsContentRenderer contentRenderer;
+    private final SeedProperties properties;
+    private final ConfigurableApplicationContext applicationContext;
+
+    public DatasetSeeder(PoolLaneRoutingDataSource primaryDataSource,
+                         PasswordEncoder passwordEncoder,
+                         NewsContentRenderer contentRenderer,
+                         SeedProperties properties,
+                         ConfigurableApplicationContext applicationContext) {
+        this.primaryDataSource = primaryDataSource;
+        this.passwordEncoder = passwordEncoder;
+        this.contentRenderer = contentRenderer;
+        this.properties = properties;
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Loads the dataset and, when configured, stops the application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @DataSourcePool(PoolLane.MAINTENANCE)
+    public void seed() throws SQLException {
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(properties.randomSeed());
+        try (Connection connection = primaryDataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET synchronous_commit = off");
+            }
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+
+            long firstUserId = firstFreeId(connection, "users", "users_seq");
+            loadUsers(connection, copyManager, firstUserId);
+            long firstArticleId = firstFreeId(connection, "news_articles", "news_articles_seq");
+            int[] articleOrder = shuffledRange(properties.articles(), random);
+            loadArticles(connection, copyManager, firstArticleId, firstUserId, random);
+            loadLikes(connection, copyManager, firstArticleId, articleOrder, firstUserId, random);
+            loadComments(connection, copyManager, firstArticleId, articleOrder, firstUserId, random);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE users, user_roles, news_articles, news_likes, news_comments");
+            }
+            connection.commit();
+        }
+        LOG.info("Synthetic dataset loaded in {}s", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+        if (properties.exitWhenDone()) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    private void loadUsers(Connection connection, CopyManager copyManager, long firstId) throws SQLException {
+        long started = System.nanoTime();
+        // one hash for everyone: hashing a million passwords would take hours
+        String passwordHash = passwordEncoder.encode(properties.password());
+        long users = properties.users();
+        Instant now = Instant.now();
+        try (CopyWriter writer = new CopyWriter(copyManager, "users",
+                "id, username, email, password_hash, display_name, created_at, updated_at")) {
+            for (long i = 0; i < users; i++) {
+                long id = firstId + i;
+                String username = "seed_user_" + id;
+                LocalDateTime createdAt = timestamp(now, 3 * 365, users - i, users);
+                writer.row(id, username, username + "@seed.local", passwordHash,
+                        FIRST_NAMES.get((int) (id % FIRST_NAMES.size())) + " "
+                                + LAST_NAMES.get((int) (id / FIRST_NAMES.size() % LAST_NAMES.size())),
+                        createdAt, createdAt);
+            }
+        }
+        try (CopyWriter writer = new CopyWriter(copyManager, "user_roles", "user_id, roles")) {
+            for (long i = 0; i < users; i++) {
+                writer.row(firstId + i, "USER");
+            }
+        }
+        finish(connection, "users", "users_seq", firstId + users - 1, users, started);
+    }
+
+    private void loadArticles(Connection connection, CopyManager copyManager, long firstId, long firstUserId,
+                              SplittableRandom random) throws SQLException {
+        long started = System.nanoTime();
+        String[] contents = new String[TEMPLATES];
+        String[] htmls = new String[TEMPLATES];
+        for (int t = 0; t < TEMPLATES; t++) {
+            contents[t] = articleContent(t);
+            htmls[t] = contentRenderer.render(contents[t]);
+        }
+        ZipfDistribution authors = new ZipfDistribution(Math.min(properties.authors(), properties.users()), 1.0);
+        int articles = properties.articles();
+        Instant now = Instant.now();
+        try (CopyWriter writer = new CopyWriter(copyManager, "news_articles",
+                "id, title, summary, content, content_html, author_id, created_at, updated_at")) {
+            for (int i = 0; i < articles; i++) {
+                long id = firstId + i;
+                String topic = TOPICS.get(random.nextInt(TOPICS.size()));
+                int template = random.nextInt(TEMPLATES);
+                LocalDateTime createdAt = timestamp(now, 2 * 365, articles - i, articles);
+                writer.row(id, topic + " #" + id, SENTENCES.get(template % SENTENCES.size()),
+                        contents[template], htmls[template], firstUserId + authors.sample(random),
+                        createdAt, createdAt);
+            }
+        }
+        finish(connection, "news_articles", "news_articles_seq", firstId + articles - 1, articles, started);
+    }
+
+    private void loadLikes(Connection connection, CopyManager copyManager, long firstArticleId, int[] articleOrder,
+                           long firstUserId, SplittableRandom random) throws SQLException {
+        long started = System.nanoTime();
+        long users = properties.users();
+        long[] likesPerRank = new ZipfDistribution(articleOrder.length, properties.popularityExponent())
+                .split(properties.likes(), users);
+        long firstId = firstFreeId(connection, "news_likes", "news_likes_seq");
+        LocalDateTime createdAt = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+        long id = firstId;
+        try (CopyWriter writer = new CopyWriter(copyManager, "news_likes", "id, article_id, user_id, created_at")) {
+            for (int rank = 0; rank < articleOrder.length; rank++) {
+                long articleId = firstArticleId + articleOrder[rank];
+                // start and stride coprime with the user count visit distinct users without a set
+                long start = random.nextLong(users);
+                long stride = coprimeStride(users, random);
+                for (long k = 0; k < likesPerRank[rank]; k++) {
+                    writer.row(id++, articleId, firstUserId + (start + k * stride) % users,
+                            createdAt.minusMinutes(random.nextInt(60 * 24 * 365)));
+                }
+            }
+        }
+        finish(connection, "news_likes", "news_likes_seq", id - 1, id - firstId, started);
+    }
+
+    private void loadComments(Connection connection, CopyManager copyManager, long firstArticleId, int[] articleOrder,
+                              long firstUserId, SplittableRandom random) throws SQLException {
+        long started = System.nanoTime();
+        long[] commentsPerRank = new ZipfDistribution(articleOrder.length, properties.popularityExponent())
+                .split(properties.comments(), Long.MAX_VALUE);
+        ZipfDistribution commenters = new ZipfDistribution(properties.users(), properties.activityExponent());
+        long firstId = firstFreeId(connection, "news_comments", "news_comments_seq");
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+        long id = firstId;
+        try (CopyWriter writer = new CopyWriter(copyManager, "news_comments",
+                "id, article_id, author_id, content, created_at, updated_at")) {
+            for (int rank = 0; rank < articleOrder.length; rank++) {
+                long articleId = firstArticleId + articleOrder[rank];
+                // a thread: comments of one article follow each other within a few days
+                LocalDateTime createdAt = now.minusDays(random.nextInt(365));
+                for (long k = 0; k < commentsPerRank[rank]; k++) {
+                    createdAt = createdAt.plusSeconds(random.nextInt(600));
+                    writer.row(id++, articleId, firstUserId + commenters.sample(random),
+                            SENTENCES.get(random.nextInt(SENTENCES.size())), createdAt, createdAt);
+                }
+            }
+        }
+        finish(connection, "news_comments", "news_comments_seq", id - 1, id - firstId, started);
+    }
+
+    /**
+     * Commits the table and moves its sequence past the loaded ids. With the pooled optimizer the
+     * application continues with ids above the sequence value.
+     */
+    private void finish(Connection connection, String table, String sequence, long lastId, long rows, long started)
+            throws SQLException {
+        if (rows > 0) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT setval('" + sequence + "', " + lastId + ")");
+            }
+        }
+        connection.commit();
+        LOG.info("Loaded {} rows into {} in {}s", rows, table, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+    }
+
+    private long firstFreeId(Connection connection, String table, String sequence) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT GREATEST((SELECT COALESCE(MAX(id), 0) FROM " + table
+                     + "), (SELECT COALESCE(last_value, 0) FROM pg_sequences WHERE schemaname = current_schema()"
+                     + " AND sequencename = '" + sequence + "'))")) {
+            resultSet.next();
+            return resultSet.getLong(1) + 1;
+        }
+    }
+
+    private static LocalDateTime timestamp(Instant now, int spanDays, long position, long count) {
+        long secondsAgo = TimeUnit.DAYS.toSeconds(spanDays) * position / count;
+        return LocalDateTime.ofInstant(now.minusSeconds(secondsAgo), ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static int[] shuffledRange(int size, SplittableRandom random) {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+
+    private static long coprimeStride(long modulus, SplittableRandom random) {
+        if (modulus == 1) {
+            return 1;
+        }
+        BigInteger mod = BigInteger.valueOf(modulus);
+        long stride;
+        do {
+            stride = 1 + random.nextLong(modulus - 1);
+        } while (!mod.gcd(BigInteger.valueOf(stride)).equals(BigInteger.ONE));
+        return stride;
+    }
+
+    private static String articleContent(int template) {
+        StringBuilder content = new StringBuilder("# ").append(TOPICS.get(template % TOPICS.size())).append("\n\n");
+        for (int paragraph = 0; paragraph < 4 + template % 4; paragraph++) {
+            for (int sentence = 0; sentence < 5; sentence++) {
+                content.append(SENTENCES.get((template + paragraph * 3 + sentence) % SENTENCES.size())).append(' ');
+            }
+            content.append("\n\n");
+            if (paragraph == 1) {
+                content.append("- Bring dice\n- Bring snacks\n- Bring a **backup character**\n\n");
+            }
+        }
+        return content.toString();
+    }
+}
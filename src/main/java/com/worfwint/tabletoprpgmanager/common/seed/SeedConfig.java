@@ -0,0 +1,30 @@
+package com.worfwint.tabletoprpgmanager.common.seed;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLaneRoutingDataSource;
+import com.worfwint.tabletoprpgmanager.news.service.NewsContentRenderer;
+
+/**
+ * Enables the synthetic dataset loader. Start the application with {@code --spring.profiles.active=seed}
+ * to load the dataset described by {@code app.seed.*}.
+ */
+@Configuration
+@Profile("seed")
+@EnableConfigurationProperties(SeedProperties.class)
+public class SeedConfig {
+
+    @Bean
+    public DatasetSeeder datasetSeeder(PoolLaneRoutingDataSource primaryDataSource,
+                                       PasswordEncoder passwordEncoder,
+                                       NewsContentRenderer contentRenderer,
+                                       SeedProperties properties,
+                                       ConfigurableApplicationContext applicationContext) {
+        return new DatasetSeeder(primaryDataSource, passwordEncoder, contentRenderer, properties, applicationContext);
+    }
+}
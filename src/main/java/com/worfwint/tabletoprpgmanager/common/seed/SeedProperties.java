@@ -0,0 +1,39 @@
+package com.worfwint.tabletoprpgmanager.common.seed;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Size and shape of the synthetic dataset loaded by the {@code seed} profile.
+ *
+ * @param users               accounts to create
+ * @param articles            articles to create
+ * @param comments            comments to create
+ * @param likes               likes to create, at most one per user and article
+ * @param authors             accounts writing articles, the most prolific first
+ * @param popularityExponent  Zipf exponent of likes and comments per article; higher values concentrate
+ *                            more of them on the most popular articles
+ * @param activityExponent    Zipf exponent of comments per user
+ * @param password            password of every generated account
+ * @param randomSeed          seed of the generator, the same seed produces the same data
+ * @param exitWhenDone        whether the application stops after loading
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.seed")
+public record SeedProperties(
+        @DefaultValue("1000000") @Min(1) int users,
+        @DefaultValue("50000") @Min(1) int articles,
+        @DefaultValue("2000000") @Min(0) long comments,
+        @DefaultValue("10000000") @Min(0) long likes,
+        @DefaultValue("2000") @Min(1) int authors,
+        @DefaultValue("1.1") @DecimalMin("0.0") double popularityExponent,
+        @DefaultValue("1.0") @DecimalMin("0.0") double activityExponent,
+        @DefaultValue("Seed#Password1") @NotBlank String password,
+        @DefaultValue("42") long randomSeed,
+        @DefaultValue("true") boolean exitWhenDone
+) {}
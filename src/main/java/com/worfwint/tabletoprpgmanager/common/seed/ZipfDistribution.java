@@ -0,0 +1,62 @@
+package com.worfwint.tabletoprpgmanager.common.seed;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Zipf distribution over ranks {@code 0..n-1}: rank {@code k} has a weight proportional to
+ * {@code 1 / (k + 1)^exponent}.
+ */
+class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    ZipfDistribution(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    /**
+     * Draws a rank.
+     *
+     * @param random source of randomness
+     * @return rank, {@code 0} being the most likely
+     */
+    int sample(RandomGenerator random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    /**
+     * Splits a total between the ranks in proportion to their weights, capping every share.
+     *
+     * @param total amount to split
+     * @param cap   largest share of a single rank
+     * @return share per rank, summing to {@code total} unless the cap prevented it
+     */
+    long[] split(long total, long cap) {
+        long[] shares = new long[cumulative.length];
+        long assigned = 0;
+        double previous = 0;
+        for (int k = 0; k < shares.length; k++) {
+            long share = Math.min(cap, Math.round(total * cumulative[k]) - Math.round(total * previous));
+            shares[k] = Math.max(0, share);
+            assigned += shares[k];
+            previous = cumulative[k];
+        }
+        // rounding and capping leave a remainder, handed to the ranks with room left, most popular first
+        for (int k = 0; assigned < total && k < shares.length; k++) {
+            long extra = Math.min(cap - shares[k], total - assigned);
+            shares[k] += extra;
+            assigned += extra;
+        }
+        return shares;
+    }
+}
@@ -0,0 +1,53 @@
+package com.worfwint.tabletoprpgmanager.common.sql;
+
+import java.sql.ResultSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Feeds executed statements and fetched rows into the scopes open on the executing thread.
+ */
+public class QueryCountingListener implements QueryExecutionListener, MethodExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long nanos = execInfo.getElapsedTime() * 1_000_000L;
+        // a batch is one round trip, so each statement shape in it counts once, whatever the parameter sets
+        Set<String> shapes = new LinkedHashSet<>();
+        for (QueryInfo query : queryInfoList) {
+            shapes.add(query.getQuery());
+        }
+        QueryScopes.forEachOpen(scope -> {
+            boolean first = true;
+            for (String shape : shapes) {
+                // the batch time is attributed to its first statement
+                scope.recordStatement(shape, first ? nanos : 0L);
+                first = false;
+            }
+        });
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            QueryScopes.forEachOpen(QueryScope::recordRow);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.worfwint.tabletoprpgmanager.common.sql;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes the statements run by each service method as {@code sql.method.statements}, tagged with
+ * the class and method name. Nested service calls count towards both methods.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "app.sql.monitoring", name = {"enabled", "service-methods"},
+        havingValue = "true", matchIfMissing = true)
+public class QueryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    public QueryMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(@org.springframework.stereotype.Service *) && execution(public * *(..))")
+    public Object count(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = AopUtils.getTargetClass(joinPoint.getTarget()).getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        QueryScope scope = QueryScopes.open(method);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            QueryScopes.close(scope);
+            DistributionSummary.builder("sql.method.statements")
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .record(scope.getStatements());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.worfwint.tabletoprpgmanager.common.sql;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the statements and database time of every request and publishes them per endpoint as
+ * {@code sql.request.statements} and {@code sql.request.time}, plus the rows read as
+ * {@code sql.request.rows} when row counting is enabled.
+ * <p>
+ * Requests running more statements than configured, or running the same statement shape repeatedly, are
+ * logged with the shape, since that usually means an association is loaded once per entity. Such
+ * requests are also counted in {@code sql.request.repeated}. Runs before the security filters so the
+ * statements of authentication are included.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueryMetricsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final SqlMonitoringProperties properties;
+
+    public QueryMetricsFilter(MeterRegistry meterRegistry, SqlMonitoringProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryScope scope = QueryScopes.open(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryScopes.close(scope);
+            publish(endpointOf(request), scope);
+        }
+    }
+
+    private void publish(String endpoint, QueryScope scope) {
+        DistributionSummary.builder("sql.request.statements")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(scope.getStatements());
+        if (properties.countRows()) {
+            DistributionSummary.builder("sql.request.rows")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry)
+                    .record(scope.getRows());
+        }
+        Timer.builder("sql.request.time")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(scope.getElapsedNanos(), TimeUnit.NANOSECONDS);
+
+        Map.Entry<String, Integer> repeated = scope.mostRepeated();
+        boolean repeating = repeated != null && repeated.getValue() >= properties.repeatedStatementThreshold();
+        if (repeating) {
+            meterRegistry.counter("sql.request.repeated", "endpoint", endpoint).increment();
+        }
+        if (!repeating && scope.getStatements() <= properties.statementThreshold()) {
+            return;
+        }
+        if (properties.countRows()) {
+            LOG.warn("{} ran {} statements reading {} rows; most repeated ({} times): {}",
+                    scope.getName(), scope.getStatements(), scope.getRows(),
+                    repeated.getValue(), repeated.getKey());
+        } else {
+            LOG.warn("{} ran {} statements; most repeated ({} times): {}",
+                    scope.getName(), scope.getStatements(), repeated.getValue(), repeated.getKey());
+        }
+    }
+
+    private String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // raw URIs would create a meter per identifier
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+    }
+}
@@ -0,0 +1,100 @@
+package com.worfwint.tabletoprpgmanager.common.sql;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Statements, rows and time spent in the database while a scope such as a request or a service method
+ * was open. Statements are also grouped by shape, the SQL with literals and {@code IN} lists collapsed,
+ * to spot the same statement running once per loaded entity.
+ * <p>
+ * A scope is only used by the thread that opened it.
+ */
+public class QueryScope {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String name;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int statements;
+    private long rows;
+    private long elapsedNanos;
+
+    QueryScope(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return what the scope covers, such as an endpoint or a method
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return number of executed statements, counting every statement of a batch
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return number of rows read through result sets
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return time spent executing statements, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return number of executions per statement shape
+     */
+    public Map<String, Integer> getShapes() {
+        return Map.copyOf(shapes);
+    }
+
+    /**
+     * Returns the shape executed most often.
+     *
+     * @return shape and number of executions, {@code null} when nothing was executed
+     */
+    public Map.Entry<String, Integer> mostRepeated() {
+        return shapes.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .orElse(null);
+    }
+
+    void recordStatement(String sql, long nanos) {
+        statements++;
+        elapsedNanos += nanos;
+        shapes.merge(shapeOf(sql), 1, Integer::sum);
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    /**
+     * Reduces a statement to its shape.
+     *
+     * @param sql statement text
+     * @return statement without literals, repeated placeholders and line breaks
+     */
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,55 @@
+package com.worfwint.tabletoprpgmanager.common.sql;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Scopes open on the current thread. A statement counts towards every open scope, so a request scope
+ * includes the statements of the service methods it called.
+ */
+public final class QueryScopes {
+
+    private static final ThreadLocal<Deque<QueryScope>> OPEN = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private QueryScopes() {
+    }
+
+    /**
+     * Opens a scope on the current thread. Every opened scope has to be passed to {@link #close(QueryScope)}.
+     *
+     * @param name what the scope covers
+     * @return new scope
+     */
+    public static QueryScope open(String name) {
+        QueryScope scope = new QueryScope(name);
+        OPEN.get().push(scope);
+        return scope;
+    }
+
+    /**
+     * Stops counting for a scope. Scopes opened after it and still open are closed as well.
+     *
+     * @param scope scope returned by {@link #open(String)}
+     */
+    public static void close(QueryScope scope) {
+        Deque<QueryScope> open = OPEN.get();
+        if (open.contains(scope)) {
+            while (open.pop() != scope) {
+                // drop scopes left open by inner code
+            }
+        }
+        if (open.isEmpty()) {
+            OPEN.remove();
+        }
+    }
+
+    static void forEachOpen(Consumer<QueryScope> action) {
+        Deque<QueryScope> open = OPEN.get();
+        if (open.isEmpty()) {
+            OPEN.remove();
+            return;
+        }
+        open.forEach(action);
+    }
+}
@@ -0,0 +1,34 @@
+package com.worfwint.tabletoprpgmanager.common.sql;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A captured slow statement.
+ *
+ * @param capturedAt  when the statement finished
+ * @param fingerprint identifier shared by all statements of the same shape
+ * @param statement   statement shape, without literals
+ * @param parameters  types of the bound parameters, values are not kept
+ * @param elapsedMillis execution time
+ * @param scope       request or service method that ran the statement, {@code null} outside of both
+ * @param plan        output of {@code EXPLAIN (FORMAT JSON)} on the primary, {@code null} when none was taken
+ * @param planError   why no plan is available, {@code null} when there is one
+ */
+public record SlowQuery(
+        Instant capturedAt,
+        String fingerprint,
+        String statement,
+        List<String> parameters,
+        long elapsedMillis,
+        String scope,
+        JsonNode plan,
+        String planError
+) {
+
+    SlowQuery withPlan(JsonNode plan, String planError) {
+        return new SlowQuery(capturedAt, fingerprint, statement, parameters, elapsedMillis, scope, plan, planError);
+    }
+}
@@ -0,0 +1,223 @@
+package com.worfwint.tabletoprpgmanager.common.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLane;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLaneRoutingDataSource;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLanes;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * Keeps the most recent slow statements together with their execution plans.
+ * <p>
+ * A statement slower than the threshold is recorded right away and explained afterwards on a background
+ * thread, with the same parameters, on a maintenance lane connection of the primary. {@code EXPLAIN}
+ * without {@code ANALYZE} does not execute the statement. Plans are rate limited; statements captured
+ * beyond the limit, and batches, are kept without one.
+ */
+@Component
+public class SlowQueryCapture implements QueryExecutionListener, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SlowQueryCapture.class);
+    private static final List<String> EXPLAINABLE = List.of("select", "with", "insert", "update", "delete");
+
+    private final PoolLaneRoutingDataSource primaryDataSource;
+    private final SlowQueryProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Deque<SlowQuery> captured = new ArrayDeque<>();
+    private final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), Thread.ofPlatform().name("slow-query-explain").daemon().factory());
+
+    private long windowStart;
+    private int explainsInWindow;
+
+    public SlowQueryCapture(PoolLaneRoutingDataSource primaryDataSource,
+                            SlowQueryProperties properties,
+                            ObjectMapper objectMapper) {
+        this.primaryDataSource = primaryDataSource;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return captured statements, slowest first
+     */
+    public List<SlowQuery> getCaptured() {
+        List<SlowQuery> snapshot;
+        synchronized (captured) {
+            snapshot = new ArrayList<>(captured);
+        }
+        snapshot.sort(Comparator.comparingLong(SlowQuery::elapsedMillis).reversed());
+        return snapshot;
+    }
+
+    /**
+     * Drops all captured statements.
+     */
+    public void clear() {
+        synchronized (captured) {
+            captured.clear();
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!properties.enabled() || execInfo.getElapsedTime() < properties.threshold().toMillis()) {
+            return;
+        }
+        boolean single = !execInfo.isBatch() && queryInfoList.size() == 1;
+        QueryInfo query = queryInfoList.get(0);
+        List<ParameterSetOperation> operations = query.getParametersList().isEmpty()
+                ? List.of()
+                : query.getParametersList().get(0);
+        String shape = QueryScope.shapeOf(query.getQuery());
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), Integer.toHexString(shape.hashCode()), shape,
+                operations.stream().map(SlowQueryCapture::describeParameter).toList(),
+                execInfo.getElapsedTime(), currentScope(), null, null);
+
+        if (!single) {
+            slowQuery = slowQuery.withPlan(null, "batches are not explained");
+        } else if (!isExplainable(query.getQuery())) {
+            slowQuery = slowQuery.withPlan(null, "statement type cannot be explained");
+        } else if (!acquireExplainPermit()) {
+            slowQuery = slowQuery.withPlan(null, "explain rate limit reached");
+        } else {
+            SlowQuery pending = slowQuery;
+            try {
+                explainer.execute(PoolLanes.wrap(PoolLane.MAINTENANCE,
+                        () -> explain(pending, query.getQuery(), operations)));
+            } catch (RejectedExecutionException ex) {
+                slowQuery = slowQuery.withPlan(null, "explain queue is full");
+            }
+        }
+        add(slowQuery);
+    }
+
+    private void explain(SlowQuery slowQuery, String sql, List<ParameterSetOperation> operations) {
+        SlowQuery explained;
+        try (Connection connection = primaryDataSource.getConnection()) {
+            connection.setReadOnly(true);
+            explained = slowQuery.withPlan(explain(connection, sql, operations), null);
+        } catch (SQLException | JsonProcessingException ex) {
+            LOG.debug("Could not explain slow statement {}: {}", slowQuery.fingerprint(), ex.getMessage());
+            explained = slowQuery.withPlan(null, ex.getMessage());
+        }
+        replace(slowQuery, explained);
+    }
+
+    private JsonNode explain(Connection connection, String sql, List<ParameterSetOperation> operations)
+            throws SQLException, JsonProcessingException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+            statement.setQueryTimeout((int) Math.max(1, properties.explainTimeout().toSeconds()));
+            int position = 0;
+            for (ParameterSetOperation operation : operations) {
+                Object[] args = operation.getArgs();
+                int index = args[0] instanceof Integer parameterIndex ? parameterIndex : ++position;
+                position = index;
+                statement.setObject(index, valueOf(operation));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return objectMapper.readTree(resultSet.getString(1));
+            }
+        }
+    }
+
+    private void add(SlowQuery slowQuery) {
+        synchronized (captured) {
+            captured.addLast(slowQuery);
+            while (captured.size() > properties.capacity()) {
+                captured.removeFirst();
+            }
+        }
+    }
+
+    private void replace(SlowQuery original, SlowQuery updated) {
+        synchronized (captured) {
+            // the entry may already have been pushed out by newer ones
+            if (captured.removeFirstOccurrence(original)) {
+                captured.addLast(updated);
+            }
+        }
+    }
+
+    private synchronized boolean acquireExplainPermit() {
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= TimeUnit.MINUTES.toMillis(1)) {
+            windowStart = now;
+            explainsInWindow = 0;
+        }
+        if (explainsInWindow >= properties.explainsPerMinute()) {
+            return false;
+        }
+        explainsInWindow++;
+        return true;
+    }
+
+    private static boolean isExplainable(String sql) {
+        String start = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return EXPLAINABLE.stream().anyMatch(start::startsWith);
+    }
+
+    private static Object valueOf(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        // setNull passes the SQL type where other setters pass the value
+        if ("setNull".equals(operation.getMethod().getName()) || args.length < 2) {
+            return null;
+        }
+        return args[1];
+    }
+
+    private static String describeParameter(ParameterSetOperation operation) {
+        Object value = valueOf(operation);
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof CharSequence text) {
+            return "String(" + text.length() + ")";
+        }
+        return value.getClass().getSimpleName();
+    }
+
+    private static String currentScope() {
+        String[] name = new String[1];
+        // the outermost scope names the request
+        QueryScopes.forEachOpen(scope -> name[0] = scope.getName());
+        return name[0];
+    }
+
+    @Override
+    public void destroy() {
+        explainer.shutdownNow();
+    }
+}
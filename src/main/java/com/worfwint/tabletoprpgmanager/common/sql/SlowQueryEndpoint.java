@@ -0,0 +1,38 @@
+package com.worfwint.tabletoprpgmanager.common.sql;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes captured slow statements and their plans at {@code /actuator/slowqueries}.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryCapture capture;
+
+    public SlowQueryEndpoint(SlowQueryCapture capture) {
+        this.capture = capture;
+    }
+
+    /**
+     * @return captured statements, slowest first
+     */
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return capture.getCaptured();
+    }
+
+    /**
+     * Drops all captured statements, for example after a fix was deployed.
+     */
+    @DeleteOperation
+    public void clear() {
+        capture.clear();
+    }
+}
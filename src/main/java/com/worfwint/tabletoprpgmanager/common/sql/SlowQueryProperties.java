@@ -0,0 +1,29 @@
+package com.worfwint.tabletoprpgmanager.common.sql;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+
+/**
+ * Settings of slow statement capture.
+ *
+ * @param enabled           whether slow statements are captured
+ * @param threshold         execution time from which a statement counts as slow
+ * @param capacity          number of captured statements kept, older ones are dropped
+ * @param explainsPerMinute plans requested per minute at most, slow statements beyond that are kept
+ *                          without a plan
+ * @param explainTimeout    time limit of a single {@code EXPLAIN}
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.sql.slow-queries")
+public record SlowQueryProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("500ms") Duration threshold,
+        @DefaultValue("50") @Min(1) int capacity,
+        @DefaultValue("6") @Min(0) int explainsPerMinute,
+        @DefaultValue("5s") Duration explainTimeout
+) {}
@@ -0,0 +1,29 @@
+package com.worfwint.tabletoprpgmanager.common.sql;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+
+/**
+ * Settings of per-request statement counting.
+ *
+ * @param enabled                    whether statements are counted at all
+ * @param statementThreshold         statements per request above which a warning is logged
+ * @param repeatedStatementThreshold executions of one statement shape per request from which the request
+ *                                   is reported as a likely N+1 query
+ * @param serviceMethods             whether statement counts are also published per service method
+ * @param countRows                  whether rows read through result sets are counted as well; this proxies
+ *                                   every result set and intercepts each of its calls, so it is meant for
+ *                                   profiling rather than production
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.sql.monitoring")
+public record SqlMonitoringProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("50") @Min(1) int statementThreshold,
+        @DefaultValue("10") @Min(2) int repeatedStatementThreshold,
+        @DefaultValue("true") boolean serviceMethods,
+        @DefaultValue("false") boolean countRows
+) {}
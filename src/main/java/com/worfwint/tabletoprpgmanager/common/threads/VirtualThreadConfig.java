@@ -0,0 +1,26 @@
+package com.worfwint.tabletoprpgmanager.common.threads;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Diagnostics active while requests and scheduled jobs run on virtual threads.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@EnableConfigurationProperties(VirtualThreadProperties.class)
+public class VirtualThreadConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.threads.virtual", name = "pinning-detection", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(VirtualThreadProperties properties,
+                                                                   MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,91 @@
+package com.worfwint.tabletoprpgmanager.common.threads;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event, raised when a virtual thread blocks while it
+ * cannot unmount from its carrier, for example inside a {@code synchronized} block or a native frame.
+ * <p>
+ * Every pinning is timed in {@code jvm.threads.virtual.pinned}, tagged with the first application
+ * frame of the stack, or the first frame when the application is not involved. The full stack of each
+ * new location is logged once.
+ */
+public class VirtualThreadPinningMonitor implements InitializingBean, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.worfwint.tabletoprpgmanager.";
+
+    private final VirtualThreadProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> reportedLocations = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(VirtualThreadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(properties.pinningThreshold()).withStackTrace();
+        stream.onEvent(EVENT, this::record);
+        stream.startAsync();
+    }
+
+    private void record(RecordedEvent event) {
+        String location = locationOf(event);
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads blocked while pinned to their carrier thread")
+                .tag("location", location)
+                .register(meterRegistry)
+                .record(event.getDuration());
+        if (reportedLocations.add(location)) {
+            LOG.warn("Virtual thread pinned for {} ms at {}:\n{}", event.getDuration().toMillis(), location,
+                    stackOf(event));
+        }
+    }
+
+    private static String locationOf(RecordedEvent event) {
+        if (event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame location = event.getStackTrace().getFrames().stream()
+                .filter(frame -> frame.isJavaFrame()
+                        && frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+                .findFirst()
+                .orElse(event.getStackTrace().getFrames().get(0));
+        return location.getMethod().getType().getName() + "." + location.getMethod().getName();
+    }
+
+    private static String stackOf(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "  (no stack trace)";
+        }
+        return event.getStackTrace().getFrames().stream()
+                .map(frame -> "  at " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+
+    @Override
+    public void destroy() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.worfwint.tabletoprpgmanager.common.threads;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Settings of virtual thread diagnostics, used while {@code spring.threads.virtual.enabled} is set.
+ *
+ * @param pinningDetection  whether pinned virtual threads are recorded through JFR
+ * @param pinningThreshold  shortest pinning that is recorded
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.threads.virtual")
+public record VirtualThreadProperties(
+        @DefaultValue("true") boolean pinningDetection,
+        @DefaultValue("20ms") Duration pinningThreshold
+) {}
@@ -0,0 +1,38 @@
+package com.worfwint.tabletoprpgmanager.news.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLane;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLanes;
+
+/**
+ * Defines the bounded executor used to render article Markdown outside of request threads.
+ */
+@Configuration
+@EnableConfigurationProperties(NewsRenderingProperties.class)
+public class NewsRenderingConfig {
+
+    /**
+     * Creates a fixed-size executor with a bounded queue. Tasks submitted while the queue is full are
+     * rejected and picked up later by the backfill job. Tasks use the maintenance pool lane. Rendering is
+     * CPU-bound, so these stay platform threads even when {@code spring.threads.virtual.enabled} is set.
+     *
+     * @param properties rendering settings
+     * @return executor dedicated to Markdown rendering
+     */
+    @Bean
+    public ThreadPoolTaskExecutor newsRenderingExecutor(NewsRenderingProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.poolSize());
+        executor.setMaxPoolSize(properties.poolSize());
+        executor.setQueueCapacity(properties.queueCapacity());
+        executor.setThreadNamePrefix("news-render-");
+        executor.setTaskDecorator(task -> PoolLanes.wrap(PoolLane.MAINTENANCE, task));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
@@ -0,0 +1,26 @@
+package com.worfwint.tabletoprpgmanager.news.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Settings for write-time Markdown rendering of news article content.
+ *
+ * @param poolSize          number of threads rendering article content
+ * @param queueCapacity     maximum number of render tasks waiting for a thread
+ * @param backfillBatchSize number of articles loaded per backfill batch
+ * @param columnCompression optional PostgreSQL column compression ({@code pglz} or {@code lz4}) applied to the
+ *                          source and rendered content columns, blank keeps the database default
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.news.rendering")
+public record NewsRenderingProperties(
+        @DefaultValue("2") @Min(1) int poolSize,
+        @DefaultValue("100") @Min(1) int queueCapacity,
+        @DefaultValue("50") @Min(1) int backfillBatchSize,
+        @DefaultValue("") @Pattern(regexp = "|pglz|lz4") String columnCompression
+) {}
@@ -0,0 +1,20 @@
+package com.worfwint.tabletoprpgmanager.news.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+
+/**
+ * Request payload confirming that a presigned image upload has completed.
+ */
+@Getter
+public class ConfirmNewsImageUploadRequest {
+
+    @NotBlank(message = "Object key is required")
+    @Size(max = 512, message = "Object key must be 512 characters or fewer")
+    private String key;
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+}
@@ -0,0 +1,39 @@
+package com.worfwint.tabletoprpgmanager.news.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+
+/**
+ * Request payload describing an image the client is about to upload directly to storage.
+ */
+@Getter
+public class CreateNewsImageUploadRequest {
+
+    @NotBlank(message = "Content type is required")
+    @Size(max = 100, message = "Content type must be 100 characters or fewer")
+    private String contentType;
+
+    @NotNull(message = "Content length is required")
+    @Positive(message = "Content length must be greater than 0")
+    private Long contentLength;
+
+    @NotBlank(message = "Checksum is required")
+    @Pattern(regexp = "^[A-Za-z0-9+/]{43}=$", message = "Checksum must be a Base64 encoded SHA-256 digest")
+    private String checksumSha256;
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public void setContentLength(Long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public void setChecksumSha256(String checksumSha256) {
+        this.checksumSha256 = checksumSha256;
+    }
+}
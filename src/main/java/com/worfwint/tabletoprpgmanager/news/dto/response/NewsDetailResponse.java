@@ -1,6 +1,7 @@
 package com.worfwint.tabletoprpgmanager.news.dto.response;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -18,8 +19,13 @@ public class NewsDetailResponse {
     private final String summary;
     @Schema(description = "URL pointing to the article image", nullable = true)
     private final String imageUrl;
+    @Schema(description = "Resized copies of the article image ordered by width, empty while they are being generated")
+    private final List<NewsImageVariantResponse> imageVariants;
     @Schema(description = "Full article contents in Markdown format")
     private final String content;
+    @Schema(description = "Article contents pre-rendered to sanitized HTML, absent while rendering is pending",
+            nullable = true)
+    private final String contentHtml;
     @Schema(description = "Timestamp when the article was created")
     private final LocalDateTime createdAt;
     @Schema(description = "Timestamp of the latest update")
@@ -37,7 +43,9 @@ public class NewsDetailResponse {
                               String title,
                               String summary,
                               String imageUrl,
+                              List<NewsImageVariantResponse> imageVariants,
                               String content,
+                              String contentHtml,
                               LocalDateTime createdAt,
                               LocalDateTime updatedAt,
                               long likeCount,
@@ -48,7 +56,9 @@ public class NewsDetailResponse {
         this.title = title;
         this.summary = summary;
         this.imageUrl = imageUrl;
+        this.imageVariants = imageVariants;
         this.content = content;
+        this.contentHtml = contentHtml;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
         this.likeCount = likeCount;
@@ -73,10 +83,18 @@ public class NewsDetailResponse {
         return imageUrl;
     }
 
+    public List<NewsImageVariantResponse> getImageVariants() {
+        return imageVariants;
+    }
+
     public String getContent() {
         return content;
     }
 
+    public String getContentHtml() {
+        return contentHtml;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -100,4 +118,15 @@ public class NewsDetailResponse {
     public NewsAuthorResponse getAuthor() {
         return author;
     }
+
+    /**
+     * Returns a copy of this response for a viewer with the given like status.
+     *
+     * @param likedByCurrentUser whether the viewer has liked the article
+     * @return response for the viewer
+     */
+    public NewsDetailResponse withLikedByCurrentUser(boolean likedByCurrentUser) {
+        return new NewsDetailResponse(id, title, summary, imageUrl, imageVariants, content, contentHtml,
+                createdAt, updatedAt, likeCount, commentCount, likedByCurrentUser, author);
+    }
 }
@@ -0,0 +1,66 @@
+package com.worfwint.tabletoprpgmanager.news.dto.response;
+
+import java.time.Instant;
+import java.util.Map;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Response model describing a presigned request for uploading an article image directly to storage.
+ */
+@Schema(description = "Presigned request the client uses to upload an article image directly to object storage.")
+public class NewsImageUploadUrlResponse {
+
+    @Schema(description = "Whether the image has to be uploaded; false when identical content is already stored "
+            + "and the key can be confirmed right away")
+    private final boolean uploadRequired;
+    @Schema(description = "Presigned URL the image has to be sent to, absent when no upload is required",
+            nullable = true)
+    private final String uploadUrl;
+    @Schema(description = "HTTP method to use for the upload")
+    private final String method;
+    @Schema(description = "Headers that must be sent unchanged with the upload")
+    private final Map<String, String> headers;
+    @Schema(description = "Object key to pass to the confirmation call once the upload has finished")
+    private final String key;
+    @Schema(description = "Moment after which the presigned URL expires", nullable = true)
+    private final Instant expiresAt;
+
+    public NewsImageUploadUrlResponse(boolean uploadRequired,
+                                      String uploadUrl,
+                                      String method,
+                                      Map<String, String> headers,
+                                      String key,
+                                      Instant expiresAt) {
+        this.uploadRequired = uploadRequired;
+        this.uploadUrl = uploadUrl;
+        this.method = method;
+        this.headers = headers;
+        this.key = key;
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isUploadRequired() {
+        return uploadRequired;
+    }
+
+    public String getUploadUrl() {
+        return uploadUrl;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
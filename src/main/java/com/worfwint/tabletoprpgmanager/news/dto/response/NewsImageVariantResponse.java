@@ -0,0 +1,28 @@
+package com.worfwint.tabletoprpgmanager.news.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Response model describing a resized copy of an article image.
+ */
+@Schema(description = "Resized copy of the article image; clients pick the smallest one covering their layout width.")
+public class NewsImageVariantResponse {
+
+    @Schema(description = "Width of the variant in pixels", example = "768")
+    private final int width;
+    @Schema(description = "URL of the variant")
+    private final String url;
+
+    public NewsImageVariantResponse(int width, String url) {
+        this.width = width;
+        this.url = url;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+}
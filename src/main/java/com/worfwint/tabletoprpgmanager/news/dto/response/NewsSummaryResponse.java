@@ -1,6 +1,7 @@
 package com.worfwint.tabletoprpgmanager.news.dto.response;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -16,6 +17,10 @@ public class NewsSummaryResponse {
     private final String title;
     @Schema(description = "Short teaser displayed alongside the title")
     private final String summary;
+    @Schema(description = "URL pointing to the original article image", nullable = true)
+    private final String imageUrl;
+    @Schema(description = "Resized copies of the article image ordered by width, empty while they are being generated")
+    private final List<NewsImageVariantResponse> imageVariants;
     @Schema(description = "Timestamp when the article was created")
     private final LocalDateTime createdAt;
     @Schema(description = "Timestamp of the latest update")
@@ -32,6 +37,8 @@ public class NewsSummaryResponse {
     public NewsSummaryResponse(Long id,
                                String title,
                                String summary,
+                               String imageUrl,
+                               List<NewsImageVariantResponse> imageVariants,
                                LocalDateTime createdAt,
                                LocalDateTime updatedAt,
                                long likeCount,
@@ -41,6 +48,8 @@ public class NewsSummaryResponse {
         this.id = id;
         this.title = title;
         this.summary = summary;
+        this.imageUrl = imageUrl;
+        this.imageVariants = imageVariants;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
         this.likeCount = likeCount;
@@ -61,6 +70,14 @@ public class NewsSummaryResponse {
         return summary;
     }
 
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public List<NewsImageVariantResponse> getImageVariants() {
+        return imageVariants;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -1,18 +1,18 @@
 package com.worfwint.tabletoprpgmanager.news.entity;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 
 import com.worfwint.tabletoprpgmanager.user.entity.User;
-import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.SQLRestriction;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
-import jakarta.persistence.CascadeType;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
@@ -20,21 +20,32 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
-import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 /**
  * Represents a news article published through the application.
+ * <p>
+ * Comments and likes are removed by {@code ON DELETE CASCADE} foreign keys rather than loaded and
+ * deleted by the ORM. Articles waiting for chunked deletion are hidden from every entity query.
+ * Like and comment counts are not mapped, so the entity can live in the second-level cache without going
+ * stale on every like.
  */
 @Entity
-@Table(name = "news_articles")
+@Table(name = "news_articles",
+       indexes = @Index(name = "idx_news_articles_author", columnList = "author_id"))
+@SQLRestriction("deletion_requested_at IS NULL")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "news_articles")
 @EntityListeners(AuditingEntityListener.class)
 public class NewsArticle {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "news_articles_seq")
+    @SequenceGenerator(name = "news_articles_seq", sequenceName = "news_articles_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 200)
@@ -46,11 +57,18 @@ public class NewsArticle {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
 
+    @Column(name = "content_html", columnDefinition = "TEXT")
+    private String contentHtml;
+
     @Column(name = "image_url", length = 1024)
     private String imageUrl;
 
+    @Column(name = "image_variants", length = 255)
+    private String imageVariants;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "author_id", nullable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private User author;
 
     @CreatedDate
@@ -61,17 +79,8 @@ public class NewsArticle {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    @OneToMany(mappedBy = "article", cascade = CascadeType.ALL, orphanRemoval = true)
-    private List<NewsComment> comments = new ArrayList<>();
-
-    @OneToMany(mappedBy = "article", cascade = CascadeType.ALL, orphanRemoval = true)
-    private Set<NewsLike> likes = new HashSet<>();
-
-    @Formula("(SELECT COUNT(*) FROM news_likes nl WHERE nl.article_id = id)")
-    private long likeCount;
-
-    @Formula("(SELECT COUNT(*) FROM news_comments nc WHERE nc.article_id = id)")
-    private long commentCount;
+    @Column(name = "deletion_requested_at")
+    private LocalDateTime deletionRequestedAt;
 
     public Long getId() {
         return id;
@@ -105,6 +114,14 @@ public class NewsArticle {
         this.content = content;
     }
 
+    public String getContentHtml() {
+        return contentHtml;
+    }
+
+    public void setContentHtml(String contentHtml) {
+        this.contentHtml = contentHtml;
+    }
+
     public String getImageUrl() {
         return imageUrl;
     }
@@ -113,6 +130,14 @@ public class NewsArticle {
         this.imageUrl = imageUrl;
     }
 
+    public String getImageVariants() {
+        return imageVariants;
+    }
+
+    public void setImageVariants(String imageVariants) {
+        this.imageVariants = imageVariants;
+    }
+
     public User getAuthor() {
         return author;
     }
@@ -137,27 +162,7 @@ public class NewsArticle {
         this.updatedAt = updatedAt;
     }
 
-    public List<NewsComment> getComments() {
-        return comments;
-    }
-
-    public void setComments(List<NewsComment> comments) {
-        this.comments = comments;
-    }
-
-    public Set<NewsLike> getLikes() {
-        return likes;
-    }
-
-    public void setLikes(Set<NewsLike> likes) {
-        this.likes = likes;
-    }
-
-    public long getLikeCount() {
-        return likeCount;
-    }
-
-    public long getCommentCount() {
-        return commentCount;
+    public LocalDateTime getDeletionRequestedAt() {
+        return deletionRequestedAt;
     }
 }
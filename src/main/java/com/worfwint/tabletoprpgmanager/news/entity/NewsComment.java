@@ -3,12 +3,17 @@ package com.worfwint.tabletoprpgmanager.news.entity;
 import java.time.LocalDateTime;
 
 import com.worfwint.tabletoprpgmanager.user.entity.User;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.envers.Audited;
 import org.hibernate.envers.RelationTargetAuditMode;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
@@ -16,30 +21,41 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 /**
  * Represents a comment left on a news article.
  */
 @Entity
-@Table(name = "news_comments")
+@Table(name = "news_comments",
+       indexes = {
+               @Index(name = "idx_news_comments_article", columnList = "article_id"),
+               @Index(name = "idx_news_comments_author", columnList = "author_id")
+       })
 // @Audited
 @Audited(targetAuditMode = RelationTargetAuditMode.NOT_AUDITED)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "news_comments")
 @EntityListeners(AuditingEntityListener.class)
 public class NewsComment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "news_comments_seq")
+    @SequenceGenerator(name = "news_comments_seq", sequenceName = "news_comments_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "article_id", nullable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private NewsArticle article;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "author_id", nullable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private User author;
 
     @Column(nullable = false, columnDefinition = "TEXT")
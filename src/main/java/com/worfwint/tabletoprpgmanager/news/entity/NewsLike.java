@@ -3,6 +3,8 @@ package com.worfwint.tabletoprpgmanager.news.entity;
 import java.time.LocalDateTime;
 
 import com.worfwint.tabletoprpgmanager.user.entity.User;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.envers.Audited;
 import org.hibernate.envers.RelationTargetAuditMode;
 import org.springframework.data.annotation.CreatedDate;
@@ -15,8 +17,10 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 
@@ -26,22 +30,26 @@ import jakarta.persistence.UniqueConstraint;
 @Entity
 @Table(name = "news_likes",
        uniqueConstraints = @UniqueConstraint(name = "uc_news_like_article_user",
-               columnNames = {"article_id", "user_id"}))
+               columnNames = {"article_id", "user_id"}),
+       indexes = @Index(name = "idx_news_likes_user", columnList = "user_id"))
 // @Audited
 @Audited(targetAuditMode = RelationTargetAuditMode.NOT_AUDITED)
 @EntityListeners(AuditingEntityListener.class)
 public class NewsLike {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "news_likes_seq")
+    @SequenceGenerator(name = "news_likes_seq", sequenceName = "news_likes_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "article_id", nullable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private NewsArticle article;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private User user;
 
     @CreatedDate
@@ -1,27 +1,61 @@
 package com.worfwint.tabletoprpgmanager.news.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
 
 import com.worfwint.tabletoprpgmanager.news.entity.NewsArticle;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleContentView;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleCountsView;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleImageView;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleSummaryView;
 
 /**
  * Repository providing persistence operations for news articles.
  */
-public interface NewsArticleRepository extends JpaRepository<NewsArticle, Long> {
+public interface NewsArticleRepository extends JpaRepository<NewsArticle, Long>, NewsArticleRepositoryCustom {
 
     /**
-     * Returns a paginated list of news articles ordered by newest first.
+     * Returns a paginated list of article summaries ordered by newest first.
+     * <p>
+     * Only the columns required for feed listings are selected, so the article body is never loaded.
      *
      * @param pageable paging configuration
-     * @return page containing the requested slice of articles
+     * @return page containing the requested slice of article summaries
      */
-    @EntityGraph(attributePaths = "author")
-    Page<NewsArticle> findAllByOrderByCreatedAtDesc(Pageable pageable);
+    @Query(value = """
+        SELECT a.id AS id,
+               a.title AS title,
+               a.summary AS summary,
+               a.createdAt AS createdAt,
+               a.updatedAt AS updatedAt,
+               a.imageUrl AS imageUrl,
+               a.imageVariants AS imageVariants,
+               (SELECT COUNT(nl) FROM NewsLike nl WHERE nl.article = a) AS likeCount,
+               (SELECT COUNT(nc) FROM NewsComment nc WHERE nc.article = a) AS commentCount,
+               au.id AS authorId,
+               au.username AS authorUsername,
+               au.displayName AS authorDisplayName,
+               au.avatarUrl AS authorAvatarUrl
+        FROM NewsArticle a
+        JOIN a.author au
+        ORDER BY a.createdAt DESC
+    """,
+           countQuery = "SELECT COUNT(a) FROM NewsArticle a")
+    Page<NewsArticleSummaryView> findSummariesByOrderByCreatedAtDesc(Pageable pageable);
 
     /**
      * Retrieves a specific article ensuring the author is eagerly loaded.
@@ -32,4 +66,167 @@ public interface NewsArticleRepository extends JpaRepository<NewsArticle, Long>
     @Override
     @EntityGraph(attributePaths = "author")
     Optional<NewsArticle> findById(Long id);
+
+    /**
+     * Returns articles that have no rendered HTML yet, ordered by identifier for keyset pagination.
+     *
+     * @param afterId identifier after which to continue scanning
+     * @param pageable limit of the batch
+     * @return batch of article sources awaiting rendering
+     */
+    @Query("""
+        SELECT a.id AS id, a.content AS content
+        FROM NewsArticle a
+        WHERE a.contentHtml IS NULL
+          AND a.id > :afterId
+        ORDER BY a.id
+    """)
+    List<NewsArticleContentView> findUnrenderedAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Returns the variant tokens recorded for the given image by any article.
+     *
+     * @param imageUrl image URL
+     * @param pageable limit of the result
+     * @return recorded variant tokens
+     */
+    @Query("""
+        SELECT a.imageVariants
+        FROM NewsArticle a
+        WHERE a.imageUrl = :imageUrl
+          AND a.imageVariants IS NOT NULL
+    """)
+    List<String> findImageVariantsByImageUrl(@Param("imageUrl") String imageUrl, Pageable pageable);
+
+    /**
+     * Returns a batch of articles with an image whose variants have not been generated yet.
+     *
+     * @param afterId identifier after which to continue scanning
+     * @param pageable limit of the batch
+     * @return batch of article images awaiting variant generation
+     */
+    @Query("""
+        SELECT a.id AS id, a.imageUrl AS imageUrl, a.imageVariants AS imageVariants
+        FROM NewsArticle a
+        WHERE a.imageUrl IS NOT NULL
+          AND a.imageVariants IS NULL
+          AND a.id > :afterId
+        ORDER BY a.id
+    """)
+    List<NewsArticleImageView> findImagesWithoutVariantsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Returns the images and variants currently attached to the given articles.
+     *
+     * @param articleIds identifiers of the articles
+     * @return images of the articles that exist and have an image
+     */
+    @Query("""
+        SELECT a.id AS id, a.imageUrl AS imageUrl, a.imageVariants AS imageVariants
+        FROM NewsArticle a
+        WHERE a.id IN :articleIds
+          AND a.imageUrl IS NOT NULL
+    """)
+    List<NewsArticleImageView> findImagesByIdIn(@Param("articleIds") Collection<Long> articleIds);
+
+    /**
+     * Counts the likes and comments of an article. Kept out of the entity so cached articles do not
+     * carry stale counts.
+     *
+     * @param articleId identifier of the article
+     * @return like and comment counts
+     */
+    @Query("""
+        SELECT (SELECT COUNT(nl) FROM NewsLike nl WHERE nl.article.id = :articleId) AS likeCount,
+               (SELECT COUNT(nc) FROM NewsComment nc WHERE nc.article.id = :articleId) AS commentCount
+        FROM NewsArticle a
+        WHERE a.id = :articleId
+    """)
+    NewsArticleCountsView findCountsById(@Param("articleId") Long articleId);
+
+    /**
+     * Returns the images of the active articles written by the given user.
+     *
+     * @param authorId identifier of the author
+     * @return images of the author's articles that have one
+     */
+    @Query("""
+        SELECT a.id AS id, a.imageUrl AS imageUrl, a.imageVariants AS imageVariants
+        FROM NewsArticle a
+        WHERE a.author.id = :authorId
+          AND a.imageUrl IS NOT NULL
+    """)
+    List<NewsArticleImageView> findImagesByAuthorId(@Param("authorId") Long authorId);
+
+    /**
+     * Deletes an article row without loading it. Comments and likes are removed by the database cascade.
+     *
+     * @param articleId identifier of the article
+     * @return number of deleted rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "news_articles"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "news_comments")
+    })
+    @Query(value = "DELETE FROM news_articles WHERE id = :articleId", nativeQuery = true)
+    int deleteDirectlyById(@Param("articleId") Long articleId);
+
+    /**
+     * Hides an article from every entity query until the deletion job removes it.
+     *
+     * @param articleId identifier of the article
+     * @param requestedAt time of the deletion request
+     * @return number of updated rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "news_articles"))
+    @Query(value = """
+        UPDATE news_articles
+        SET deletion_requested_at = :requestedAt
+        WHERE id = :articleId
+          AND deletion_requested_at IS NULL
+    """, nativeQuery = true)
+    int markForDeletion(@Param("articleId") Long articleId, @Param("requestedAt") LocalDateTime requestedAt);
+
+    /**
+     * Hides all articles of the given author until the deletion job removes them.
+     *
+     * @param authorId identifier of the author
+     * @param requestedAt time of the deletion request
+     * @return number of updated rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "news_articles"))
+    @Query(value = """
+        UPDATE news_articles
+        SET deletion_requested_at = :requestedAt
+        WHERE author_id = :authorId
+          AND deletion_requested_at IS NULL
+    """, nativeQuery = true)
+    int markAuthoredForDeletion(@Param("authorId") Long authorId, @Param("requestedAt") LocalDateTime requestedAt);
+
+    /**
+     * Returns identifiers of articles waiting for the deletion job, oldest requests first.
+     *
+     * @param limit maximum number of identifiers
+     * @return identifiers of pending articles
+     */
+    @Query(value = """
+        SELECT id
+        FROM news_articles
+        WHERE deletion_requested_at IS NOT NULL
+        ORDER BY deletion_requested_at
+        LIMIT :limit
+    """, nativeQuery = true)
+    List<Long> findPendingDeletionIds(@Param("limit") int limit);
+
+    /**
+     * Checks whether the given user still authors any article, including articles pending deletion.
+     *
+     * @param authorId identifier of the author
+     * @return {@code true} if at least one article row remains
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM news_articles WHERE author_id = :authorId)", nativeQuery = true)
+    boolean existsAnyByAuthorId(@Param("authorId") Long authorId);
 }
@@ -0,0 +1,32 @@
+package com.worfwint.tabletoprpgmanager.news.repository;
+
+/**
+ * Single column updates of news articles that bypass Hibernate's bulk update handling.
+ * <p>
+ * Hibernate clears the whole {@code news_articles} cache region after a JPQL or native bulk update, and
+ * the clear is broadcast to every node. These updates run over JDBC instead and evict only the updated
+ * article once the transaction commits.
+ */
+public interface NewsArticleRepositoryCustom {
+
+    /**
+     * Stores pre-rendered HTML for an article, provided the Markdown source has not changed since rendering.
+     *
+     * @param id identifier of the article
+     * @param source Markdown source the HTML was rendered from
+     * @param contentHtml sanitized HTML rendering of the source
+     * @return number of updated rows, {@code 0} when the article was modified or removed meanwhile
+     */
+    int updateRenderedContent(Long id, String source, String contentHtml);
+
+    /**
+     * Stores the variant tokens generated for an image, provided the article still uses that image and
+     * is not pending deletion.
+     *
+     * @param articleId identifier of the article
+     * @param imageUrl image URL the variants were generated from
+     * @param imageVariants comma separated variant tokens, empty when no variants could be generated
+     * @return number of updated rows
+     */
+    int updateImageVariants(Long articleId, String imageUrl, String imageVariants);
+}
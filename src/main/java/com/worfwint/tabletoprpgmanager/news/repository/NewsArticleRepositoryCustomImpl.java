@@ -0,0 +1,64 @@
+package com.worfwint.tabletoprpgmanager.news.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import com.worfwint.tabletoprpgmanager.news.entity.NewsArticle;
+
+/**
+ * JDBC implementation of {@link NewsArticleRepositoryCustom}.
+ */
+public class NewsArticleRepositoryCustomImpl implements NewsArticleRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public NewsArticleRepositoryCustomImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public int updateRenderedContent(Long id, String source, String contentHtml) {
+        int rows = jdbcTemplate.update("""
+            UPDATE news_articles
+            SET content_html = ?
+            WHERE id = ?
+              AND content = ?
+        """, contentHtml, id, source);
+        evictAfterCommit(id, rows);
+        return rows;
+    }
+
+    @Override
+    public int updateImageVariants(Long articleId, String imageUrl, String imageVariants) {
+        int rows = jdbcTemplate.update("""
+            UPDATE news_articles
+            SET image_variants = ?
+            WHERE id = ?
+              AND image_url = ?
+              AND deletion_requested_at IS NULL
+        """, imageVariants, articleId, imageUrl);
+        evictAfterCommit(articleId, rows);
+        return rows;
+    }
+
+    private void evictAfterCommit(Long id, int rows) {
+        if (rows == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entityManagerFactory.getCache().evict(NewsArticle.class, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.getCache().evict(NewsArticle.class, id);
+            }
+        });
+    }
+}
@@ -1,9 +1,16 @@
 package com.worfwint.tabletoprpgmanager.news.repository;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
 
 import com.worfwint.tabletoprpgmanager.news.entity.NewsComment;
 
@@ -31,4 +38,34 @@ public interface NewsCommentRepository extends JpaRepository<NewsComment, Long>
      */
     @EntityGraph(attributePaths = "author")
     java.util.Optional<NewsComment> findByIdAndArticleId(Long commentId, Long articleId);
+
+    /**
+     * Deletes up to {@code limit} comments of the given article without loading them.
+     *
+     * @param articleId identifier of the article
+     * @param limit maximum number of rows to delete
+     * @return number of deleted rows
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "news_comments"))
+    @Query(value = """
+        DELETE FROM news_comments
+        WHERE id IN (SELECT id FROM news_comments WHERE article_id = :articleId LIMIT :limit)
+    """, nativeQuery = true)
+    int deleteChunkByArticleId(@Param("articleId") Long articleId, @Param("limit") int limit);
+
+    /**
+     * Deletes up to {@code limit} comments written by the given user without loading them.
+     *
+     * @param authorId identifier of the author
+     * @param limit maximum number of rows to delete
+     * @return number of deleted rows
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "news_comments"))
+    @Query(value = """
+        DELETE FROM news_comments
+        WHERE id IN (SELECT id FROM news_comments WHERE author_id = :authorId LIMIT :limit)
+    """, nativeQuery = true)
+    int deleteChunkByAuthorId(@Param("authorId") Long authorId, @Param("limit") int limit);
 }
@@ -4,10 +4,15 @@ import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+
 import com.worfwint.tabletoprpgmanager.news.entity.NewsLike;
 
 /**
@@ -63,4 +68,34 @@ public interface NewsLikeRepository extends JpaRepository<NewsLike, Long> {
     """)
     Set<Long> findArticleIdsLikedByUser(@Param("userId") Long userId,
                                         @Param("articleIds") Collection<Long> articleIds);
+
+    /**
+     * Deletes up to {@code limit} likes of the given article without loading them.
+     *
+     * @param articleId article identifier
+     * @param limit maximum number of rows to delete
+     * @return number of deleted rows
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "news_likes"))
+    @Query(value = """
+        DELETE FROM news_likes
+        WHERE id IN (SELECT id FROM news_likes WHERE article_id = :articleId LIMIT :limit)
+    """, nativeQuery = true)
+    int deleteChunkByArticleId(@Param("articleId") Long articleId, @Param("limit") int limit);
+
+    /**
+     * Deletes up to {@code limit} likes left by the given user without loading them.
+     *
+     * @param userId user identifier
+     * @param limit maximum number of rows to delete
+     * @return number of deleted rows
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "news_likes"))
+    @Query(value = """
+        DELETE FROM news_likes
+        WHERE id IN (SELECT id FROM news_likes WHERE user_id = :userId LIMIT :limit)
+    """, nativeQuery = true)
+    int deleteChunkByUserId(@Param("userId") Long userId, @Param("limit") int limit);
 }
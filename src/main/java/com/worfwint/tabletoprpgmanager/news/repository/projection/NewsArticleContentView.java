@@ -0,0 +1,11 @@
+package com.worfwint.tabletoprpgmanager.news.repository.projection;
+
+/**
+ * Projection exposing the Markdown source of an article, used by the rendering backfill.
+ */
+public interface NewsArticleContentView {
+
+    Long getId();
+
+    String getContent();
+}
@@ -0,0 +1,11 @@
+package com.worfwint.tabletoprpgmanager.news.repository.projection;
+
+/**
+ * Projection exposing the like and comment counts of a single article.
+ */
+public interface NewsArticleCountsView {
+
+    long getLikeCount();
+
+    long getCommentCount();
+}
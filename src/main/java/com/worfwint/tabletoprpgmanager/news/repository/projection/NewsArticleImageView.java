@@ -0,0 +1,13 @@
+package com.worfwint.tabletoprpgmanager.news.repository.projection;
+
+/**
+ * Projection exposing the image of an article together with its generated variants.
+ */
+public interface NewsArticleImageView {
+
+    Long getId();
+
+    String getImageUrl();
+
+    String getImageVariants();
+}
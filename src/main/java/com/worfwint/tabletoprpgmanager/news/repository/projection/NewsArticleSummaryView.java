@@ -0,0 +1,38 @@
+package com.worfwint.tabletoprpgmanager.news.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection over {@code news_articles} containing only the columns needed for feed listings.
+ * <p>
+ * The article {@code content} column is intentionally absent so that list queries never read
+ * (or de-TOAST) the full article body.
+ */
+public interface NewsArticleSummaryView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getSummary();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    String getImageUrl();
+
+    String getImageVariants();
+
+    long getLikeCount();
+
+    long getCommentCount();
+
+    Long getAuthorId();
+
+    String getAuthorUsername();
+
+    String getAuthorDisplayName();
+
+    String getAuthorAvatarUrl();
+}
@@ -1,5 +1,7 @@
 package com.worfwint.tabletoprpgmanager.news.restcontroller;
 
+import java.io.IOException;
+
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -22,12 +24,17 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.worfwint.tabletoprpgmanager.common.dto.AuthenticatedUser;
+import com.worfwint.tabletoprpgmanager.common.ratelimit.RateLimit;
+import com.worfwint.tabletoprpgmanager.common.ratelimit.RateLimitKey;
+import com.worfwint.tabletoprpgmanager.news.dto.request.ConfirmNewsImageUploadRequest;
 import com.worfwint.tabletoprpgmanager.news.dto.request.CreateNewsCommentRequest;
+import com.worfwint.tabletoprpgmanager.news.dto.request.CreateNewsImageUploadRequest;
 import com.worfwint.tabletoprpgmanager.news.dto.request.CreateNewsRequest;
 import com.worfwint.tabletoprpgmanager.news.dto.request.UpdateNewsCommentRequest;
 import com.worfwint.tabletoprpgmanager.news.dto.request.UpdateNewsRequest;
 import com.worfwint.tabletoprpgmanager.news.dto.response.NewsCommentResponse;
 import com.worfwint.tabletoprpgmanager.news.dto.response.NewsDetailResponse;
+import com.worfwint.tabletoprpgmanager.news.dto.response.NewsImageUploadUrlResponse;
 import com.worfwint.tabletoprpgmanager.news.dto.response.NewsLikeStatusResponse;
 import com.worfwint.tabletoprpgmanager.news.dto.response.NewsSummaryResponse;
 import com.worfwint.tabletoprpgmanager.common.dto.response.PageResponse;
@@ -37,6 +44,7 @@ import com.worfwint.tabletoprpgmanager.news.exception.NewsCommentNotFoundExcepti
 import com.worfwint.tabletoprpgmanager.common.exception.UnauthorizedException;
 import com.worfwint.tabletoprpgmanager.news.service.NewsService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -74,8 +82,9 @@ public class NewsController {
      */
     @Operation(
             summary = "List published news articles",
-            description = "Returns the most recent news articles in reverse chronological order. The authenticated "
-                    + "user context is used to calculate the like status."
+            description = "Returns the most recent news articles in reverse chronological order. The order is "
+                    + "fixed; no sort parameter is accepted. The authenticated user context is used to calculate "
+                    + "the like status."
     )
     @ApiResponses({
             @ApiResponse(
@@ -168,8 +177,15 @@ public class NewsController {
                     description = "The caller lacks permissions to publish news",
                     content = @Content(mediaType = "text/plain",
                             schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "The caller exceeded the rate limit of this operation",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
             )
     })
+    @RateLimit(name = "news-create", capacity = 20, period = "1h")
     @PreAuthorize("hasAnyRole('MODERATOR','ADMIN','DEVELOPER')")
     @PostMapping({"", "/"})
     public NewsDetailResponse createNews(@Valid @RequestBody CreateNewsRequest request,
@@ -273,8 +289,15 @@ public class NewsController {
                     description = "The targeted article was not found",
                     content = @Content(mediaType = "text/plain",
                             schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "The caller exceeded the rate limit of this operation",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
             )
     })
+    @RateLimit(name = "image-upload", capacity = 30, period = "1h")
     @PreAuthorize("hasAnyRole('MODERATOR','ADMIN','DEVELOPER')")
     @PostMapping(value = "/{articleId}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public NewsDetailResponse uploadNewsImage(@PathVariable Long articleId,
@@ -284,6 +307,71 @@ public class NewsController {
         return newsService.uploadArticleImage(articleId, authenticatedUser, file);
     }
 
+    /**
+     * Streams a raw image request body to storage and attaches it to the article.
+     *
+     * @param articleId identifier of the article
+     * @param request raw HTTP request whose body contains the image
+     * @param authenticatedUser authenticated user performing the upload
+     * @return updated article
+     * @throws IOException when the request body cannot be read
+     */
+    @Operation(
+            summary = "Stream article image",
+            description = "Uploads the raw request body as the article image. The body is streamed to object storage "
+                    + "in fixed-size parts, so large images are never buffered in full. The image format is "
+                    + "detected from the leading bytes of the body."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Image uploaded successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = NewsDetailResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid image upload request",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "The caller is not authenticated",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "The caller lacks permissions to modify the article",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "The targeted article was not found",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "The caller exceeded the rate limit of this operation",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            )
+    })
+    @RateLimit(name = "image-upload", capacity = 30, period = "1h")
+    @PreAuthorize("hasAnyRole('MODERATOR','ADMIN','DEVELOPER')")
+    @PostMapping(value = "/{articleId}/image", consumes = "image/*")
+    public NewsDetailResponse streamNewsImage(@PathVariable Long articleId,
+                                              HttpServletRequest request,
+                                              @Parameter(hidden = true)
+                                              @AuthenticationPrincipal AuthenticatedUser authenticatedUser)
+            throws IOException {
+        return newsService.uploadArticleImage(articleId, authenticatedUser, request.getContentType(),
+                request.getInputStream());
+    }
+
     @Operation(
             summary = "Update article image",
             description = "Replaces the image for the specified article with a new upload."
@@ -318,8 +406,15 @@ public class NewsController {
                     description = "The targeted article was not found",
                     content = @Content(mediaType = "text/plain",
                             schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "The caller exceeded the rate limit of this operation",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
             )
     })
+    @RateLimit(name = "image-upload", capacity = 30, period = "1h")
     @PreAuthorize("hasAnyRole('MODERATOR','ADMIN','DEVELOPER')")
     @PutMapping(value = "/{articleId}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public NewsDetailResponse updateNewsImage(@PathVariable Long articleId,
@@ -329,6 +424,131 @@ public class NewsController {
         return newsService.uploadArticleImage(articleId, authenticatedUser, file);
     }
 
+    /**
+     * Creates a presigned URL for uploading an article image directly to object storage.
+     *
+     * @param articleId identifier of the article
+     * @param request declared metadata of the image
+     * @param authenticatedUser authenticated user performing the upload
+     * @return presigned upload description
+     */
+    @Operation(
+            summary = "Request a direct image upload URL",
+            description = "Returns a presigned URL the client uses to upload the article image straight to object "
+                    + "storage. The declared content type, size and SHA-256 checksum are enforced by the signature. "
+                    + "Images are stored by content, so when the same image is already stored no upload is required. "
+                    + "Once the upload has finished, or right away when none is required, call the confirmation "
+                    + "endpoint with the returned key."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Presigned upload URL created successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = NewsImageUploadUrlResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "The declared image is not acceptable",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "The caller is not authenticated",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "The caller lacks permissions to modify the article",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "The targeted article was not found",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "The caller exceeded the rate limit of this operation",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            )
+    })
+    @RateLimit(name = "image-upload", capacity = 30, period = "1h")
+    @PreAuthorize("hasAnyRole('MODERATOR','ADMIN','DEVELOPER')")
+    @PostMapping("/{articleId}/image/upload-url")
+    public NewsImageUploadUrlResponse createNewsImageUploadUrl(@PathVariable Long articleId,
+                                                               @Valid @RequestBody CreateNewsImageUploadRequest request,
+                                                               @Parameter(hidden = true)
+                                                               @AuthenticationPrincipal AuthenticatedUser authenticatedUser) {
+        return newsService.createArticleImageUploadUrl(articleId, authenticatedUser, request);
+    }
+
+    /**
+     * Confirms a direct image upload and attaches the image to the article.
+     *
+     * @param articleId identifier of the article
+     * @param request confirmation payload with the uploaded object key
+     * @param authenticatedUser authenticated user performing the upload
+     * @return updated article
+     */
+    @Operation(
+            summary = "Confirm a direct image upload",
+            description = "Verifies the object uploaded through a presigned URL and makes it the article image, "
+                    + "replacing the previous one."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Image attached successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = NewsDetailResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "The uploaded object is missing or not an acceptable image",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "The caller is not authenticated",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "The caller lacks permissions to modify the article",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "The targeted article was not found",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "The caller exceeded the rate limit of this operation",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            )
+    })
+    @RateLimit(name = "image-upload", capacity = 30, period = "1h")
+    @PreAuthorize("hasAnyRole('MODERATOR','ADMIN','DEVELOPER')")
+    @PostMapping("/{articleId}/image/confirm")
+    public NewsDetailResponse confirmNewsImageUpload(@PathVariable Long articleId,
+                                                     @Valid @RequestBody ConfirmNewsImageUploadRequest request,
+                                                     @Parameter(hidden = true)
+                                                     @AuthenticationPrincipal AuthenticatedUser authenticatedUser) {
+        return newsService.confirmArticleImageUpload(articleId, authenticatedUser, request);
+    }
+
     @Operation(
             summary = "Delete article image",
             description = "Removes the image associated with the specified article."
@@ -491,8 +711,16 @@ public class NewsController {
                     description = "The article was not found",
                     content = @Content(mediaType = "text/plain",
                             schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "The caller exceeded the rate limit of this operation",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
             )
     })
+    @RateLimit(name = "comment-create", capacity = 10)
+    @RateLimit(name = "comment-create", key = RateLimitKey.IP, capacity = 60)
     @PostMapping("/{articleId}/comments")
     public NewsCommentResponse createNewsComment(@PathVariable Long articleId,
                                                  @Valid @RequestBody CreateNewsCommentRequest request,
@@ -631,8 +859,16 @@ public class NewsController {
                     description = "The targeted article was not found",
                     content = @Content(mediaType = "text/plain",
                             schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "The caller exceeded the rate limit of this operation",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
             )
     })
+    @RateLimit(name = "like", capacity = 60)
+    @RateLimit(name = "like", key = RateLimitKey.IP, capacity = 300)
     @PostMapping("/{articleId}/likes")
     public NewsLikeStatusResponse likeNews(@PathVariable Long articleId,
                                            @Parameter(hidden = true)
@@ -669,8 +905,16 @@ public class NewsController {
                     description = "The targeted article was not found",
                     content = @Content(mediaType = "text/plain",
                             schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "The caller exceeded the rate limit of this operation",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
             )
     })
+    @RateLimit(name = "like", capacity = 60)
+    @RateLimit(name = "like", key = RateLimitKey.IP, capacity = 300)
     @DeleteMapping("/{articleId}/likes")
     public NewsLikeStatusResponse unlikeNews(@PathVariable Long articleId,
                                              @Parameter(hidden = true)
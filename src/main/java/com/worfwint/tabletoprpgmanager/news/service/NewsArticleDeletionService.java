@@ -0,0 +1,146 @@
+package com.worfwint.tabletoprpgmanager.news.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.worfwint.tabletoprpgmanager.common.config.DeletionProperties;
+import com.worfwint.tabletoprpgmanager.news.entity.NewsArticle;
+import com.worfwint.tabletoprpgmanager.news.repository.NewsArticleRepository;
+import com.worfwint.tabletoprpgmanager.news.repository.NewsCommentRepository;
+import com.worfwint.tabletoprpgmanager.news.repository.NewsLikeRepository;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleCountsView;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleImageView;
+import com.worfwint.tabletoprpgmanager.common.datasource.DataSourcePool;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLane;
+
+/**
+ * Deletes articles without loading their comments and likes.
+ * <p>
+ * Articles with few dependent rows are deleted with a single statement and the {@code ON DELETE CASCADE}
+ * foreign keys remove the rest. Larger articles are only marked, which hides them from every entity query,
+ * and {@link #purgePending()} removes their likes and comments in bounded chunks, one transaction per chunk,
+ * before deleting the article row.
+ */
+@Service
+public class NewsArticleDeletionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NewsArticleDeletionService.class);
+
+    private final NewsArticleRepository newsArticleRepository;
+    private final NewsCommentRepository newsCommentRepository;
+    private final NewsLikeRepository newsLikeRepository;
+    private final NewsImageVariantService imageVariantService;
+    private final TransactionTemplate transactionTemplate;
+    private final DeletionProperties properties;
+
+    public NewsArticleDeletionService(NewsArticleRepository newsArticleRepository,
+                                      NewsCommentRepository newsCommentRepository,
+                                      NewsLikeRepository newsLikeRepository,
+                                      NewsImageVariantService imageVariantService,
+                                      TransactionTemplate transactionTemplate,
+                                      DeletionProperties properties) {
+        this.newsArticleRepository = newsArticleRepository;
+        this.newsCommentRepository = newsCommentRepository;
+        this.newsLikeRepository = newsLikeRepository;
+        this.imageVariantService = imageVariantService;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Deletes the article and releases its image. The article is gone for readers once the current
+     * transaction commits, even when its rows are removed later by the background job.
+     *
+     * @param article article to delete
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void delete(NewsArticle article) {
+        imageVariantService.releaseImage(article.getImageUrl(), article.getImageVariants());
+        NewsArticleCountsView counts = newsArticleRepository.findCountsById(article.getId());
+        long dependentRows = counts.getLikeCount() + counts.getCommentCount();
+        if (dependentRows <= properties.inlineThreshold()) {
+            newsArticleRepository.deleteDirectlyById(article.getId());
+        } else {
+            newsArticleRepository.markForDeletion(article.getId(), LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Releases the images of all active articles written by the given user.
+     *
+     * @param authorId identifier of the author
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseImagesOfAuthor(Long authorId) {
+        for (NewsArticleImageView image : newsArticleRepository.findImagesByAuthorId(authorId)) {
+            imageVariantService.releaseImage(image.getImageUrl(), image.getImageVariants());
+        }
+    }
+
+    /**
+     * Hides all articles of the given user and leaves them to the background job.
+     * Images must have been released with {@link #releaseImagesOfAuthor(Long)} beforehand.
+     *
+     * @param authorId identifier of the author
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markAuthoredForDeletion(Long authorId) {
+        newsArticleRepository.markAuthoredForDeletion(authorId, LocalDateTime.now());
+    }
+
+    /**
+     * Removes the likes and comments the given user left on any article, in bounded chunks.
+     *
+     * @param userId identifier of the user
+     */
+    public void purgeContributionsOf(Long userId) {
+        deleteInChunks(() -> newsLikeRepository.deleteChunkByUserId(userId, properties.chunkSize()));
+        deleteInChunks(() -> newsCommentRepository.deleteChunkByAuthorId(userId, properties.chunkSize()));
+    }
+
+    /**
+     * Checks whether the given user still authors article rows, including ones pending deletion.
+     *
+     * @param authorId identifier of the author
+     * @return {@code true} while at least one article row remains
+     */
+    public boolean hasArticleRows(Long authorId) {
+        return newsArticleRepository.existsAnyByAuthorId(authorId);
+    }
+
+    /**
+     * Removes articles marked for deletion, oldest requests first.
+     */
+    @Scheduled(initialDelayString = "${app.deletion.interval:PT5S}",
+               fixedDelayString = "${app.deletion.interval:PT5S}")
+    @DataSourcePool(PoolLane.MAINTENANCE)
+    public void purgePending() {
+        List<Long> articleIds = newsArticleRepository.findPendingDeletionIds(properties.batchSize());
+        for (Long articleId : articleIds) {
+            try {
+                deleteInChunks(() -> newsLikeRepository.deleteChunkByArticleId(articleId, properties.chunkSize()));
+                deleteInChunks(() -> newsCommentRepository.deleteChunkByArticleId(articleId, properties.chunkSize()));
+                transactionTemplate.executeWithoutResult(status -> newsArticleRepository.deleteDirectlyById(articleId));
+            } catch (RuntimeException ex) {
+                LOG.warn("Failed to purge news article {}, retrying on the next run", articleId, ex);
+            }
+        }
+    }
+
+    private void deleteInChunks(IntSupplier chunk) {
+        int deleted;
+        do {
+            Integer rows = transactionTemplate.execute(status -> chunk.getAsInt());
+            deleted = rows != null ? rows : 0;
+        } while (deleted >= properties.chunkSize());
+    }
+}
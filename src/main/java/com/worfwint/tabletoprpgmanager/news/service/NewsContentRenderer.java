@@ -0,0 +1,40 @@
+package com.worfwint.tabletoprpgmanager.news.service;
+
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Safelist;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts article Markdown into sanitized HTML.
+ * <p>
+ * Raw HTML inside the Markdown source is escaped by the renderer and the resulting markup is
+ * additionally cleaned against an allow-list, so the output can be embedded by clients as-is.
+ */
+@Component
+public class NewsContentRenderer {
+
+    private final Parser parser = Parser.builder().build();
+    private final HtmlRenderer renderer = HtmlRenderer.builder()
+            .escapeHtml(true)
+            .sanitizeUrls(true)
+            .build();
+    private final Safelist safelist = Safelist.relaxed()
+            .addProtocols("a", "href", "http", "https", "mailto")
+            .addProtocols("img", "src", "http", "https");
+
+    /**
+     * Renders Markdown into sanitized HTML.
+     *
+     * @param markdown article source in Markdown format
+     * @return sanitized HTML fragment
+     */
+    public String render(String markdown) {
+        if (markdown == null || markdown.isEmpty()) {
+            return "";
+        }
+        String html = renderer.render(parser.parse(markdown));
+        return Jsoup.clean(html, safelist);
+    }
+}
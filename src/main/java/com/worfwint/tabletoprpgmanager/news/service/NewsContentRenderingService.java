@@ -0,0 +1,151 @@
+package com.worfwint.tabletoprpgmanager.news.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.worfwint.tabletoprpgmanager.news.config.NewsRenderingProperties;
+import com.worfwint.tabletoprpgmanager.news.repository.NewsArticleRepository;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleContentView;
+import com.worfwint.tabletoprpgmanager.common.datasource.DataSourcePool;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLane;
+
+/**
+ * Renders article Markdown to HTML on a dedicated bounded pool and stores the result next to the source.
+ * <p>
+ * Rendering is triggered after the writing transaction commits. Articles whose rendering was rejected
+ * because the pool was saturated, failed, or predate this feature are picked up by {@link #backfill()}.
+ */
+@Service
+public class NewsContentRenderingService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NewsContentRenderingService.class);
+
+    private final NewsContentRenderer renderer;
+    private final NewsArticleRepository newsArticleRepository;
+    private final ThreadPoolTaskExecutor newsRenderingExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final NewsRenderingProperties properties;
+
+    public NewsContentRenderingService(NewsContentRenderer renderer,
+                                       NewsArticleRepository newsArticleRepository,
+                                       ThreadPoolTaskExecutor newsRenderingExecutor,
+                                       TransactionTemplate transactionTemplate,
+                                       JdbcTemplate jdbcTemplate,
+                                       NewsRenderingProperties properties) {
+        this.renderer = renderer;
+        this.newsArticleRepository = newsArticleRepository;
+        this.newsRenderingExecutor = newsRenderingExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Schedules rendering of the given source once the current transaction commits.
+     *
+     * @param articleId identifier of the article
+     * @param source Markdown source to render
+     */
+    public void renderAfterCommit(Long articleId, String source) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(articleId, source);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(articleId, source);
+            }
+        });
+    }
+
+    /**
+     * Renders articles that have no stored HTML yet, in batches ordered by identifier.
+     */
+    @Scheduled(initialDelayString = "${app.news.rendering.backfill-initial-delay:PT30S}",
+               fixedDelayString = "${app.news.rendering.backfill-interval:PT5M}")
+    @DataSourcePool(PoolLane.MAINTENANCE)
+    public void backfill() {
+        long afterId = 0L;
+        int rendered = 0;
+        while (true) {
+            List<NewsArticleContentView> batch = newsArticleRepository.findUnrenderedAfter(afterId,
+                    PageRequest.of(0, properties.backfillBatchSize()));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (NewsArticleContentView article : batch) {
+                if (renderAndStore(article.getId(), article.getContent())) {
+                    rendered++;
+                }
+                afterId = article.getId();
+            }
+        }
+        if (rendered > 0) {
+            LOG.info("Backfilled rendered content for {} news articles", rendered);
+        }
+    }
+
+    /**
+     * Applies the configured PostgreSQL column compression to the source and rendered content columns.
+     * Only values written afterwards are compressed with the new method. The {@code ALTER TABLE} takes an
+     * exclusive lock on the table, so it only runs for columns whose compression differs from the configured one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @DataSourcePool(PoolLane.MAINTENANCE)
+    public void applyColumnCompression() {
+        String compression = properties.columnCompression();
+        if (compression == null || compression.isBlank()) {
+            return;
+        }
+        // pg_attribute stores the method as its first letter: p(glz) or l(z4)
+        List<String> columns = jdbcTemplate.queryForList("""
+            SELECT attname
+            FROM pg_attribute
+            WHERE attrelid = 'news_articles'::regclass
+              AND attname IN ('content', 'content_html')
+              AND attcompression::text <> ?
+        """, String.class, compression.substring(0, 1));
+        if (columns.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE news_articles " + String.join(", ", columns.stream()
+                .map(column -> "ALTER COLUMN " + column + " SET COMPRESSION " + compression)
+                .toList()));
+        LOG.info("News article columns {} switched to {} compression", columns, compression);
+    }
+
+    private void submit(Long articleId, String source) {
+        try {
+            newsRenderingExecutor.execute(() -> renderAndStore(articleId, source));
+        } catch (TaskRejectedException ex) {
+            LOG.debug("Rendering queue is full, article {} is left for the backfill job", articleId);
+        }
+    }
+
+    private boolean renderAndStore(Long articleId, String source) {
+        try {
+            String html = renderer.render(source);
+            Integer updated = transactionTemplate.execute(status ->
+                    newsArticleRepository.updateRenderedContent(articleId, source, html));
+            return updated != null && updated > 0;
+        } catch (RuntimeException ex) {
+            LOG.warn("Failed to render content of news article {}", articleId, ex);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.worfwint.tabletoprpgmanager.news.service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.worfwint.tabletoprpgmanager.news.repository.NewsArticleRepository;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleImageView;
+import com.worfwint.tabletoprpgmanager.storage.S3StorageService;
+import com.worfwint.tabletoprpgmanager.storage.StorageReferenceResolver;
+
+/**
+ * Reports bucket objects still used as news article images or their variants under the per-article
+ * {@code news/{articleId}/} keys written before images were content addressed. Newer objects are
+ * tracked by reference counts.
+ */
+@Component
+public class NewsImageReferenceResolver implements StorageReferenceResolver {
+
+    private static final Pattern ARTICLE_KEY = Pattern.compile("^news/(\\d{1,18})/");
+
+    private final NewsArticleRepository newsArticleRepository;
+    private final S3StorageService storageService;
+
+    public NewsImageReferenceResolver(NewsArticleRepository newsArticleRepository,
+                                      S3StorageService storageService) {
+        this.newsArticleRepository = newsArticleRepository;
+        this.storageService = storageService;
+    }
+
+    @Override
+    public Set<String> findReferencedKeys(Collection<String> keys) {
+        Set<Long> articleIds = new HashSet<>();
+        for (String key : keys) {
+            Matcher matcher = ARTICLE_KEY.matcher(key);
+            if (matcher.find()) {
+                articleIds.add(Long.parseLong(matcher.group(1)));
+            }
+        }
+        if (articleIds.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<String> inUse = new HashSet<>();
+        for (NewsArticleImageView image : newsArticleRepository.findImagesByIdIn(articleIds)) {
+            String originalKey = storageService.extractKey(image.getImageUrl());
+            if (originalKey == null) {
+                continue;
+            }
+            inUse.add(originalKey);
+            for (String token : NewsImageVariants.tokens(image.getImageVariants())) {
+                inUse.add(storageService.variantKey(originalKey, token));
+            }
+        }
+        inUse.retainAll(new HashSet<>(keys));
+        return inUse;
+    }
+}
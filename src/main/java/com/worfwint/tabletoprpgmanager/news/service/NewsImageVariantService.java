@@ -0,0 +1,163 @@
+package com.worfwint.tabletoprpgmanager.news.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.worfwint.tabletoprpgmanager.common.exception.BadRequestException;
+import com.worfwint.tabletoprpgmanager.news.repository.NewsArticleRepository;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleImageView;
+import com.worfwint.tabletoprpgmanager.storage.ImageProcessingExecutor;
+import com.worfwint.tabletoprpgmanager.storage.ImageVariantProperties;
+import com.worfwint.tabletoprpgmanager.storage.S3StorageService;
+import com.worfwint.tabletoprpgmanager.storage.StorageCleanupService;
+import com.worfwint.tabletoprpgmanager.common.datasource.DataSourcePool;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLane;
+
+/**
+ * Generates resized variants of article images after the image was attached.
+ * <p>
+ * Generation starts once the attaching transaction commits and runs on the bounded image processing
+ * executor. Images whose processing was rejected because all slots were busy, failed, or predate this
+ * feature are picked up by {@link #backfill()}. Images that cannot be decoded are marked with an empty
+ * variant list so they are not retried.
+ */
+@Service
+public class NewsImageVariantService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NewsImageVariantService.class);
+
+    private final S3StorageService storageService;
+    private final StorageCleanupService storageCleanupService;
+    private final NewsArticleRepository newsArticleRepository;
+    private final ImageProcessingExecutor imageProcessingExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final ImageVariantProperties properties;
+
+    public NewsImageVariantService(S3StorageService storageService,
+                                   StorageCleanupService storageCleanupService,
+                                   NewsArticleRepository newsArticleRepository,
+                                   ImageProcessingExecutor imageProcessingExecutor,
+                                   TransactionTemplate transactionTemplate,
+                                   ImageVariantProperties properties) {
+        this.storageService = storageService;
+        this.storageCleanupService = storageCleanupService;
+        this.newsArticleRepository = newsArticleRepository;
+        this.imageProcessingExecutor = imageProcessingExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Releases an article image together with its generated variants. Must be called in the transaction
+     * that detaches the image from the article or deletes the article.
+     *
+     * @param imageUrl public URL of the image, may be {@code null}
+     * @param imageVariants comma separated variant tokens, may be {@code null}
+     */
+    public void releaseImage(String imageUrl, String imageVariants) {
+        String originalKey = storageService.extractKey(imageUrl);
+        if (originalKey == null) {
+            return;
+        }
+        storageCleanupService.release(originalKey);
+        for (String token : NewsImageVariants.tokens(imageVariants)) {
+            storageCleanupService.release(storageService.variantKey(originalKey, token));
+        }
+    }
+
+    /**
+     * Schedules variant generation for the given image once the current transaction commits.
+     *
+     * @param articleId identifier of the article
+     * @param imageUrl public URL of the attached image
+     */
+    public void generateAfterCommit(Long articleId, String imageUrl) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(articleId, imageUrl);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(articleId, imageUrl);
+            }
+        });
+    }
+
+    /**
+     * Generates variants for article images that have none yet, in batches ordered by identifier.
+     */
+    @Scheduled(initialDelayString = "${app.s3.image-variants.backfill-initial-delay:PT1M}",
+               fixedDelayString = "${app.s3.image-variants.backfill-interval:PT10M}")
+    @DataSourcePool(PoolLane.MAINTENANCE)
+    public void backfill() {
+        long afterId = 0L;
+        int generated = 0;
+        while (true) {
+            List<NewsArticleImageView> batch = newsArticleRepository.findImagesWithoutVariantsAfter(afterId,
+                    PageRequest.of(0, properties.backfillBatchSize()));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (NewsArticleImageView image : batch) {
+                if (generateAndStore(image.getId(), image.getImageUrl())) {
+                    generated++;
+                }
+                afterId = image.getId();
+            }
+        }
+        if (generated > 0) {
+            LOG.info("Backfilled image variants for {} news articles", generated);
+        }
+    }
+
+    private void submit(Long articleId, String imageUrl) {
+        if (!imageProcessingExecutor.trySubmit(() -> generateAndStore(articleId, imageUrl))) {
+            LOG.debug("Image processing is saturated, article {} is left for the backfill job", articleId);
+        }
+    }
+
+    private boolean generateAndStore(Long articleId, String imageUrl) {
+        // images are content addressed, so another article using the same image already has the variants
+        List<String> existing = newsArticleRepository.findImageVariantsByImageUrl(imageUrl, PageRequest.of(0, 1));
+        if (!existing.isEmpty()) {
+            return recordVariants(articleId, imageUrl, NewsImageVariants.tokens(existing.get(0)));
+        }
+
+        List<String> tokens;
+        try {
+            tokens = storageService.storeImageVariants(imageUrl);
+        } catch (BadRequestException ex) {
+            LOG.info("No variants generated for image of news article {}: {}", articleId, ex.getMessage());
+            tokens = List.of();
+        } catch (RuntimeException ex) {
+            LOG.warn("Failed to generate variants for image of news article {}", articleId, ex);
+            return false;
+        }
+
+        return recordVariants(articleId, imageUrl, tokens);
+    }
+
+    private boolean recordVariants(Long articleId, String imageUrl, List<String> tokens) {
+        // when the image was replaced meanwhile nothing is recorded and unreferenced variants are left to the sweep
+        Integer updated = transactionTemplate.execute(status -> {
+            int rows = newsArticleRepository.updateImageVariants(articleId, imageUrl, NewsImageVariants.join(tokens));
+            if (rows > 0) {
+                String originalKey = storageService.extractKey(imageUrl);
+                for (String token : tokens) {
+                    storageCleanupService.retain(storageService.variantKey(originalKey, token));
+                }
+            }
+            return rows;
+        });
+        return updated != null && updated > 0;
+    }
+}
@@ -0,0 +1,37 @@
+package com.worfwint.tabletoprpgmanager.news.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Helpers for the comma separated variant tokens stored in {@code news_articles.image_variants}.
+ * <p>
+ * {@code null} means variants have not been generated yet, an empty string that none could be generated.
+ */
+final class NewsImageVariants {
+
+    private NewsImageVariants() {}
+
+    static List<String> tokens(String imageVariants) {
+        if (imageVariants == null || imageVariants.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(imageVariants.split(","))
+                .map(String::trim)
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    static String join(List<String> tokens) {
+        return String.join(",", tokens);
+    }
+
+    static int width(String token) {
+        int dot = token.indexOf('.');
+        try {
+            return Integer.parseInt(dot > 0 ? token.substring(0, dot) : token);
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+}
@@ -1,24 +1,39 @@
 package com.worfwint.tabletoprpgmanager.news.service;
 
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.worfwint.tabletoprpgmanager.common.coalesce.RequestCoalescer;
 import com.worfwint.tabletoprpgmanager.common.dto.AuthenticatedUser;
+import com.worfwint.tabletoprpgmanager.common.jfr.MappingEvent;
+import com.worfwint.tabletoprpgmanager.common.jfr.Stages;
+import com.worfwint.tabletoprpgmanager.news.dto.request.ConfirmNewsImageUploadRequest;
 import com.worfwint.tabletoprpgmanager.news.dto.request.CreateNewsCommentRequest;
+import com.worfwint.tabletoprpgmanager.news.dto.request.CreateNewsImageUploadRequest;
 import com.worfwint.tabletoprpgmanager.news.dto.request.CreateNewsRequest;
 import com.worfwint.tabletoprpgmanager.news.dto.request.UpdateNewsCommentRequest;
 import com.worfwint.tabletoprpgmanager.news.dto.request.UpdateNewsRequest;
 import com.worfwint.tabletoprpgmanager.news.dto.response.NewsAuthorResponse;
 import com.worfwint.tabletoprpgmanager.news.dto.response.NewsCommentResponse;
 import com.worfwint.tabletoprpgmanager.news.dto.response.NewsDetailResponse;
+import com.worfwint.tabletoprpgmanager.news.dto.response.NewsImageUploadUrlResponse;
+import com.worfwint.tabletoprpgmanager.news.dto.response.NewsImageVariantResponse;
 import com.worfwint.tabletoprpgmanager.news.dto.response.NewsLikeStatusResponse;
 import com.worfwint.tabletoprpgmanager.news.dto.response.NewsSummaryResponse;
 import com.worfwint.tabletoprpgmanager.common.dto.response.PageResponse;
@@ -29,12 +44,18 @@ import com.worfwint.tabletoprpgmanager.user.entity.User;
 import com.worfwint.tabletoprpgmanager.user.entity.UserRole;
 import com.worfwint.tabletoprpgmanager.news.exception.NewsArticleNotFoundException;
 import com.worfwint.tabletoprpgmanager.news.exception.NewsCommentNotFoundException;
+import com.worfwint.tabletoprpgmanager.common.exception.BadRequestException;
 import com.worfwint.tabletoprpgmanager.common.exception.UnauthorizedException;
+import com.worfwint.tabletoprpgmanager.storage.PresignedUpload;
 import com.worfwint.tabletoprpgmanager.storage.S3StorageService;
+import com.worfwint.tabletoprpgmanager.storage.StorageCleanupService;
+import com.worfwint.tabletoprpgmanager.storage.exception.RejectedUploadException;
 import com.worfwint.tabletoprpgmanager.user.exception.UserNotFoundException;
 import com.worfwint.tabletoprpgmanager.news.repository.NewsArticleRepository;
 import com.worfwint.tabletoprpgmanager.news.repository.NewsCommentRepository;
 import com.worfwint.tabletoprpgmanager.news.repository.NewsLikeRepository;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleCountsView;
+import com.worfwint.tabletoprpgmanager.news.repository.projection.NewsArticleSummaryView;
 import com.worfwint.tabletoprpgmanager.user.repository.UserRepository;
 
 /**
@@ -44,34 +65,60 @@ import com.worfwint.tabletoprpgmanager.user.repository.UserRepository;
 @Transactional
 public class NewsService {
 
+    private static final Sort NEWEST_FIRST = Sort.by("createdAt").descending();
+
     private final NewsArticleRepository newsArticleRepository;
     private final NewsCommentRepository newsCommentRepository;
     private final NewsLikeRepository newsLikeRepository;
     private final UserRepository userRepository;
     private final S3StorageService storageService;
+    private final StorageCleanupService storageCleanupService;
+    private final NewsContentRenderingService renderingService;
+    private final NewsImageVariantService imageVariantService;
+    private final NewsArticleDeletionService articleDeletionService;
+    private final TransactionTemplate transactionTemplate;
+    private final RequestCoalescer requestCoalescer;
 
     public NewsService(NewsArticleRepository newsArticleRepository,
                        NewsCommentRepository newsCommentRepository,
                        NewsLikeRepository newsLikeRepository,
                        UserRepository userRepository,
-                       S3StorageService storageService) {
+                       S3StorageService storageService,
+                       StorageCleanupService storageCleanupService,
+                       NewsContentRenderingService renderingService,
+                       NewsImageVariantService imageVariantService,
+                       NewsArticleDeletionService articleDeletionService,
+                       TransactionTemplate transactionTemplate,
+                       RequestCoalescer requestCoalescer) {
         this.newsArticleRepository = newsArticleRepository;
         this.newsCommentRepository = newsCommentRepository;
         this.newsLikeRepository = newsLikeRepository;
         this.userRepository = userRepository;
         this.storageService = storageService;
+        this.storageCleanupService = storageCleanupService;
+        this.renderingService = renderingService;
+        this.imageVariantService = imageVariantService;
+        this.articleDeletionService = articleDeletionService;
+        this.transactionTemplate = transactionTemplate;
+        this.requestCoalescer = requestCoalescer;
     }
 
     /**
-     * Returns paginated news summaries ordered by newest first.
+     * Returns paginated news summaries ordered by newest first. The order is fixed by the projection query,
+     * so only unsorted requests and requests sorted by {@code createdAt} descending are accepted.
      *
      * @param pageable pagination configuration
      * @param currentUser authenticated user, may be {@code null}
      * @return paginated response of summaries
+     * @throws BadRequestException when a different order is requested
      */
     @Transactional(readOnly = true)
     public PageResponse<NewsSummaryResponse> listArticles(Pageable pageable, AuthenticatedUser currentUser) {
-        Page<NewsArticle> newsPage = newsArticleRepository.findAllByOrderByCreatedAtDesc(pageable);
+        if (pageable.getSort().isSorted() && !pageable.getSort().equals(NEWEST_FIRST)) {
+            throw new BadRequestException("Articles can only be listed newest first");
+        }
+        Page<NewsArticleSummaryView> newsPage = newsArticleRepository.findSummariesByOrderByCreatedAtDesc(
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
 
         Set<Long> likedArticleIds = resolveLikedArticleIds(currentUser, extractArticleIds(newsPage));
 
@@ -88,11 +135,13 @@ public class NewsService {
      */
     @Transactional(readOnly = true)
     public NewsDetailResponse getArticle(Long articleId, AuthenticatedUser currentUser) {
-        NewsArticle article = newsArticleRepository.findById(articleId)
-                .orElseThrow(NewsArticleNotFoundException::new);
+        // concurrent reads of the same article share the viewer-independent part
+        NewsDetailResponse article = requestCoalescer.execute("news.article", articleId, () ->
+                mapToNewsDetail(newsArticleRepository.findById(articleId)
+                        .orElseThrow(NewsArticleNotFoundException::new), false));
         boolean likedByCurrentUser = currentUser != null
                 && newsLikeRepository.existsByArticleIdAndUserId(articleId, currentUser.id());
-        return mapToNewsDetail(article, likedByCurrentUser);
+        return likedByCurrentUser ? article.withLikedByCurrentUser(true) : article;
     }
 
     /**
@@ -114,6 +163,7 @@ public class NewsService {
         article.setContent(request.getContent().trim());
 
         NewsArticle saved = newsArticleRepository.save(article);
+        renderingService.renderAfterCommit(saved.getId(), saved.getContent());
         return mapToNewsDetail(saved, false);
     }
 
@@ -135,34 +185,101 @@ public class NewsService {
 
         article.setTitle(request.getTitle().trim());
         article.setSummary(trimToNull(request.getSummary()));
-        article.setContent(request.getContent().trim());
+        String content = request.getContent().trim();
+        if (!content.equals(article.getContent())) {
+            article.setContent(content);
+            article.setContentHtml(null);
+            renderingService.renderAfterCommit(articleId, content);
+        }
 
         return mapToNewsDetail(article, newsLikeRepository.existsByArticleIdAndUserId(articleId, actor.getId()));
     }
 
     /**
      * Uploads an image for the specified news article.
+     * <p>
+     * The upload runs outside of a database transaction so that no connection is held while the image
+     * is transferred; the article is updated in a short transaction afterwards.
      *
      * @param articleId identifier of the article to update
      * @param currentUser authenticated user attempting the update
      * @param file image file to upload
      * @return updated article response
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public NewsDetailResponse uploadArticleImage(Long articleId,
                                                  AuthenticatedUser currentUser,
                                                  MultipartFile file) {
+        User actor = requireArticleEditor(articleId, currentUser);
+        String imageUrl = storageService.uploadNewsImage(file);
+        return transactionTemplate.execute(status -> attachArticleImage(articleId, actor, imageUrl));
+    }
+
+    /**
+     * Streams an image from the request body into storage for the specified news article.
+     *
+     * @param articleId identifier of the article to update
+     * @param currentUser authenticated user attempting the update
+     * @param contentType MIME type of the image
+     * @param content image data
+     * @return updated article response
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public NewsDetailResponse uploadArticleImage(Long articleId,
+                                                 AuthenticatedUser currentUser,
+                                                 String contentType,
+                                                 InputStream content) {
+        User actor = requireArticleEditor(articleId, currentUser);
+        String imageUrl = storageService.uploadNewsImage(contentType, content);
+        return transactionTemplate.execute(status -> attachArticleImage(articleId, actor, imageUrl));
+    }
+
+    /**
+     * Prepares a presigned request the client can use to upload an article image directly to storage.
+     *
+     * @param articleId identifier of the article to update
+     * @param currentUser authenticated user attempting the update
+     * @param request declared metadata of the image to upload
+     * @return presigned upload description
+     */
+    @Transactional(readOnly = true)
+    public NewsImageUploadUrlResponse createArticleImageUploadUrl(Long articleId,
+                                                                  AuthenticatedUser currentUser,
+                                                                  CreateNewsImageUploadRequest request) {
         NewsArticle article = newsArticleRepository.findById(articleId)
                 .orElseThrow(NewsArticleNotFoundException::new);
         User actor = requireUser(currentUser);
         ensureArticleModificationAllowed(actor, article);
 
-        if (article.getImageUrl() != null && !article.getImageUrl().isBlank()) {
-            storageService.deleteByPublicUrl(article.getImageUrl());
-        }
-        String imageUrl = storageService.uploadNewsImage(articleId, file);
-        article.setImageUrl(imageUrl);
+        PresignedUpload upload = storageService.presignNewsImageUpload(request.getContentType().trim(),
+                request.getContentLength(), request.getChecksumSha256());
+        return new NewsImageUploadUrlResponse(upload.uploadRequired(), upload.url(), upload.method(),
+                upload.headers(), upload.key(), upload.expiresAt());
+    }
 
-        return mapToNewsDetail(article, newsLikeRepository.existsByArticleIdAndUserId(articleId, actor.getId()));
+    /**
+     * Attaches an image uploaded through a presigned request to the specified news article.
+     *
+     * @param articleId identifier of the article to update
+     * @param currentUser authenticated user attempting the update
+     * @param request confirmation payload containing the uploaded object key
+     * @return updated article response
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public NewsDetailResponse confirmArticleImageUpload(Long articleId,
+                                                        AuthenticatedUser currentUser,
+                                                        ConfirmNewsImageUploadRequest request) {
+        User actor = transactionTemplate.execute(status -> requireArticleEditor(articleId, currentUser));
+        String key = request.getKey().trim();
+        String imageUrl;
+        try {
+            // verifying reads the object back from storage, so no connection is held meanwhile
+            imageUrl = storageService.confirmNewsImageUpload(key);
+        } catch (RejectedUploadException ex) {
+            storageCleanupService.discard(key);
+            throw ex;
+        }
+        return transactionTemplate.execute(status -> attachArticleImage(articleId, actor, imageUrl));
     }
 
     /**
@@ -179,8 +296,9 @@ public class NewsService {
         ensureArticleModificationAllowed(actor, article);
 
         if (article.getImageUrl() != null && !article.getImageUrl().isBlank()) {
-            storageService.deleteByPublicUrl(article.getImageUrl());
+            releaseImage(article);
             article.setImageUrl(null);
+            article.setImageVariants(null);
         }
 
         return mapToNewsDetail(article, newsLikeRepository.existsByArticleIdAndUserId(articleId, actor.getId()));
@@ -197,7 +315,7 @@ public class NewsService {
                 .orElseThrow(NewsArticleNotFoundException::new);
         User actor = requireUser(currentUser);
         ensureArticleModificationAllowed(actor, article);
-        newsArticleRepository.delete(article);
+        articleDeletionService.delete(article);
     }
 
     /**
@@ -326,6 +444,31 @@ public class NewsService {
         return new NewsLikeStatusResponse(likeCount, false);
     }
 
+    private NewsDetailResponse attachArticleImage(Long articleId, User actor, String imageUrl) {
+        NewsArticle article = newsArticleRepository.findById(articleId)
+                .orElseThrow(NewsArticleNotFoundException::new);
+        if (!imageUrl.equals(article.getImageUrl())) {
+            storageCleanupService.retain(storageService.extractKey(imageUrl));
+            releaseImage(article);
+            article.setImageUrl(imageUrl);
+            article.setImageVariants(null);
+            imageVariantService.generateAfterCommit(articleId, imageUrl);
+        }
+        return mapToNewsDetail(article, newsLikeRepository.existsByArticleIdAndUserId(articleId, actor.getId()));
+    }
+
+    private void releaseImage(NewsArticle article) {
+        imageVariantService.releaseImage(article.getImageUrl(), article.getImageVariants());
+    }
+
+    private User requireArticleEditor(Long articleId, AuthenticatedUser currentUser) {
+        NewsArticle article = newsArticleRepository.findById(articleId)
+                .orElseThrow(NewsArticleNotFoundException::new);
+        User actor = requireUser(currentUser);
+        ensureArticleModificationAllowed(actor, article);
+        return actor;
+    }
+
     private Set<Long> resolveLikedArticleIds(AuthenticatedUser currentUser, Collection<Long> articleIds) {
         if (currentUser == null || articleIds.isEmpty()) {
             return Collections.emptySet();
@@ -333,51 +476,80 @@ public class NewsService {
         return newsLikeRepository.findArticleIdsLikedByUser(currentUser.id(), articleIds);
     }
 
-    private Set<Long> extractArticleIds(Page<NewsArticle> articles) {
+    private Set<Long> extractArticleIds(Page<NewsArticleSummaryView> articles) {
         return articles.getContent().stream()
-                .map(NewsArticle::getId)
+                .map(NewsArticleSummaryView::getId)
                 .collect(Collectors.toSet());
     }
 
-    private NewsSummaryResponse mapToNewsSummary(NewsArticle article, boolean likedByCurrentUser) {
-        return new NewsSummaryResponse(
-                article.getId(),
-                article.getTitle(),
-                article.getSummary(),
-                article.getCreatedAt(),
-                article.getUpdatedAt(),
-                article.getLikeCount(),
-                article.getCommentCount(),
-                likedByCurrentUser,
-                mapToAuthor(article.getAuthor())
-        );
+    private NewsSummaryResponse mapToNewsSummary(NewsArticleSummaryView article, boolean likedByCurrentUser) {
+        return Stages.record(new MappingEvent(), "NewsService.mapToNewsSummary",
+                () -> new NewsSummaryResponse(
+                        article.getId(),
+                        article.getTitle(),
+                        article.getSummary(),
+                        article.getImageUrl(),
+                        mapImageVariants(article.getImageUrl(), article.getImageVariants()),
+                        article.getCreatedAt(),
+                        article.getUpdatedAt(),
+                        article.getLikeCount(),
+                        article.getCommentCount(),
+                        likedByCurrentUser,
+                        new NewsAuthorResponse(
+                                article.getAuthorId(),
+                                article.getAuthorUsername(),
+                                article.getAuthorDisplayName(),
+                                article.getAuthorAvatarUrl()
+                        )
+                ));
     }
 
     private NewsDetailResponse mapToNewsDetail(NewsArticle article, boolean likedByCurrentUser) {
-        return new NewsDetailResponse(
+        // queries and lazy loads stay outside the mapping stage, which should only measure mapping
+        NewsArticleCountsView counts = newsArticleRepository.findCountsById(article.getId());
+        NewsAuthorResponse author = mapToAuthor(article.getAuthor());
+        return Stages.record(new MappingEvent(), "NewsService.mapToNewsDetail", () -> new NewsDetailResponse(
                 article.getId(),
                 article.getTitle(),
                 article.getSummary(),
                 article.getImageUrl(),
+                mapImageVariants(article.getImageUrl(), article.getImageVariants()),
                 article.getContent(),
+                article.getContentHtml(),
                 article.getCreatedAt(),
                 article.getUpdatedAt(),
-                article.getLikeCount(),
-                article.getCommentCount(),
+                counts.getLikeCount(),
+                counts.getCommentCount(),
                 likedByCurrentUser,
-                mapToAuthor(article.getAuthor())
-        );
+                author
+        ));
+    }
+
+    private List<NewsImageVariantResponse> mapImageVariants(String imageUrl, String imageVariants) {
+        if (imageUrl == null) {
+            return List.of();
+        }
+        List<NewsImageVariantResponse> variants = new ArrayList<>();
+        for (String token : NewsImageVariants.tokens(imageVariants)) {
+            String url = storageService.buildVariantUrl(imageUrl, token);
+            if (url != null) {
+                variants.add(new NewsImageVariantResponse(NewsImageVariants.width(token), url));
+            }
+        }
+        variants.sort(Comparator.comparingInt(NewsImageVariantResponse::getWidth));
+        return variants;
     }
 
     private NewsCommentResponse mapToNewsComment(NewsComment comment, boolean ownedByCurrentUser) {
-        return new NewsCommentResponse(
-                comment.getId(),
-                comment.getContent(),
-                comment.getCreatedAt(),
-                comment.getUpdatedAt(),
-                ownedByCurrentUser,
-                mapToAuthor(comment.getAuthor())
-        );
+        return Stages.record(new MappingEvent(), "NewsService.mapToNewsComment",
+                () -> new NewsCommentResponse(
+                        comment.getId(),
+                        comment.getContent(),
+                        comment.getCreatedAt(),
+                        comment.getUpdatedAt(),
+                        ownedByCurrentUser,
+                        mapToAuthor(comment.getAuthor())
+                ));
     }
 
     private NewsAuthorResponse mapToAuthor(User user) {
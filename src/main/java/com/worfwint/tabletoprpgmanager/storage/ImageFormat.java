@@ -0,0 +1,97 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+import java.util.Locale;
+
+/**
+ * Raster formats accepted for uploaded images, recognised by their leading magic bytes.
+ */
+public enum ImageFormat {
+
+    JPEG("image/jpeg", ".jpg"),
+    PNG("image/png", ".png"),
+    GIF("image/gif", ".gif"),
+    WEBP("image/webp", ".webp"),
+    BMP("image/bmp", ".bmp");
+
+    /**
+     * Number of leading bytes needed by {@link #detect(byte[], int)}.
+     */
+    public static final int SIGNATURE_LENGTH = 12;
+
+    private final String contentType;
+    private final String extension;
+
+    ImageFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Detects the format from the first bytes of a file.
+     *
+     * @param header leading bytes of the file
+     * @param length number of valid bytes in {@code header}
+     * @return detected format or {@code null} when the data is not a supported image
+     */
+    public static ImageFormat detect(byte[] header, int length) {
+        if (startsWith(header, length, 0xFF, 0xD8, 0xFF)) {
+            return JPEG;
+        }
+        if (startsWith(header, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return PNG;
+        }
+        if (startsWith(header, length, 'G', 'I', 'F', '8')) {
+            return GIF;
+        }
+        if (startsWith(header, length, 'R', 'I', 'F', 'F') && length >= 12
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return WEBP;
+        }
+        if (startsWith(header, length, 'B', 'M')) {
+            return BMP;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the format registered for the given MIME type.
+     *
+     * @param contentType MIME type, compared case-insensitively
+     * @return matching format or {@code null} when the type is not supported
+     */
+    public static ImageFormat fromContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String normalized = contentType.trim().toLowerCase(Locale.ROOT);
+        if ("image/jpg".equals(normalized)) {
+            return JPEG;
+        }
+        for (ImageFormat format : values()) {
+            if (format.contentType.equals(normalized)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int... signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((header[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
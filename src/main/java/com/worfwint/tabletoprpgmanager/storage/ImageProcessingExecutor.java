@@ -0,0 +1,62 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.stereotype.Component;
+
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLane;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLanes;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs image processing tasks on virtual threads with a fixed upper bound on concurrent tasks.
+ * <p>
+ * Decoding is memory hungry, so tasks submitted while all slots are taken are rejected instead of
+ * queued; callers leave such work to their backfill jobs. Tasks take their database connections from the
+ * maintenance pool lane.
+ */
+@Component
+public class ImageProcessingExecutor {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("image-process-", 0).factory());
+    private final Semaphore slots;
+
+    public ImageProcessingExecutor(ImageVariantProperties properties) {
+        this.slots = new Semaphore(properties.concurrency());
+    }
+
+    /**
+     * Starts the task if a processing slot is free.
+     *
+     * @param task work to run
+     * @return {@code true} when the task was started, {@code false} when all slots are busy
+     */
+    public boolean trySubmit(Runnable task) {
+        if (!slots.tryAcquire()) {
+            return false;
+        }
+        try {
+            Runnable laneTask = PoolLanes.wrap(PoolLane.MAINTENANCE, task);
+            executor.execute(() -> {
+                try {
+                    laneTask.run();
+                } finally {
+                    slots.release();
+                }
+            });
+            return true;
+        } catch (RuntimeException ex) {
+            slots.release();
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+    }
+}
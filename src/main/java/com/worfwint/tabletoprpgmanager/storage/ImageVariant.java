@@ -0,0 +1,21 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+/**
+ * Encoded resized copy of an image.
+ *
+ * @param width       width of the variant in pixels
+ * @param extension   file extension of the encoded data, without the leading dot
+ * @param contentType MIME type of the encoded data
+ * @param data        encoded image
+ */
+public record ImageVariant(int width, String extension, String contentType, byte[] data) {
+
+    /**
+     * Returns the token under which the variant is recorded, e.g. {@code 320.webp}.
+     *
+     * @return variant token
+     */
+    public String token() {
+        return width + "." + extension;
+    }
+}
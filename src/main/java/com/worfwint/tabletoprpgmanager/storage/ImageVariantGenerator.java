@@ -0,0 +1,205 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.worfwint.tabletoprpgmanager.common.exception.BadRequestException;
+
+/**
+ * Produces resized variants of an image with bounded memory.
+ * <p>
+ * The source dimensions are read from the image header and checked against the configured limits before
+ * any pixel data is decoded. The decoder then subsamples the source so that the decoded raster is only
+ * as large as the widest variant requires, and smaller variants are derived from the larger ones.
+ */
+@Component
+public class ImageVariantGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImageVariantGenerator.class);
+    private static final String FALLBACK_FORMAT = "jpeg";
+
+    private final ImageVariantProperties properties;
+    private final String format;
+
+    public ImageVariantGenerator(ImageVariantProperties properties) {
+        ImageIO.setUseCache(false);
+        this.properties = properties;
+        String configured = properties.format().toLowerCase(Locale.ROOT);
+        if (canEncode(configured)) {
+            this.format = configured;
+        } else {
+            LOG.warn("No usable ImageIO writer for '{}', image variants are encoded as JPEG", configured);
+            this.format = FALLBACK_FORMAT;
+        }
+    }
+
+    /**
+     * Decodes the image and encodes one variant per configured width not exceeding the source width.
+     * When the source is narrower than the widest configured width, a variant at the source width is
+     * added so that every image has a re-encoded full-size copy.
+     *
+     * @param input encoded source image
+     * @return variants ordered by ascending width
+     * @throws BadRequestException when the data is not a decodable image or exceeds the size limits
+     * @throws IOException when reading the source or encoding a variant fails
+     */
+    public List<ImageVariant> generate(InputStream input) throws IOException {
+        try (ImageInputStream imageInput = ImageIO.createImageInputStream(input)) {
+            if (imageInput == null) {
+                throw new BadRequestException("Unsupported image format");
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                throw new BadRequestException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                checkDimensions(sourceWidth, sourceHeight);
+
+                TreeSet<Integer> targets = targetWidths(sourceWidth);
+                int widest = targets.last();
+                int subsampling = Math.max(1, sourceWidth / widest);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = reader.read(0, param);
+
+                List<ImageVariant> variants = new ArrayList<>(targets.size());
+                for (Integer width : targets.descendingSet()) {
+                    image = resize(image, width);
+                    variants.add(0, encode(image));
+                }
+                return variants;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Checks that a writer for the format exists and actually works. Writers backed by native code,
+     * such as the WebP one, are registered even where their library cannot be loaded.
+     */
+    private static boolean canEncode(String formatName) {
+        try {
+            return ImageIO.write(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB), formatName,
+                    new ByteArrayOutputStream());
+        } catch (IOException | RuntimeException | LinkageError ex) {
+            LOG.debug("ImageIO writer for '{}' is not usable", formatName, ex);
+            return false;
+        }
+    }
+
+    private void checkDimensions(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new BadRequestException("Image has invalid dimensions");
+        }
+        if (width > properties.maxDimension() || height > properties.maxDimension()
+                || (long) width * height > properties.maxPixels()) {
+            throw new BadRequestException("Image dimensions exceed the allowed limit");
+        }
+    }
+
+    private TreeSet<Integer> targetWidths(int sourceWidth) {
+        TreeSet<Integer> targets = new TreeSet<>();
+        int widestConfigured = 0;
+        for (Integer width : properties.widths()) {
+            widestConfigured = Math.max(widestConfigured, width);
+            if (width <= sourceWidth) {
+                targets.add(width);
+            }
+        }
+        if (sourceWidth < widestConfigured) {
+            targets.add(sourceWidth);
+        }
+        return targets;
+    }
+
+    /**
+     * Scales the image to the given width, halving the size step by step for large reductions so that
+     * bilinear filtering does not skip source pixels.
+     */
+    private BufferedImage resize(BufferedImage source, int targetWidth) {
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        if (width == targetWidth && current.getType() == imageType(source)) {
+            return current;
+        }
+        int targetHeight = Math.max(1, (int) Math.round((double) height * targetWidth / width));
+        do {
+            int nextWidth = width / 2 >= targetWidth ? width / 2 : targetWidth;
+            int nextHeight = width / 2 >= targetWidth ? Math.max(1, height / 2) : targetHeight;
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, imageType(source));
+            Graphics2D graphics = next.createGraphics();
+            try {
+                if (next.getType() == BufferedImage.TYPE_INT_RGB) {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, nextWidth, nextHeight);
+                }
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+            width = nextWidth;
+            height = nextHeight;
+        } while (width != targetWidth);
+        return current;
+    }
+
+    private int imageType(BufferedImage source) {
+        boolean keepAlpha = source.getColorModel().hasAlpha() && !FALLBACK_FORMAT.equals(format);
+        return keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+    }
+
+    private ImageVariant encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                String[] compressionTypes = param.getCompressionTypes();
+                if (compressionTypes != null && compressionTypes.length > 0) {
+                    param.setCompressionType(compressionTypes[0]);
+                }
+                param.setCompressionQuality(properties.quality());
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        boolean jpeg = FALLBACK_FORMAT.equals(format);
+        return new ImageVariant(image.getWidth(), jpeg ? "jpg" : format,
+                jpeg ? "image/jpeg" : "image/" + format, output.toByteArray());
+    }
+}
@@ -0,0 +1,36 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+/**
+ * Settings of the resized image variants generated for uploaded images.
+ *
+ * @param widths            target widths in pixels; images narrower than a width are not upscaled
+ * @param format            ImageIO format name of the variants, JPEG is used when no writer is available
+ * @param quality           lossy compression quality between 0 and 1
+ * @param maxPixels         largest accepted source image in pixels, checked before decoding
+ * @param maxDimension      largest accepted source width or height in pixels
+ * @param concurrency       number of images processed at the same time
+ * @param backfillBatchSize number of articles loaded per backfill query
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.s3.image-variants")
+public record ImageVariantProperties(
+        @DefaultValue({"320", "768", "1600"}) @NotEmpty List<@Min(16) Integer> widths,
+        @DefaultValue("webp") @NotBlank String format,
+        @DefaultValue("0.8") @DecimalMin("0.0") @DecimalMax("1.0") float quality,
+        @DefaultValue("40000000") @Min(1) long maxPixels,
+        @DefaultValue("16384") @Min(1) int maxDimension,
+        @DefaultValue("2") @Min(1) int concurrency,
+        @DefaultValue("50") @Min(1) int backfillBatchSize
+) {}
@@ -0,0 +1,355 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bounded least-recently-used cache of bucket objects on the local disk.
+ * <p>
+ * Every object is stored in a file named after the SHA-256 of its key, so keys never reach the file
+ * system. Files are written under a temporary name and moved into place once complete, which makes
+ * partially downloaded objects invisible to readers. The index is rebuilt from the directory on startup,
+ * ordered by modification time.
+ * <p>
+ * Files dropped from the index are only deleted after {@link #DELETION_DELAY}. Readers that looked up an
+ * entry just before, including Tomcat's sendfile which opens the file after the request handler returned,
+ * still find it; once a file is open its deletion does not affect the reader. Objects removed from the
+ * bucket are dropped on every node through the Redis channel {@link #CHANNEL}.
+ */
+@Component
+public class MediaCache implements MessageListener {
+
+    /**
+     * Redis channel carrying the keys of objects that were removed from the bucket.
+     */
+    public static final String CHANNEL = "media:cache:invalidate";
+
+    private static final Logger LOG = LoggerFactory.getLogger(MediaCache.class);
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Duration DELETION_DELAY = Duration.ofSeconds(30);
+
+    private final MediaProperties properties;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Path directory;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    // file name -> System.nanoTime() after which the dropped file is deleted
+    private final Map<String, Long> dropped = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long totalSize;
+
+    public MediaCache(MediaProperties properties, RedisTemplate<String, String> redisTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.directory = Path.of(properties.cacheDirectory()).toAbsolutePath();
+        meterRegistry.gauge("storage.media.cache.size", this, MediaCache::size);
+    }
+
+    /**
+     * Prepares the cache directory and indexes files left by a previous run.
+     *
+     * @throws IOException when the directory cannot be created or read
+     */
+    @PostConstruct
+    public void initialize() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.filter(Files::isRegularFile).forEach(files::add);
+        }
+        files.sort(Comparator.comparingLong(this::lastModified));
+        lock.lock();
+        try {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                long size = Files.size(file);
+                entries.put(name, size);
+                totalSize += size;
+            }
+            evict();
+        } finally {
+            lock.unlock();
+        }
+        LOG.info("Media cache at {} holds {} objects", directory, entries.size());
+    }
+
+    /**
+     * Returns the cached file of the given key and marks it as recently used.
+     *
+     * @param key object key
+     * @return cached file or {@code null} on a miss
+     */
+    public CachedFile get(String key) {
+        String name = fileName(key);
+        Long size;
+        lock.lock();
+        try {
+            size = entries.get(name);
+        } finally {
+            lock.unlock();
+        }
+        if (size == null) {
+            return null;
+        }
+        Path file = directory.resolve(name);
+        if (!Files.isRegularFile(file)) {
+            remove(name);
+            return null;
+        }
+        return new CachedFile(file, size);
+    }
+
+    /**
+     * Drops the object from the local cache, e.g. when its file turned out to be missing.
+     *
+     * @param key object key
+     */
+    public void discard(String key) {
+        String name = fileName(key);
+        lock.lock();
+        try {
+            drop(name, entries.remove(name));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops objects removed from the bucket from the cache of this and every other node.
+     *
+     * @param keys keys of the removed objects
+     */
+    public void invalidate(Collection<String> keys) {
+        for (String key : keys) {
+            discard(key);
+            try {
+                redisTemplate.convertAndSend(CHANNEL, key);
+            } catch (RuntimeException ex) {
+                // other nodes keep serving the object until it is evicted
+                LOG.warn("Failed to broadcast removal of media object {}", key, ex);
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        discard(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deletes dropped files whose delay has passed, unless the object was cached again meanwhile.
+     */
+    @Scheduled(fixedDelay = 10_000)
+    public void deleteDropped() {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Iterator<Map.Entry<String, Long>> iterator = dropped.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Long> entry = iterator.next();
+                if (entry.getValue() - now > 0) {
+                    continue;
+                }
+                iterator.remove();
+                if (!entries.containsKey(entry.getKey())) {
+                    try {
+                        Files.deleteIfExists(directory.resolve(entry.getKey()));
+                    } catch (IOException ex) {
+                        LOG.warn("Failed to delete cached media file {}", entry.getKey(), ex);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether an object of the given size is cached at all.
+     *
+     * @param size object size in bytes
+     * @return {@code true} when the object fits the configured limits
+     */
+    public boolean accepts(long size) {
+        return size >= 0 && size <= properties.cacheMaxObjectSize().toBytes()
+                && size <= properties.cacheMaxSize().toBytes();
+    }
+
+    /**
+     * Opens a writer that adds the object to the cache once {@link Writer#commit()} is called.
+     *
+     * @param key object key
+     * @return writer for the object data
+     * @throws IOException when the temporary file cannot be created
+     */
+    public Writer open(String key) throws IOException {
+        String name = fileName(key);
+        Path temp = directory.resolve(name + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        return new Writer(name, temp, Files.newOutputStream(temp));
+    }
+
+    private void register(String name, Path temp) throws IOException {
+        Path target = directory.resolve(name);
+        long size = Files.size(temp);
+        lock.lock();
+        try {
+            // under the lock, so a pending deletion of a dropped copy cannot remove the new file
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            dropped.remove(name);
+            Long previous = entries.put(name, size);
+            totalSize += size - (previous != null ? previous : 0L);
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String name) {
+        lock.lock();
+        try {
+            Long size = entries.remove(name);
+            if (size != null) {
+                totalSize -= size;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets a removed index entry and schedules its file for deletion. Must be called with the lock held.
+     */
+    private void drop(String name, Long size) {
+        if (size == null) {
+            return;
+        }
+        totalSize -= size;
+        dropped.put(name, System.nanoTime() + DELETION_DELAY.toNanos());
+    }
+
+    /**
+     * Drops least recently used entries until the total size fits. Must be called with the lock held.
+     */
+    private void evict() {
+        long limit = properties.cacheMaxSize().toBytes();
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalSize > limit && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            drop(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private double size() {
+        lock.lock();
+        try {
+            return totalSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException ex) {
+            return 0L;
+        }
+    }
+
+    private String fileName(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * File holding a cached object.
+     *
+     * @param path absolute path of the file
+     * @param size size of the object in bytes
+     */
+    public record CachedFile(Path path, long size) {}
+
+    /**
+     * Receives the data of an object being added to the cache. Closing the writer without committing
+     * discards the data.
+     */
+    public final class Writer implements AutoCloseable {
+
+        private final String name;
+        private final Path temp;
+        private final OutputStream output;
+        private boolean committed;
+
+        private Writer(String name, Path temp, OutputStream output) {
+            this.name = name;
+            this.temp = temp;
+            this.output = output;
+        }
+
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            output.write(buffer, offset, length);
+        }
+
+        /**
+         * Completes the file and makes it visible to readers.
+         *
+         * @throws IOException when the file cannot be moved into place
+         */
+        public void commit() throws IOException {
+            output.close();
+            register(name, temp);
+            committed = true;
+        }
+
+        @Override
+        public void close() {
+            if (committed) {
+                return;
+            }
+            try {
+                output.close();
+                Files.deleteIfExists(temp);
+            } catch (IOException ex) {
+                LOG.debug("Failed to discard partial media file {}", temp, ex);
+            }
+        }
+    }
+}
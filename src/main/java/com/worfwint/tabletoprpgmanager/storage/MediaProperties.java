@@ -0,0 +1,27 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Settings of the media endpoint serving bucket objects through the application.
+ *
+ * @param cacheDirectory     directory holding cached objects, created on startup
+ * @param cacheMaxSize       total size of cached objects; least recently used ones are evicted beyond it
+ * @param cacheMaxObjectSize largest object that is cached, larger ones are always streamed from the bucket
+ * @param maxAge             lifetime announced in {@code Cache-Control}; keys are immutable, so it can be long
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.media")
+public record MediaProperties(
+        @DefaultValue("media-cache") @NotBlank String cacheDirectory,
+        @DefaultValue("1GB") DataSize cacheMaxSize,
+        @DefaultValue("20MB") DataSize cacheMaxObjectSize,
+        @DefaultValue("365d") Duration maxAge
+) {}
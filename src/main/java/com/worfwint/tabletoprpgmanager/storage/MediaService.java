@@ -0,0 +1,338 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import com.worfwint.tabletoprpgmanager.common.exception.TabletopRpgManagerException;
+import com.worfwint.tabletoprpgmanager.storage.exception.MediaNotFoundException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Serves bucket objects to clients when the bucket is not publicly readable.
+ * <p>
+ * Objects are served from the {@link MediaCache}. Cache hits are handed to Tomcat's sendfile support,
+ * or copied with {@link FileChannel#transferTo} where sendfile is unavailable, so the data does not pass
+ * through the heap. Misses are streamed from the bucket to the client while being written to the cache,
+ * as are hits whose file disappeared before it could be opened.
+ * Object keys never change their content, so responses carry a long-lived {@code Cache-Control} header
+ * and an ETag derived from the key.
+ */
+@Service
+public class MediaService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MediaService.class);
+    private static final Pattern SERVABLE_KEY = Pattern.compile("^news/(?!staging/)[A-Za-z0-9_\\-/]+\\.[a-z0-9]{1,5}$");
+    private static final Pattern SINGLE_RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final S3Client s3Client;
+    private final S3Properties s3Properties;
+    private final MediaProperties properties;
+    private final MediaCache cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public MediaService(S3Client s3Client,
+                        S3Properties s3Properties,
+                        MediaProperties properties,
+                        MediaCache cache,
+                        MeterRegistry meterRegistry) {
+        this.s3Client = s3Client;
+        this.s3Properties = s3Properties;
+        this.properties = properties;
+        this.cache = cache;
+        this.hits = Counter.builder("storage.media.requests").tag("cache", "hit").register(meterRegistry);
+        this.misses = Counter.builder("storage.media.requests").tag("cache", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Writes the object stored under the given key to the response, honouring conditional and range requests.
+     *
+     * @param key object key
+     * @param request current request
+     * @param response response to write to
+     * @throws IOException when writing the response fails
+     * @throws MediaNotFoundException when the key may not be served or does not exist
+     */
+    public void serve(String key, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (key == null || key.contains("..") || !SERVABLE_KEY.matcher(key).matches()) {
+            throw new MediaNotFoundException();
+        }
+        String etag = "\"" + stem(key) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                "public, max-age=" + properties.maxAge().toSeconds() + ", immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            range = null;
+        }
+
+        MediaCache.CachedFile cached = cache.get(key);
+        if (cached != null && serveCached(key, cached, range, request, response)) {
+            hits.increment();
+        } else {
+            misses.increment();
+            serveFromBucket(key, range, request, response);
+        }
+    }
+
+    /**
+     * Serves a cached file.
+     *
+     * @return {@code false} when the file is gone and nothing was written
+     */
+    private boolean serveCached(String key,
+                                MediaCache.CachedFile cached,
+                                String range,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        boolean head = "HEAD".equals(request.getMethod());
+        boolean sendfile = Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT));
+        FileChannel channel;
+        try {
+            channel = head || sendfile ? null : FileChannel.open(cached.path(), StandardOpenOption.READ);
+        } catch (NoSuchFileException ex) {
+            cache.discard(key);
+            return false;
+        }
+        try (channel) {
+            writeCached(key, cached, range, head, sendfile, channel, request, response);
+        }
+        return true;
+    }
+
+    private void writeCached(String key,
+                             MediaCache.CachedFile cached,
+                             String range,
+                             boolean head,
+                             boolean sendfile,
+                             FileChannel channel,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        long start = 0;
+        long end = cached.size();
+        if (range != null) {
+            long[] bounds = parseRange(range, cached.size());
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + cached.size());
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + start + "-" + (end - 1) + "/" + cached.size());
+            }
+        }
+        response.setContentType(contentType(key, null));
+        response.setContentLengthLong(end - start);
+        if (head) {
+            return;
+        }
+
+        if (sendfile) {
+            request.setAttribute(SENDFILE_FILENAME, cached.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+        long position = start;
+        while (position < end) {
+            long transferred = channel.transferTo(position, end - position, target);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+        }
+    }
+
+    private void serveFromBucket(String key,
+                                 String range,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        GetObjectRequest.Builder getRequest = GetObjectRequest.builder()
+                .bucket(s3Properties.bucket())
+                .key(key);
+        boolean partial = range != null && SINGLE_RANGE.matcher(range).matches();
+        if (partial) {
+            // ranges of uncached objects are proxied as-is and not cached
+            getRequest.range(range);
+        }
+
+        ResponseInputStream<GetObjectResponse> object;
+        try {
+            object = s3Client.getObject(getRequest.build());
+        } catch (NoSuchKeyException ex) {
+            throw new MediaNotFoundException(ex);
+        } catch (S3Exception ex) {
+            if (ex.statusCode() == HttpStatus.NOT_FOUND.value()) {
+                throw new MediaNotFoundException(ex);
+            }
+            if (ex.statusCode() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            throw new TabletopRpgManagerException("Failed to read media object", ex);
+        }
+
+        try (object) {
+            GetObjectResponse metadata = object.response();
+            response.setContentType(contentType(key, metadata.contentType()));
+            if (metadata.contentLength() != null) {
+                response.setContentLengthLong(metadata.contentLength());
+            }
+            if (partial && metadata.contentRange() != null) {
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, metadata.contentRange());
+            }
+            if ("HEAD".equals(request.getMethod())) {
+                return;
+            }
+            boolean cacheable = !partial && metadata.contentLength() != null && cache.accepts(metadata.contentLength());
+            if (cacheable) {
+                copyAndCache(key, object, response.getOutputStream());
+            } else {
+                object.transferTo(response.getOutputStream());
+            }
+        }
+    }
+
+    /**
+     * Copies the object to the client and the cache at the same time. When the client goes away the
+     * download still completes, so the next request is served from the cache.
+     */
+    private void copyAndCache(String key, InputStream input, OutputStream output) throws IOException {
+        IOException clientFailure = null;
+        try (MediaCache.Writer writer = cache.open(key)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                writer.write(buffer, 0, read);
+                if (clientFailure == null) {
+                    try {
+                        output.write(buffer, 0, read);
+                    } catch (IOException ex) {
+                        clientFailure = ex;
+                    }
+                }
+            }
+            writer.commit();
+        } catch (IOException ex) {
+            if (clientFailure == null) {
+                LOG.warn("Failed to cache media object {}", key, ex);
+                throw ex;
+            }
+        }
+        if (clientFailure != null) {
+            throw clientFailure;
+        }
+    }
+
+    /**
+     * Parses a single byte range.
+     *
+     * @return {@code [start, endExclusive]}, an empty array when the header should be ignored,
+     *         or {@code null} when the range cannot be satisfied
+     */
+    private long[] parseRange(String range, long size) {
+        Matcher matcher = SINGLE_RANGE.matcher(range.trim());
+        if (!matcher.matches()) {
+            // multiple or malformed ranges are answered with the full object
+            return new long[0];
+        }
+        String first = matcher.group(1);
+        String last = matcher.group(2);
+        try {
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return new long[0];
+                }
+                long suffix = Long.parseLong(last);
+                if (suffix == 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffix);
+                end = size;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size : Math.min(size, Long.parseLong(last) + 1);
+            }
+            if (start >= size || start >= end) {
+                return null;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException ex) {
+            return new long[0];
+        }
+    }
+
+    private boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag) || value.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String contentType(String key, String stored) {
+        if (stored != null && !stored.isBlank()) {
+            return stored;
+        }
+        return MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+
+    private String stem(String key) {
+        String name = key.substring(key.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
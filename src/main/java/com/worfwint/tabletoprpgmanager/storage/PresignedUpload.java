@@ -0,0 +1,21 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Presigned request allowing a client to upload an object directly to the bucket.
+ *
+ * @param url            presigned URL the object has to be sent to, {@code null} when no upload is required
+ * @param method         HTTP method the URL was signed for
+ * @param headers        headers that were signed and must be sent unchanged with the upload
+ * @param key            object key the upload will be stored under
+ * @param expiresAt      moment after which the URL is no longer accepted
+ * @param uploadRequired {@code false} when identical content is already stored under {@code key}
+ */
+public record PresignedUpload(String url,
+                              String method,
+                              Map<String, String> headers,
+                              String key,
+                              Instant expiresAt,
+                              boolean uploadRequired) {}
@@ -5,21 +5,72 @@ import java.net.URI;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.worfwint.tabletoprpgmanager.common.jfr.S3StageInterceptor;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 @Configuration
-@EnableConfigurationProperties(S3Properties.class)
+@EnableConfigurationProperties({
+        S3Properties.class,
+        StorageCleanupProperties.class,
+        ImageVariantProperties.class,
+        MediaProperties.class
+})
 public class S3Config {
 
     @Bean
     public S3Client s3Client(S3Properties properties) {
         String endpoint = normalizeEndpoint(properties.endpoint(), properties.bucket());
         return S3Client.builder()
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(properties.accessKey(), properties.secretKey())))
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.of(properties.region()))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(true)
+                        .build())
+                .overrideConfiguration(config -> config.addExecutionInterceptor(new S3StageInterceptor()))
+                .build();
+    }
+
+    @Bean
+    public S3AsyncClient s3AsyncClient(S3Properties properties) {
+        String endpoint = normalizeEndpoint(properties.endpoint(), properties.bucket());
+        return S3AsyncClient.builder()
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(properties.accessKey(), properties.secretKey())))
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.of(properties.region()))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(true)
+                        .build())
+                .overrideConfiguration(config -> config.addExecutionInterceptor(new S3StageInterceptor()))
+                .build();
+    }
+
+    @Bean
+    public RedisMessageListenerContainer mediaCacheListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                     MediaCache mediaCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(mediaCache, new ChannelTopic(MediaCache.CHANNEL));
+        return container;
+    }
+
+    @Bean
+    public S3Presigner s3Presigner(S3Properties properties) {
+        String endpoint = normalizeEndpoint(properties.endpoint(), properties.bucket());
+        return S3Presigner.builder()
                 .credentialsProvider(StaticCredentialsProvider.create(
                         AwsBasicCredentials.create(properties.accessKey(), properties.secretKey())))
                 .endpointOverride(URI.create(endpoint))
@@ -1,8 +1,13 @@
 package com.worfwint.tabletoprpgmanager.storage;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 
 @Validated
@@ -11,8 +16,14 @@ public record S3Properties(
         @NotBlank String endpoint,
         @NotBlank String bucket,
         @NotBlank String publicBaseUrl,
+        @DefaultValue("/api/media") @NotBlank String mediaBaseUrl,
         @NotBlank String region,
         String accessKey,
         String secretKey,
-        boolean publicRead
+        boolean publicRead,
+        @DefaultValue("10MB") DataSize maxImageSize,
+        @DefaultValue("10m") Duration presignExpiration,
+        @DefaultValue("8MB") DataSize uploadPartSize,
+        @DefaultValue("4") @Min(1) int uploadConcurrency,
+        @DefaultValue("16") @Min(2) int uploadBufferPoolSize
 ) {}
@@ -1,126 +1,459 @@
 package com.worfwint.tabletoprpgmanager.storage;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.worfwint.tabletoprpgmanager.common.exception.BadRequestException;
 import com.worfwint.tabletoprpgmanager.common.exception.TabletopRpgManagerException;
+import com.worfwint.tabletoprpgmanager.storage.exception.RejectedUploadException;
 
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
 import software.amazon.awssdk.services.s3.model.S3Exception;
-import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 
 @Service
 public class S3StorageService {
 
+    private static final int MAX_DELETE_BATCH = 1000;
+    private static final int SHA256_LENGTH = 32;
+    private static final String NEWS_IMAGE_PREFIX = "news/";
+    private static final String STAGING_PREFIX = "staging/";
+    private static final Pattern NEWS_IMAGE_KEY = Pattern.compile("^news/([0-9a-f]{64})\\.[a-z0-9]{1,5}$");
+    private static final Pattern STAGED_IMAGE_KEY =
+            Pattern.compile("^news/staging/([0-9a-f]{64})-[0-9a-f\\-]{36}\\.[a-z0-9]{1,5}$");
+
     private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final S3StreamingUploader streamingUploader;
+    private final ImageVariantGenerator variantGenerator;
     private final S3Properties properties;
 
-    public S3StorageService(S3Client s3Client, S3Properties properties) {
+    public S3StorageService(S3Client s3Client,
+                            S3Presigner s3Presigner,
+                            S3StreamingUploader streamingUploader,
+                            ImageVariantGenerator variantGenerator,
+                            S3Properties properties) {
         this.s3Client = s3Client;
+        this.s3Presigner = s3Presigner;
+        this.streamingUploader = streamingUploader;
+        this.variantGenerator = variantGenerator;
         this.properties = properties;
     }
 
-    public String uploadNewsImage(Long articleId, MultipartFile file) {
+    public String uploadNewsImage(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new BadRequestException("Image file is required");
         }
-        if (isBlank(properties.accessKey()) || isBlank(properties.secretKey())) {
-            throw new TabletopRpgManagerException("S3 credentials are not configured");
+        try (InputStream inputStream = file.getInputStream()) {
+            return uploadNewsImage(file.getContentType(), inputStream);
+        } catch (IOException ex) {
+            throw new TabletopRpgManagerException("Failed to upload image", ex);
         }
-        String contentType = file.getContentType();
+    }
+
+    /**
+     * Streams an article image into the bucket without buffering the whole file.
+     * <p>
+     * The image format is detected from the leading bytes and determines the stored content type
+     * and file extension. The object key is derived from the SHA-256 digest of the content, so an
+     * image that is already stored is not written again.
+     *
+     * @param contentType declared MIME type of the image
+     * @param inputStream image data, read until end of stream
+     * @return public URL of the stored image
+     */
+    public String uploadNewsImage(String contentType, InputStream inputStream) {
+        ensureCredentialsConfigured();
         if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("image/")) {
             throw new BadRequestException("Only image files are allowed");
         }
 
-        String extension = resolveExtension(file.getOriginalFilename(), contentType);
-        String key = "news/" + articleId + "/" + UUID.randomUUID() + extension;
+        // the signature is checked before anything is sent, the declared type is not trusted
+        BufferedInputStream input = new BufferedInputStream(inputStream);
+        ImageFormat format = detectFormat(input);
+        StoredObject stored = streamingUploader.uploadContentAddressed(
+                NEWS_IMAGE_PREFIX + STAGING_PREFIX + UUID.randomUUID(),
+                sha256 -> buildNewsImageKey(sha256, format),
+                format.getContentType(), input, properties.maxImageSize().toBytes());
+        return buildPublicUrl(stored.key());
+    }
+
+    /**
+     * Generates the configured resized variants of a stored image and writes them next to the original.
+     *
+     * @param publicUrl public URL of the original image
+     * @return tokens of the stored variants, see {@link ImageVariant#token()}
+     * @throws BadRequestException when the original is not a decodable image within the size limits
+     */
+    public List<String> storeImageVariants(String publicUrl) {
+        String key = extractKey(publicUrl);
+        if (key == null || key.isBlank()) {
+            throw new BadRequestException("Image is not stored in the bucket");
+        }
+        List<ImageVariant> variants;
+        try (InputStream original = s3Client.getObject(builder -> builder.bucket(properties.bucket()).key(key))) {
+            variants = variantGenerator.generate(original);
+        } catch (IOException | S3Exception ex) {
+            throw new TabletopRpgManagerException("Failed to read image " + key, ex);
+        }
+
+        List<String> tokens = new ArrayList<>(variants.size());
+        for (ImageVariant variant : variants) {
+            PutObjectRequest.Builder request = PutObjectRequest.builder()
+                    .bucket(properties.bucket())
+                    .key(variantKey(key, variant.token()))
+                    .contentType(variant.contentType())
+                    .contentLength((long) variant.data().length);
+            if (properties.publicRead()) {
+                request.acl(ObjectCannedACL.PUBLIC_READ);
+            }
+            try {
+                s3Client.putObject(request.build(), RequestBody.fromBytes(variant.data()));
+            } catch (S3Exception ex) {
+                throw new TabletopRpgManagerException("Failed to store image variant", ex);
+            }
+            tokens.add(variant.token());
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the key of a variant stored next to the given original, e.g.
+     * {@code news/1/abc_320.webp} for {@code news/1/abc.jpg}.
+     *
+     * @param originalKey key of the original image
+     * @param token variant token
+     * @return key of the variant
+     */
+    public String variantKey(String originalKey, String token) {
+        int slash = originalKey.lastIndexOf('/');
+        int dot = originalKey.lastIndexOf('.');
+        String base = dot > slash ? originalKey.substring(0, dot) : originalKey;
+        return base + "_" + token;
+    }
+
+    /**
+     * Returns the public URL of a variant of the given image.
+     *
+     * @param publicUrl public URL of the original image
+     * @param token variant token
+     * @return public URL of the variant or {@code null} when the original is not stored in the bucket
+     */
+    public String buildVariantUrl(String publicUrl, String token) {
+        String key = extractKey(publicUrl);
+        return key != null ? buildPublicUrl(variantKey(key, token)) : null;
+    }
+
+    /**
+     * Presigns a PUT request that lets the client upload an article image straight to the bucket.
+     * The declared content type, exact content length and SHA-256 checksum are part of the signature.
+     * When an object with that checksum is already stored, no upload is needed. Otherwise the upload
+     * goes to a staging key unique to this request, so a presigned URL can never overwrite a content
+     * addressed object. Not every provider enforces the signed checksum, so
+     * {@link #confirmNewsImageUpload(String)} hashes the staged object itself.
+     *
+     * @param contentType declared MIME type of the image
+     * @param contentLength declared size of the image in bytes
+     * @param checksumSha256 Base64 encoded SHA-256 digest of the image
+     * @return presigned upload description
+     */
+    public PresignedUpload presignNewsImageUpload(String contentType, long contentLength, String checksumSha256) {
+        ensureCredentialsConfigured();
+        validateImage(contentType, contentLength);
+        byte[] digest = decodeChecksum(checksumSha256);
 
+        String sha256 = HexFormat.of().formatHex(digest);
+        ImageFormat format = ImageFormat.fromContentType(contentType);
+        String existingKey = buildNewsImageKey(sha256, format);
+        if (streamingUploader.exists(existingKey)) {
+            return new PresignedUpload(null, null, Map.of(), existingKey, null, false);
+        }
+        String key = NEWS_IMAGE_PREFIX + STAGING_PREFIX + sha256 + "-" + UUID.randomUUID() + format.getExtension();
         PutObjectRequest.Builder requestBuilder = PutObjectRequest.builder()
                 .bucket(properties.bucket())
                 .key(key)
-                .contentType(contentType);
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .checksumSHA256(Base64.getEncoder().encodeToString(digest));
         if (properties.publicRead()) {
             requestBuilder.acl(ObjectCannedACL.PUBLIC_READ);
         }
 
-        try (InputStream inputStream = file.getInputStream()) {
-            s3Client.putObject(requestBuilder.build(),
-                    RequestBody.fromInputStream(inputStream, file.getSize()));
-        } catch (IOException | S3Exception ex) {
-            throw new TabletopRpgManagerException("Failed to upload image", ex);
+        PresignedPutObjectRequest presigned;
+        try {
+            presigned = s3Presigner.presignPutObject(builder -> builder
+                    .signatureDuration(properties.presignExpiration())
+                    .putObjectRequest(requestBuilder.build()));
+        } catch (S3Exception ex) {
+            throw new TabletopRpgManagerException("Failed to prepare image upload", ex);
         }
 
-        return buildPublicUrl(key);
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> header : presigned.signedHeaders().entrySet()) {
+            if (!"host".equalsIgnoreCase(header.getKey())) {
+                headers.put(header.getKey(), String.join(",", header.getValue()));
+            }
+        }
+        return new PresignedUpload(presigned.url().toString(), presigned.httpRequest().method().name(),
+                headers, key, presigned.expiration(), true);
     }
 
-    public void deleteByPublicUrl(String publicUrl) {
-        String key = extractKey(publicUrl);
-        if (key == null || key.isBlank()) {
-            return;
+    /**
+     * Verifies an object uploaded through a presigned request and returns the public URL of the image.
+     * <p>
+     * A staged upload is read back and hashed, and its format is detected from the leading bytes. Only
+     * when the digest matches the checksum declared for the upload is it copied to its content addressed
+     * key. A key returned for already stored content is accepted as is.
+     * Staged objects that fail verification are left in place; the caller releases them through
+     * {@link StorageCleanupService#discard(String)}.
+     *
+     * @param key object key returned when the upload was presigned
+     * @return public URL of the verified image
+     * @throws RejectedUploadException when the uploaded object does not pass verification
+     */
+    public String confirmNewsImageUpload(String key) {
+        if (key != null && NEWS_IMAGE_KEY.matcher(key).matches()) {
+            // content addressed objects are only written after their digest was computed here
+            if (!streamingUploader.exists(key)) {
+                throw new BadRequestException("Uploaded image was not found");
+            }
+            return buildPublicUrl(key);
         }
-        try {
-            s3Client.deleteObject(builder -> builder.bucket(properties.bucket()).key(key));
+        Matcher matcher = key != null ? STAGED_IMAGE_KEY.matcher(key) : null;
+        if (matcher == null || !matcher.matches()) {
+            throw new BadRequestException("Image key is not a valid article image key");
+        }
+
+        ImageFormat format;
+        String sha256;
+        try (ResponseInputStream<GetObjectResponse> object = s3Client.getObject(builder -> builder
+                .bucket(properties.bucket())
+                .key(key))) {
+            GetObjectResponse response = object.response();
+            try {
+                validateImage(response.contentType(), response.contentLength() != null ? response.contentLength() : 0L);
+                BufferedInputStream input = new BufferedInputStream(object);
+                format = detectFormat(input);
+                if (format != ImageFormat.fromContentType(response.contentType())) {
+                    throw new BadRequestException("Uploaded image does not match its declared type");
+                }
+                sha256 = digest(input, properties.maxImageSize().toBytes());
+                if (!sha256.equals(matcher.group(1))) {
+                    throw new BadRequestException("Uploaded image does not match its checksum");
+                }
+            } catch (BadRequestException ex) {
+                throw new RejectedUploadException(ex);
+            }
+        } catch (NoSuchKeyException ex) {
+            throw new BadRequestException("Uploaded image was not found", ex);
         } catch (S3Exception ex) {
-            throw new TabletopRpgManagerException("Failed to delete image", ex);
+            if (ex.statusCode() == 404) {
+                throw new BadRequestException("Uploaded image was not found", ex);
+            }
+            throw new TabletopRpgManagerException("Failed to verify uploaded image", ex);
+        } catch (IOException ex) {
+            throw new TabletopRpgManagerException("Failed to verify uploaded image", ex);
         }
+
+        String contentKey = buildNewsImageKey(sha256, format);
+        streamingUploader.promote(key, contentKey);
+        return buildPublicUrl(contentKey);
     }
 
-    private String buildPublicUrl(String key) {
-        String baseUrl = properties.publicBaseUrl();
-        if (baseUrl.endsWith("/")) {
-            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+    private void validateImage(String contentType, long contentLength) {
+        if (ImageFormat.fromContentType(contentType) == null) {
+            throw new BadRequestException("Only JPEG, PNG, GIF, WebP and BMP images are allowed");
+        }
+        if (contentLength <= 0) {
+            throw new BadRequestException("Image file is required");
+        }
+        if (contentLength > properties.maxImageSize().toBytes()) {
+            throw new BadRequestException("Image must not exceed " + properties.maxImageSize().toMegabytes() + " MB");
         }
-        return baseUrl + "/" + key;
     }
 
-    private String extractKey(String publicUrl) {
-        if (publicUrl == null) {
-            return null;
+    private ImageFormat detectFormat(BufferedInputStream input) {
+        byte[] header = new byte[ImageFormat.SIGNATURE_LENGTH];
+        ImageFormat format;
+        try {
+            input.mark(header.length);
+            int length = input.readNBytes(header, 0, header.length);
+            input.reset();
+            format = ImageFormat.detect(header, length);
+        } catch (IOException ex) {
+            throw new TabletopRpgManagerException("Failed to read uploaded image", ex);
         }
-        String baseUrl = properties.publicBaseUrl();
-        if (baseUrl.endsWith("/")) {
-            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        if (format == null) {
+            throw new BadRequestException("Only JPEG, PNG, GIF, WebP and BMP images are allowed");
         }
-        if (!publicUrl.startsWith(baseUrl + "/")) {
-            return null;
+        return format;
+    }
+
+    private String digest(InputStream input, long maxBytes) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new BadRequestException("Image must not exceed " + properties.maxImageSize().toMegabytes() + " MB");
+            }
+            digest.update(buffer, 0, read);
         }
-        return publicUrl.substring(baseUrl.length() + 1);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void ensureCredentialsConfigured() {
+        if (isBlank(properties.accessKey()) || isBlank(properties.secretKey())) {
+            throw new TabletopRpgManagerException("S3 credentials are not configured");
+        }
+    }
+
+    private String buildNewsImageKey(String sha256, ImageFormat format) {
+        return NEWS_IMAGE_PREFIX + sha256 + format.getExtension();
     }
 
-    private String resolveExtension(String originalFilename, String contentType) {
-        if (originalFilename != null) {
-            int dotIndex = originalFilename.lastIndexOf('.');
-            if (dotIndex > 0 && dotIndex < originalFilename.length() - 1) {
-                String extension = originalFilename.substring(dotIndex).toLowerCase(Locale.ROOT);
-                if (extension.matches("\\.[a-z0-9]{1,5}")) {
-                    return extension;
+    private byte[] decodeChecksum(String checksumSha256) {
+        byte[] digest;
+        try {
+            digest = checksumSha256 != null ? Base64.getDecoder().decode(checksumSha256.trim()) : new byte[0];
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Checksum must be Base64 encoded", ex);
+        }
+        if (digest.length != SHA256_LENGTH) {
+            throw new BadRequestException("Checksum must be a SHA-256 digest");
+        }
+        return digest;
+    }
+
+    /**
+     * Deletes the given keys with multi-object {@code DeleteObjects} requests of at most 1000 keys.
+     *
+     * @param keys keys to delete
+     * @return keys that could not be deleted mapped to the reported error
+     */
+    public Map<String, String> deleteKeys(Collection<String> keys) {
+        Map<String, String> failures = new LinkedHashMap<>();
+        List<String> all = new ArrayList<>(keys);
+        for (int from = 0; from < all.size(); from += MAX_DELETE_BATCH) {
+            List<String> batch = all.subList(from, Math.min(from + MAX_DELETE_BATCH, all.size()));
+            List<ObjectIdentifier> identifiers = batch.stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            try {
+                DeleteObjectsResponse response = s3Client.deleteObjects(builder -> builder
+                        .bucket(properties.bucket())
+                        .delete(delete -> delete.objects(identifiers).quiet(true)));
+                for (S3Error error : response.errors()) {
+                    failures.put(error.key(), error.code() + ": " + error.message());
+                }
+            } catch (S3Exception ex) {
+                for (String key : batch) {
+                    failures.put(key, ex.getMessage());
                 }
             }
         }
-        return defaultExtension(contentType);
+        return failures;
     }
 
-    private String defaultExtension(String contentType) {
-        if (contentType == null) {
-            return "";
+    /**
+     * Lists keys under the given prefix that were last modified before the given instant,
+     * handing them to the consumer one listing page at a time.
+     *
+     * @param prefix key prefix to scan
+     * @param modifiedBefore only objects older than this instant are reported
+     * @param pageConsumer receives each non-empty page of matching keys
+     */
+    public void listKeys(String prefix, Instant modifiedBefore, Consumer<List<String>> pageConsumer) {
+        try {
+            for (ListObjectsV2Response page : s3Client.listObjectsV2Paginator(builder -> builder
+                    .bucket(properties.bucket())
+                    .prefix(prefix))) {
+                List<String> keys = page.contents().stream()
+                        .filter(object -> object.lastModified() != null
+                                && object.lastModified().isBefore(modifiedBefore))
+                        .map(S3Object::key)
+                        .toList();
+                if (!keys.isEmpty()) {
+                    pageConsumer.accept(keys);
+                }
+            }
+        } catch (S3Exception ex) {
+            throw new TabletopRpgManagerException("Failed to list bucket objects", ex);
         }
-        return switch (contentType.toLowerCase(Locale.ROOT)) {
-            case "image/jpeg", "image/jpg" -> ".jpg";
-            case "image/png" -> ".png";
-            case "image/gif" -> ".gif";
-            case "image/webp" -> ".webp";
-            case "image/bmp" -> ".bmp";
-            case "image/svg+xml" -> ".svg";
-            default -> "";
-        };
+    }
+
+    /**
+     * Builds the URL under which clients can fetch the given object. Objects of a public-read bucket are
+     * fetched from the bucket directly, otherwise through the media endpoint of this application.
+     *
+     * @param key object key
+     * @return public URL of the object
+     */
+    public String buildPublicUrl(String key) {
+        String baseUrl = properties.publicRead() ? properties.publicBaseUrl() : properties.mediaBaseUrl();
+        return trimTrailingSlash(baseUrl) + "/" + key;
+    }
+
+    /**
+     * Resolves the object key from a URL produced by {@link #buildPublicUrl(String)}.
+     *
+     * @param publicUrl public URL of the object
+     * @return object key or {@code null} when the URL does not point into the bucket
+     */
+    public String extractKey(String publicUrl) {
+        if (publicUrl == null) {
+            return null;
+        }
+        // URLs built before public-read was toggled keep resolving
+        for (String baseUrl : List.of(properties.publicBaseUrl(), properties.mediaBaseUrl())) {
+            String prefix = trimTrailingSlash(baseUrl) + "/";
+            if (publicUrl.startsWith(prefix)) {
+                return publicUrl.substring(prefix.length());
+            }
+        }
+        return null;
+    }
+
+    private String trimTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
     }
 
     private boolean isBlank(String value) {
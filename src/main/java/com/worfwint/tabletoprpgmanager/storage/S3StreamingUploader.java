@@ -0,0 +1,538 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.worfwint.tabletoprpgmanager.common.exception.BadRequestException;
+import com.worfwint.tabletoprpgmanager.common.exception.TabletopRpgManagerException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+/**
+ * Streams uploads into the bucket with bounded memory.
+ * <p>
+ * Data is read into fixed-size part buffers taken from a shared pool. Objects that fit into a single
+ * buffer are stored with one PUT, larger ones with a multipart upload whose parts are sent in parallel
+ * while the next part is being read. The pool caps the memory used by all uploads together, regardless
+ * of file sizes. A multipart upload needs one buffer per part in flight plus the one being filled, so the
+ * pool sets that many aside for each of a bounded number of multipart uploads; an upload either gets its
+ * whole share or waits for one, and uploads can never hold part of the pool while waiting for the rest.
+ * Failed multipart uploads are aborted so no partial parts are left behind.
+ * <p>
+ * Objects are stored under keys derived from their SHA-256 digest, so identical content is kept once.
+ */
+@Component
+public class S3StreamingUploader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(S3StreamingUploader.class);
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final long BUFFER_WAIT_SECONDS = 30;
+
+    private final S3AsyncClient s3AsyncClient;
+    private final S3Properties properties;
+    private final PartBufferPool bufferPool;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary uploadSize;
+    private final DistributionSummary uploadThroughput;
+
+    public S3StreamingUploader(S3AsyncClient s3AsyncClient, S3Properties properties, MeterRegistry meterRegistry) {
+        long partSize = properties.uploadPartSize().toBytes();
+        if (partSize < MIN_PART_SIZE || partSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("app.s3.upload-part-size must be between 5MB and 2GB");
+        }
+        if (properties.uploadBufferPoolSize() <= properties.uploadConcurrency()) {
+            throw new IllegalStateException("app.s3.upload-buffer-pool-size must exceed app.s3.upload-concurrency");
+        }
+        this.s3AsyncClient = s3AsyncClient;
+        this.properties = properties;
+        this.bufferPool = new PartBufferPool(properties.uploadBufferPoolSize(), properties.uploadConcurrency(),
+                (int) partSize);
+        this.meterRegistry = meterRegistry;
+        this.uploadSize = DistributionSummary.builder("storage.upload.size")
+                .description("Size of objects uploaded to the bucket")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.uploadThroughput = DistributionSummary.builder("storage.upload.throughput")
+                .description("Per-upload throughput to the bucket")
+                .baseUnit("bytes/s")
+                .register(meterRegistry);
+        meterRegistry.gauge("storage.upload.buffers.in.use", bufferPool, PartBufferPool::inUse);
+        meterRegistry.gauge("storage.upload.multipart.active", bufferPool, PartBufferPool::activeMultipart);
+    }
+
+    /**
+     * Uploads the stream under a key derived from the SHA-256 digest of its content.
+     * <p>
+     * The digest is computed while the data is read. Objects fitting into one part buffer are hashed
+     * before anything is sent, and the PUT is skipped when an object with that key already exists.
+     * Larger objects are streamed to the staging key as a multipart upload and then copied to their
+     * final key, unless it already exists.
+     *
+     * @param stagingKey temporary key used for multipart uploads, removed afterwards
+     * @param keyForDigest maps the hex encoded digest to the final object key
+     * @param contentType MIME type stored with the object
+     * @param input data to upload, read until end of stream
+     * @param maxBytes maximum accepted object size
+     * @return description of the stored object
+     * @throws BadRequestException when the stream is empty or exceeds {@code maxBytes}
+     */
+    public StoredObject uploadContentAddressed(String stagingKey,
+                                               Function<String, String> keyForDigest,
+                                               String contentType,
+                                               InputStream input,
+                                               long maxBytes) {
+        long start = System.nanoTime();
+        String mode = "single";
+        String outcome = "failure";
+        try {
+            MessageDigest digest = sha256();
+            byte[] first = bufferPool.acquire();
+            int firstLength;
+            try {
+                firstLength = fill(first, input);
+            } catch (RuntimeException ex) {
+                bufferPool.release(first);
+                throw ex;
+            }
+            if (firstLength == 0) {
+                bufferPool.release(first);
+                throw new BadRequestException("Image file is required");
+            }
+
+            StoredObject stored;
+            if (firstLength < first.length) {
+                digest.update(first, 0, firstLength);
+                String sha256 = HexFormat.of().formatHex(digest.digest());
+                String key = keyForDigest.apply(sha256);
+                boolean existing;
+                try {
+                    if (firstLength > maxBytes) {
+                        throw tooLarge(maxBytes);
+                    }
+                    existing = exists(key);
+                } catch (RuntimeException ex) {
+                    bufferPool.release(first);
+                    throw ex;
+                }
+                if (existing) {
+                    bufferPool.release(first);
+                } else {
+                    putSingle(key, contentType, first, firstLength, maxBytes);
+                    record(firstLength, System.nanoTime() - start);
+                }
+                stored = new StoredObject(key, firstLength, sha256, existing);
+            } else {
+                mode = "multipart";
+                long size = putMultipart(stagingKey, contentType, first, input, maxBytes, digest);
+                record(size, System.nanoTime() - start);
+                String sha256 = HexFormat.of().formatHex(digest.digest());
+                String key = keyForDigest.apply(sha256);
+                stored = new StoredObject(key, size, sha256, promote(stagingKey, key));
+            }
+            outcome = stored.deduplicated() ? "deduplicated" : "success";
+            return stored;
+        } finally {
+            Timer.builder("storage.upload.duration")
+                    .description("Time taken to stream an upload into the bucket")
+                    .tag("mode", mode)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Checks whether an object exists under the given key.
+     *
+     * @param key object key
+     * @return {@code true} when the object exists
+     */
+    public boolean exists(String key) {
+        try {
+            s3AsyncClient.headObject(builder -> builder.bucket(properties.bucket()).key(key)).join();
+            return true;
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof NoSuchKeyException
+                    || (ex.getCause() instanceof S3Exception s3Exception && s3Exception.statusCode() == 404)) {
+                return false;
+            }
+            throw new TabletopRpgManagerException("Failed to check stored image", ex.getCause());
+        }
+    }
+
+    /**
+     * Copies a verified staging object to its final key, unless an object is already stored there, and
+     * removes the staging object.
+     *
+     * @param stagingKey key of the staging object
+     * @param key final object key
+     * @return {@code true} when an object was already stored under {@code key}
+     */
+    public boolean promote(String stagingKey, String key) {
+        boolean existing = exists(key);
+        if (!existing) {
+            copy(stagingKey, key);
+        }
+        deleteQuietly(stagingKey);
+        return existing;
+    }
+
+    private void copy(String sourceKey, String destinationKey) {
+        try {
+            CopyObjectRequest.Builder request = CopyObjectRequest.builder()
+                    .sourceBucket(properties.bucket())
+                    .sourceKey(sourceKey)
+                    .destinationBucket(properties.bucket())
+                    .destinationKey(destinationKey);
+            if (properties.publicRead()) {
+                request.acl(ObjectCannedACL.PUBLIC_READ);
+            }
+            s3AsyncClient.copyObject(request.build()).join();
+        } catch (CompletionException ex) {
+            deleteQuietly(sourceKey);
+            throw new TabletopRpgManagerException("Failed to upload image", ex.getCause());
+        }
+    }
+
+    private void deleteQuietly(String key) {
+        try {
+            s3AsyncClient.deleteObject(builder -> builder.bucket(properties.bucket()).key(key)).join();
+        } catch (RuntimeException ex) {
+            // left for the orphan sweep
+            LOG.warn("Failed to remove staging object {}", key, ex);
+        }
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private long putSingle(String key, String contentType, byte[] buffer, int length, long maxBytes) {
+        try {
+            if (length > maxBytes) {
+                throw tooLarge(maxBytes);
+            }
+            PutObjectRequest.Builder request = PutObjectRequest.builder()
+                    .bucket(properties.bucket())
+                    .key(key)
+                    .contentType(contentType)
+                    .contentLength((long) length);
+            if (properties.publicRead()) {
+                request.acl(ObjectCannedACL.PUBLIC_READ);
+            }
+            s3AsyncClient.putObject(request.build(),
+                    AsyncRequestBody.fromByteBufferUnsafe(ByteBuffer.wrap(buffer, 0, length))).join();
+            return length;
+        } catch (CompletionException ex) {
+            throw new TabletopRpgManagerException("Failed to upload image", ex.getCause());
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    private long putMultipart(String key,
+                              String contentType,
+                              byte[] first,
+                              InputStream input,
+                              long maxBytes,
+                              MessageDigest digest) {
+        try {
+            bufferPool.reserveMultipart();
+        } catch (RuntimeException ex) {
+            bufferPool.release(first);
+            throw ex;
+        }
+        try {
+            return streamMultipart(key, contentType, first, input, maxBytes, digest);
+        } finally {
+            bufferPool.releaseMultipart();
+        }
+    }
+
+    /**
+     * Streams the parts of a multipart upload. Buffers are taken from the share reserved by
+     * {@link PartBufferPool#reserveMultipart()}, so this never waits for other uploads.
+     */
+    private long streamMultipart(String key,
+                                 String contentType,
+                                 byte[] first,
+                                 InputStream input,
+                                 long maxBytes,
+                                 MessageDigest digest) {
+        String uploadId;
+        try {
+            CreateMultipartUploadRequest.Builder request = CreateMultipartUploadRequest.builder()
+                    .bucket(properties.bucket())
+                    .key(key)
+                    .contentType(contentType);
+            if (properties.publicRead()) {
+                request.acl(ObjectCannedACL.PUBLIC_READ);
+            }
+            uploadId = s3AsyncClient.createMultipartUpload(request.build()).join().uploadId();
+        } catch (CompletionException ex) {
+            bufferPool.recycle(first);
+            throw new TabletopRpgManagerException("Failed to upload image", ex.getCause());
+        }
+
+        Semaphore inFlight = new Semaphore(properties.uploadConcurrency());
+        ConcurrentLinkedQueue<CompletedPart> completedParts = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger partNumber = new AtomicInteger();
+        long total = 0;
+        try {
+            byte[] buffer = first;
+            int length = first.length;
+            while (length > 0) {
+                total += length;
+                if (total > maxBytes) {
+                    bufferPool.recycle(buffer);
+                    throw tooLarge(maxBytes);
+                }
+                digest.update(buffer, 0, length);
+                acquire(inFlight);
+                if (failure.get() != null) {
+                    inFlight.release();
+                    bufferPool.recycle(buffer);
+                    break;
+                }
+                pending.add(uploadPart(key, uploadId, partNumber.incrementAndGet(), buffer, length,
+                        inFlight, completedParts, failure));
+
+                buffer = bufferPool.take();
+                try {
+                    length = fill(buffer, input);
+                } catch (RuntimeException ex) {
+                    bufferPool.recycle(buffer);
+                    throw ex;
+                }
+                if (length == 0) {
+                    bufferPool.recycle(buffer);
+                }
+            }
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(ex -> null).join();
+            if (failure.get() != null) {
+                throw new TabletopRpgManagerException("Failed to upload image", failure.get());
+            }
+
+            List<CompletedPart> parts = new ArrayList<>(completedParts);
+            parts.sort(Comparator.comparing(CompletedPart::partNumber));
+            s3AsyncClient.completeMultipartUpload(builder -> builder
+                    .bucket(properties.bucket())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(upload -> upload.parts(parts))).join();
+            return total;
+        } catch (RuntimeException ex) {
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+            abort(key, uploadId);
+            if (ex instanceof CompletionException) {
+                throw new TabletopRpgManagerException("Failed to upload image", ex.getCause());
+            }
+            throw ex;
+        }
+    }
+
+    private CompletableFuture<?> uploadPart(String key,
+                                            String uploadId,
+                                            int partNumber,
+                                            byte[] buffer,
+                                            int length,
+                                            Semaphore inFlight,
+                                            ConcurrentLinkedQueue<CompletedPart> completedParts,
+                                            AtomicReference<Throwable> failure) {
+        CompletableFuture<UploadPartResponse> future;
+        try {
+            future = s3AsyncClient.uploadPart(builder -> builder
+                            .bucket(properties.bucket())
+                            .key(key)
+                            .uploadId(uploadId)
+                            .partNumber(partNumber)
+                            .contentLength((long) length),
+                    AsyncRequestBody.fromByteBufferUnsafe(ByteBuffer.wrap(buffer, 0, length)));
+        } catch (RuntimeException ex) {
+            future = CompletableFuture.failedFuture(ex);
+        }
+        return future.whenComplete((response, ex) -> {
+            bufferPool.recycle(buffer);
+            inFlight.release();
+            if (ex != null) {
+                failure.compareAndSet(null, ex);
+            } else {
+                completedParts.add(CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(response.eTag())
+                        .build());
+            }
+        });
+    }
+
+    private void abort(String key, String uploadId) {
+        try {
+            s3AsyncClient.abortMultipartUpload(builder -> builder
+                    .bucket(properties.bucket())
+                    .key(key)
+                    .uploadId(uploadId)).join();
+        } catch (RuntimeException ex) {
+            LOG.warn("Failed to abort multipart upload {} for {}", uploadId, key, ex);
+        }
+    }
+
+    private void record(long size, long elapsedNanos) {
+        uploadSize.record(size);
+        if (elapsedNanos > 0) {
+            uploadThroughput.record(size * 1_000_000_000d / elapsedNanos);
+        }
+    }
+
+    private int fill(byte[] buffer, InputStream input) {
+        try {
+            return input.readNBytes(buffer, 0, buffer.length);
+        } catch (IOException ex) {
+            throw new TabletopRpgManagerException("Failed to read uploaded image", ex);
+        }
+    }
+
+    private void acquire(Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TabletopRpgManagerException("Upload interrupted", ex);
+        }
+    }
+
+    private BadRequestException tooLarge(long maxBytes) {
+        return new BadRequestException("Image must not exceed " + (maxBytes / (1024 * 1024)) + " MB");
+    }
+
+    /**
+     * Fixed pool of reusable part buffers. Buffers are allocated lazily up to the pool capacity.
+     * <p>
+     * Every upload takes its first buffer from the general share and waits when all of it is in use.
+     * Uploads that turn out to need several parts additionally reserve one of the multipart shares of
+     * {@code concurrency} buffers, which covers the parts in flight plus the one being filled; the first
+     * buffer's permit is kept until the whole upload finishes.
+     */
+    private static final class PartBufferPool {
+
+        private final BlockingQueue<byte[]> available;
+        private final Semaphore permits;
+        private final Semaphore multipart;
+        private final AtomicInteger inUse = new AtomicInteger();
+        private final int multipartShares;
+        private final int bufferSize;
+
+        private PartBufferPool(int capacity, int concurrency, int bufferSize) {
+            this.multipartShares = Math.max(1, capacity / (concurrency + 1));
+            this.available = new ArrayBlockingQueue<>(capacity);
+            this.permits = new Semaphore(capacity - multipartShares * concurrency);
+            this.multipart = new Semaphore(multipartShares);
+            this.bufferSize = bufferSize;
+        }
+
+        /**
+         * Takes a buffer from the general share.
+         */
+        private byte[] acquire() {
+            tryAcquire(permits);
+            return take();
+        }
+
+        /**
+         * Returns a buffer to the general share.
+         */
+        private void release(byte[] buffer) {
+            recycle(buffer);
+            permits.release();
+        }
+
+        /**
+         * Reserves a multipart share for an upload already holding its first buffer.
+         */
+        private void reserveMultipart() {
+            tryAcquire(multipart);
+        }
+
+        /**
+         * Returns the multipart share of a finished upload together with the permit of its first buffer.
+         */
+        private void releaseMultipart() {
+            multipart.release();
+            permits.release();
+        }
+
+        /**
+         * Takes a buffer covered by a permit the caller already holds.
+         */
+        private byte[] take() {
+            inUse.incrementAndGet();
+            byte[] buffer = available.poll();
+            return buffer != null ? buffer : new byte[bufferSize];
+        }
+
+        /**
+         * Puts a buffer back without returning its permit.
+         */
+        private void recycle(byte[] buffer) {
+            available.offer(buffer);
+            inUse.decrementAndGet();
+        }
+
+        private double inUse() {
+            return inUse.get();
+        }
+
+        private double activeMultipart() {
+            return multipartShares - multipart.availablePermits();
+        }
+
+        private static void tryAcquire(Semaphore semaphore) {
+            try {
+                if (!semaphore.tryAcquire(BUFFER_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                    throw new TabletopRpgManagerException("Upload capacity exhausted, try again later");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new TabletopRpgManagerException("Upload interrupted", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+/**
+ * Settings of the background removal of bucket objects.
+ *
+ * @param batchSize    number of keys removed per {@code DeleteObjects} call, at most 1000
+ * @param maxAttempts  number of failed attempts after which an entry is parked and no longer retried
+ * @param retryBackoff delay before the first retry, doubled with every further attempt
+ * @param orphanGrace  minimum age of an unreferenced object before the orphan sweep removes it
+ * @param orphanPrefix key prefix scanned by the orphan sweep
+ * @param releaseDelay delay before an object whose last reference was released is deleted, giving
+ *                     concurrent uploads of the same content time to reference it again
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.s3.cleanup")
+public record StorageCleanupProperties(
+        @DefaultValue("1000") @Min(1) @Max(1000) int batchSize,
+        @DefaultValue("8") @Min(1) int maxAttempts,
+        @DefaultValue("30s") Duration retryBackoff,
+        @DefaultValue("24h") Duration orphanGrace,
+        @DefaultValue("news/") String orphanPrefix,
+        @DefaultValue("60s") Duration releaseDelay
+) {}
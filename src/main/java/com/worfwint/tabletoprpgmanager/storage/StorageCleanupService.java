@@ -0,0 +1,233 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.worfwint.tabletoprpgmanager.storage.entity.StorageDeletion;
+import com.worfwint.tabletoprpgmanager.storage.repository.StorageDeletionRepository;
+import com.worfwint.tabletoprpgmanager.storage.repository.StorageObjectRefRepository;
+import com.worfwint.tabletoprpgmanager.common.datasource.DataSourcePool;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLane;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Removes bucket objects through a transactional outbox.
+ * <p>
+ * Callers record deletions in the same transaction that drops the reference, so a rollback also discards
+ * the deletion and no request waits on the object store. Shared objects are reference counted and only
+ * scheduled once their last reference is released. A background worker claims due entries and
+ * removes them with multi-object {@code DeleteObjects} calls, retrying failures with exponential backoff.
+ * Entries failing {@code maxAttempts} times are parked, logged and counted in {@code storage.cleanup.parked}.
+ * A periodic sweep enqueues objects that are no longer referenced by any {@link StorageReferenceResolver}.
+ * Removed objects are dropped from the {@link MediaCache} of every node.
+ */
+@Service
+public class StorageCleanupService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StorageCleanupService.class);
+
+    private final StorageDeletionRepository deletionRepository;
+    private final StorageObjectRefRepository refRepository;
+    private final S3StorageService storageService;
+    private final List<StorageReferenceResolver> referenceResolvers;
+    private final TransactionTemplate transactionTemplate;
+    private final StorageCleanupProperties properties;
+    private final MediaCache mediaCache;
+    private final Counter parked;
+
+    public StorageCleanupService(StorageDeletionRepository deletionRepository,
+                                 StorageObjectRefRepository refRepository,
+                                 S3StorageService storageService,
+                                 List<StorageReferenceResolver> referenceResolvers,
+                                 TransactionTemplate transactionTemplate,
+                                 StorageCleanupProperties properties,
+                                 MediaCache mediaCache,
+                                 MeterRegistry meterRegistry) {
+        this.deletionRepository = deletionRepository;
+        this.refRepository = refRepository;
+        this.storageService = storageService;
+        this.referenceResolvers = referenceResolvers;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.mediaCache = mediaCache;
+        this.parked = Counter.builder("storage.cleanup.parked")
+                .description("Outbox entries that exhausted their attempts and are no longer retried")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds a reference to the given object in the current transaction.
+     *
+     * @param key object key, ignored when blank
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void retain(String key) {
+        if (key == null || key.isBlank()) {
+            return;
+        }
+        refRepository.increment(key);
+    }
+
+    /**
+     * Removes a reference from the given object in the current transaction and schedules its deletion
+     * when no references are left. Objects without a counter predate reference counting and are not
+     * shared, so they are scheduled right away.
+     *
+     * @param key object key, ignored when blank
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(String key) {
+        if (key == null || key.isBlank()) {
+            return;
+        }
+        if (refRepository.decrement(key) == 0) {
+            deletionRepository.save(new StorageDeletion(key));
+            return;
+        }
+        if (refRepository.deleteUnreferenced(key) > 0) {
+            deletionRepository.save(new StorageDeletion(key, LocalDateTime.now().plus(properties.releaseDelay())));
+        }
+    }
+
+    /**
+     * Schedules the removal of an uploaded object that was rejected before anything referenced it.
+     * The entry is recorded in its own transaction so it survives the rollback of the caller, and the
+     * object is kept if a reference to it exists by the time the entry is processed.
+     *
+     * @param key object key, ignored when blank
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void discard(String key) {
+        if (key == null || key.isBlank()) {
+            return;
+        }
+        Set<String> candidate = Set.of(key);
+        if (!refRepository.findReferencedKeys(candidate).isEmpty()) {
+            return;
+        }
+        for (StorageReferenceResolver resolver : referenceResolvers) {
+            if (!resolver.findReferencedKeys(candidate).isEmpty()) {
+                return;
+            }
+        }
+        deletionRepository.save(new StorageDeletion(key, LocalDateTime.now().plus(properties.releaseDelay())));
+    }
+
+    /**
+     * Records the deletion of the given object key in the current transaction.
+     *
+     * @param key object key, ignored when blank
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void scheduleKeyDeletion(String key) {
+        if (key == null || key.isBlank()) {
+            return;
+        }
+        deletionRepository.save(new StorageDeletion(key));
+    }
+
+    /**
+     * Processes due outbox entries until none are left.
+     */
+    @Scheduled(initialDelayString = "${app.s3.cleanup.initial-delay:PT20S}",
+               fixedDelayString = "${app.s3.cleanup.interval:PT10S}")
+    @DataSourcePool(PoolLane.MAINTENANCE)
+    public void processOutbox() {
+        int processed;
+        do {
+            Integer claimed = transactionTemplate.execute(status -> processBatch());
+            processed = claimed != null ? claimed : 0;
+        } while (processed >= properties.batchSize());
+    }
+
+    /**
+     * Enqueues objects under the configured prefix that are older than the grace period and no longer referenced.
+     */
+    @Scheduled(cron = "${app.s3.cleanup.orphan-sweep-cron:0 30 3 * * *}")
+    @DataSourcePool(PoolLane.MAINTENANCE)
+    public void sweepOrphans() {
+        Instant cutoff = Instant.now().minus(properties.orphanGrace());
+        List<Integer> enqueued = new ArrayList<>(1);
+        enqueued.add(0);
+        storageService.listKeys(properties.orphanPrefix(), cutoff, keys -> {
+            Integer count = transactionTemplate.execute(status -> enqueueOrphans(keys));
+            enqueued.set(0, enqueued.get(0) + (count != null ? count : 0));
+        });
+        if (enqueued.get(0) > 0) {
+            LOG.info("Orphan sweep scheduled {} unreferenced objects for deletion", enqueued.get(0));
+        }
+    }
+
+    private int processBatch() {
+        List<StorageDeletion> due = deletionRepository.claimDue(properties.batchSize());
+        if (due.isEmpty()) {
+            return 0;
+        }
+        Set<String> keys = new HashSet<>();
+        for (StorageDeletion deletion : due) {
+            keys.add(deletion.getObjectKey());
+        }
+        // objects referenced again after their release are kept, their outbox entries are just dropped
+        keys.removeAll(refRepository.findReferencedKeys(keys));
+        Map<String, String> failures = keys.isEmpty() ? Map.of() : storageService.deleteKeys(keys);
+
+        List<StorageDeletion> completed = new ArrayList<>(due.size());
+        for (StorageDeletion deletion : due) {
+            String error = failures.get(deletion.getObjectKey());
+            if (error == null) {
+                completed.add(deletion);
+            } else if (deletion.getAttempts() + 1 >= properties.maxAttempts()) {
+                deletion.park(error);
+                parked.increment();
+                LOG.error("Giving up deleting bucket object {} after {} attempts, parked outbox entry {}: {}",
+                        deletion.getObjectKey(), deletion.getAttempts(), deletion.getId(), error);
+            } else {
+                deletion.markFailed(error, LocalDateTime.now().plus(backoff(deletion.getAttempts())));
+            }
+        }
+        deletionRepository.deleteAllInBatch(completed);
+        keys.removeAll(failures.keySet());
+        if (!keys.isEmpty()) {
+            mediaCache.invalidate(keys);
+        }
+        if (!failures.isEmpty()) {
+            LOG.warn("Failed to delete {} of {} bucket objects, they will be retried", failures.size(), keys.size());
+        }
+        return due.size();
+    }
+
+    private int enqueueOrphans(Collection<String> keys) {
+        Set<String> candidates = new HashSet<>(keys);
+        for (StorageReferenceResolver resolver : referenceResolvers) {
+            candidates.removeAll(resolver.findReferencedKeys(candidates));
+            if (candidates.isEmpty()) {
+                return 0;
+            }
+        }
+        candidates.removeAll(deletionRepository.findPendingKeys(candidates));
+        List<StorageDeletion> deletions = candidates.stream().map(StorageDeletion::new).toList();
+        deletionRepository.saveAll(deletions);
+        return deletions.size();
+    }
+
+    private Duration backoff(int previousAttempts) {
+        return properties.retryBackoff().multipliedBy(1L << Math.min(previousAttempts, 20));
+    }
+}
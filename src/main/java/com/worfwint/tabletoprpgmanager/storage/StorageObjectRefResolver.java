@@ -0,0 +1,26 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.worfwint.tabletoprpgmanager.storage.repository.StorageObjectRefRepository;
+
+/**
+ * Reports objects that still hold at least one counted reference.
+ */
+@Component
+public class StorageObjectRefResolver implements StorageReferenceResolver {
+
+    private final StorageObjectRefRepository refRepository;
+
+    public StorageObjectRefResolver(StorageObjectRefRepository refRepository) {
+        this.refRepository = refRepository;
+    }
+
+    @Override
+    public Set<String> findReferencedKeys(Collection<String> keys) {
+        return refRepository.findReferencedKeys(keys);
+    }
+}
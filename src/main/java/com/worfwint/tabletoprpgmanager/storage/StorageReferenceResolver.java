@@ -0,0 +1,21 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Tells the orphan sweep which bucket objects are still referenced by application data.
+ * <p>
+ * Every feature that stores object keys or URLs in its tables contributes an implementation; an object
+ * is only considered orphaned when no resolver reports it as referenced.
+ */
+public interface StorageReferenceResolver {
+
+    /**
+     * Returns the subset of the given keys that is still in use.
+     *
+     * @param keys candidate object keys
+     * @return referenced keys
+     */
+    Set<String> findReferencedKeys(Collection<String> keys);
+}
@@ -0,0 +1,11 @@
+package com.worfwint.tabletoprpgmanager.storage;
+
+/**
+ * Result of storing content under its content-derived key.
+ *
+ * @param key          key the content is stored under
+ * @param size         size of the content in bytes
+ * @param sha256       hex encoded SHA-256 digest of the content
+ * @param deduplicated whether an identical object already existed and no data was written
+ */
+public record StoredObject(String key, long size, String sha256, boolean deduplicated) {}
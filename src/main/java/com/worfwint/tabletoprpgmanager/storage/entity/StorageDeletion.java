@@ -0,0 +1,127 @@
+package com.worfwint.tabletoprpgmanager.storage.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * Outbox entry describing a bucket object that has to be removed once the recording transaction commits.
+ * Entries that keep failing are parked and left for an operator, who can retry them by clearing
+ * {@code parked_at}.
+ */
+@Entity
+@Table(name = "storage_deletion_outbox",
+       indexes = @Index(name = "idx_storage_deletion_next_attempt", columnList = "next_attempt_at"))
+@EntityListeners(AuditingEntityListener.class)
+public class StorageDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "storage_deletion_outbox_seq")
+    @SequenceGenerator(name = "storage_deletion_outbox_seq", sequenceName = "storage_deletion_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "object_key", nullable = false, length = 1024)
+    private String objectKey;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 512)
+    private String lastError;
+
+    @Column(name = "parked_at")
+    private LocalDateTime parkedAt;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    protected StorageDeletion() {}
+
+    /**
+     * Creates an outbox entry that is due immediately.
+     *
+     * @param objectKey key of the object to delete
+     */
+    public StorageDeletion(String objectKey) {
+        this(objectKey, LocalDateTime.now());
+    }
+
+    /**
+     * Creates an outbox entry that becomes due at the given moment.
+     *
+     * @param objectKey key of the object to delete
+     * @param notBefore moment of the first attempt
+     */
+    public StorageDeletion(String objectKey, LocalDateTime notBefore) {
+        this.objectKey = objectKey;
+        this.nextAttemptAt = notBefore;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getObjectKey() {
+        return objectKey;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public LocalDateTime getParkedAt() {
+        return parkedAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Records a failed attempt and postpones the next one.
+     *
+     * @param error description of the failure
+     * @param nextAttemptAt moment of the next attempt
+     */
+    public void markFailed(String error, LocalDateTime nextAttemptAt) {
+        this.attempts++;
+        this.lastError = error != null && error.length() > 512 ? error.substring(0, 512) : error;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    /**
+     * Records a failed attempt and stops retrying the entry.
+     *
+     * @param error description of the failure
+     */
+    public void park(String error) {
+        markFailed(error, nextAttemptAt);
+        this.parkedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,46 @@
+package com.worfwint.tabletoprpgmanager.storage.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Number of application records referencing a content-addressed bucket object.
+ * <p>
+ * Rows are maintained with native upserts by {@code StorageObjectRefRepository}; the entity only
+ * defines the table.
+ */
+@Entity
+@Table(name = "storage_object_refs")
+public class StorageObjectRef {
+
+    @Id
+    @Column(name = "object_key", length = 1024)
+    private String objectKey;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    protected StorageObjectRef() {}
+
+    public String getObjectKey() {
+        return objectKey;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,25 @@
+package com.worfwint.tabletoprpgmanager.storage.exception;
+
+import com.worfwint.tabletoprpgmanager.common.exception.NotFoundException;
+
+/**
+ * Exception thrown when a requested media object does not exist or may not be served.
+ */
+public class MediaNotFoundException extends NotFoundException {
+
+    /**
+     * Creates the exception with a default message.
+     */
+    public MediaNotFoundException() {
+        super("Media not found");
+    }
+
+    /**
+     * Creates the exception with a default message and the underlying cause.
+     *
+     * @param cause original cause of the missing object
+     */
+    public MediaNotFoundException(Throwable cause) {
+        super("Media not found", cause);
+    }
+}
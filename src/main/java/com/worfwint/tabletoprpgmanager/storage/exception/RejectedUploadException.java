@@ -0,0 +1,19 @@
+package com.worfwint.tabletoprpgmanager.storage.exception;
+
+import com.worfwint.tabletoprpgmanager.common.exception.BadRequestException;
+
+/**
+ * Exception thrown when an object uploaded through a presigned request does not pass verification.
+ * The object stays in the bucket until the caller releases it.
+ */
+public class RejectedUploadException extends BadRequestException {
+
+    /**
+     * Creates the exception with the reason of the rejection.
+     *
+     * @param cause validation failure describing why the upload was rejected
+     */
+    public RejectedUploadException(BadRequestException cause) {
+        super(cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,43 @@
+package com.worfwint.tabletoprpgmanager.storage.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.worfwint.tabletoprpgmanager.storage.entity.StorageDeletion;
+
+/**
+ * Repository for the storage deletion outbox.
+ */
+public interface StorageDeletionRepository extends JpaRepository<StorageDeletion, Long> {
+
+    /**
+     * Locks and returns due outbox entries that are not parked, skipping rows already claimed by other workers.
+     *
+     * @param limit maximum number of entries to claim
+     * @return claimed entries ordered by identifier
+     */
+    @Query(value = """
+        SELECT *
+        FROM storage_deletion_outbox
+        WHERE next_attempt_at <= now()
+          AND parked_at IS NULL
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<StorageDeletion> claimDue(@Param("limit") int limit);
+
+    /**
+     * Returns which of the given keys are already waiting for deletion or parked.
+     *
+     * @param keys candidate object keys
+     * @return subset of keys present in the outbox
+     */
+    @Query("SELECT d.objectKey FROM StorageDeletion d WHERE d.objectKey IN :keys")
+    Set<String> findPendingKeys(@Param("keys") Collection<String> keys);
+}
@@ -0,0 +1,73 @@
+package com.worfwint.tabletoprpgmanager.storage.repository;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
+
+import com.worfwint.tabletoprpgmanager.storage.entity.StorageObjectRef;
+
+/**
+ * Repository maintaining reference counts of bucket objects.
+ */
+public interface StorageObjectRefRepository extends JpaRepository<StorageObjectRef, String> {
+
+    /**
+     * Adds a reference to the object, creating the counter when needed.
+     *
+     * @param key object key
+     * @return number of affected rows
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "storage_object_refs"))
+    @Query(value = """
+        INSERT INTO storage_object_refs (object_key, ref_count, updated_at)
+        VALUES (:key, 1, now())
+        ON CONFLICT (object_key)
+        DO UPDATE SET ref_count = storage_object_refs.ref_count + 1, updated_at = now()
+    """, nativeQuery = true)
+    int increment(@Param("key") String key);
+
+    /**
+     * Removes a reference from the object. The row stays locked until the transaction ends.
+     *
+     * @param key object key
+     * @return {@code 0} when the object has no counter
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "storage_object_refs"))
+    @Query(value = """
+        UPDATE storage_object_refs
+        SET ref_count = ref_count - 1, updated_at = now()
+        WHERE object_key = :key
+          AND ref_count > 0
+    """, nativeQuery = true)
+    int decrement(@Param("key") String key);
+
+    /**
+     * Drops the counter of the object if no references are left.
+     *
+     * @param key object key
+     * @return {@code 1} when the counter was dropped
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "storage_object_refs"))
+    @Query(value = "DELETE FROM storage_object_refs WHERE object_key = :key AND ref_count <= 0", nativeQuery = true)
+    int deleteUnreferenced(@Param("key") String key);
+
+    /**
+     * Returns which of the given keys are referenced at least once.
+     *
+     * @param keys candidate object keys
+     * @return referenced keys
+     */
+    @Query("SELECT r.objectKey FROM StorageObjectRef r WHERE r.objectKey IN :keys AND r.refCount > 0")
+    Set<String> findReferencedKeys(@Param("keys") Collection<String> keys);
+}
@@ -0,0 +1,72 @@
+package com.worfwint.tabletoprpgmanager.storage.restcontroller;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.worfwint.tabletoprpgmanager.storage.MediaService;
+import com.worfwint.tabletoprpgmanager.storage.exception.MediaNotFoundException;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * REST controller serving stored media objects when the bucket is not publicly readable.
+ */
+@RestController
+@RequestMapping(MediaController.BASE_PATH)
+public class MediaController {
+
+    static final String BASE_PATH = "/api/media";
+
+    private final MediaService mediaService;
+
+    public MediaController(MediaService mediaService) {
+        this.mediaService = mediaService;
+    }
+
+    /**
+     * Streams the object stored under the key following the base path.
+     *
+     * @param request current request, the object key is taken from its path
+     * @param response response the object is written to
+     * @throws IOException when writing the response fails
+     */
+    @Operation(
+            summary = "Fetch media object",
+            description = "Returns the stored object under the given key, e.g. /api/media/news/{hash}.webp. "
+                    + "Supports single byte ranges and conditional requests; responses may be cached indefinitely."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Object returned"),
+            @ApiResponse(responseCode = "206", description = "Requested byte range returned"),
+            @ApiResponse(responseCode = "304", description = "The cached copy of the client is current"),
+            @ApiResponse(responseCode = "404", description = "No servable object exists under the key"),
+            @ApiResponse(responseCode = "416", description = "The requested byte range cannot be satisfied")
+    })
+    @GetMapping("/**")
+    public void getMedia(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String key = path.length() > BASE_PATH.length() + 1 ? path.substring(BASE_PATH.length() + 1) : null;
+        mediaService.serve(key, request, response);
+    }
+
+    /**
+     * Handles requests for missing or non-servable objects.
+     *
+     * @param ex exception describing the failure
+     * @return 404 response
+     */
+    @ExceptionHandler(MediaNotFoundException.class)
+    public ResponseEntity<String> handleNotFound(MediaNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+}
@@ -3,19 +3,21 @@ package com.worfwint.tabletoprpgmanager.user.entity;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.EnumSet;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import com.worfwint.tabletoprpgmanager.auth.entity.UserToken;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.envers.Audited;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
-import jakarta.persistence.CascadeType;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
@@ -28,25 +30,31 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 /**
  * Entity representing an application user along with profile and security information.
  * Auditing is enabled to track creation and update timestamps.
+ * <p>
+ * Tokens, roles, articles, comments and likes reference the user through {@code ON DELETE CASCADE}
+ * foreign keys, so deleting the row never loads them.
  */
 @Entity
 @Table(name = "users")
 @Audited
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @EntityListeners(AuditingEntityListener.class)
 public class User {
 
     @Setter
     @Getter
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Setter
@@ -70,6 +78,8 @@ public class User {
 
     @ElementCollection(fetch = FetchType.EAGER, targetClass = UserRole.class)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user_roles")
     @Enumerated(EnumType.STRING)
     @Column(name = "roles")
     private Set<UserRole> roles = EnumSet.of(UserRole.USER);
@@ -89,8 +99,10 @@ public class User {
     @Column(name = "avatar_url")
     private String avatarUrl;
 
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private Set<UserToken> tokens = new HashSet<>();
+    @Setter
+    @Getter
+    @Column(name = "deletion_requested_at")
+    private LocalDateTime deletionRequestedAt;
 
     @Setter
     @Getter
@@ -179,46 +191,10 @@ public class User {
     }
 
     /**
-     * Returns tokens associated with the user.
-     *
-     * @return immutable copy of stored tokens
-     */
-    public Set<UserToken> getTokens() {
-        return Set.copyOf(tokens);
-    }
-    /**
-     * Replaces the set of tokens associated with the user.
-     *
-     * @param tokens new token set
+     * @return {@code true} when the account is waiting for the background deletion job
      */
-    public void setTokens(Set<UserToken> tokens) {
-        if (tokens == null || tokens.isEmpty()) {
-            this.tokens = new HashSet<>();
-        } else {
-            this.tokens = new HashSet<>(tokens);
-        }
-    }
-    /**
-     * Adds a token and establishes the bidirectional relationship.
-     *
-     * @param token token to add
-     */
-    public void addToken(UserToken token) {
-        if (token != null) {
-            this.tokens.add(token);
-            token.setUser(this);
-        }
-    }
-    /**
-     * Removes a token and clears the reverse association.
-     *
-     * @param token token to remove
-     */
-    public void removeToken(UserToken token) {
-        if (token != null) {
-            this.tokens.remove(token);
-            token.setUser(null);
-        }
+    public boolean isDeletionRequested() {
+        return deletionRequestedAt != null;
     }
 
     /**
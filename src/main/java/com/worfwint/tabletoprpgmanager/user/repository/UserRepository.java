@@ -3,11 +3,18 @@ package com.worfwint.tabletoprpgmanager.user.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import com.worfwint.tabletoprpgmanager.user.entity.User;
 
 /**
@@ -77,4 +84,62 @@ public interface UserRepository extends JpaRepository<User, Long> {
             String username,
             String email,
             Pageable pageable);
+
+    /**
+     * Counts the rows removed together with the given user, stopping at {@code limit}.
+     * <p>
+     * Covers the user's tokens, likes and comments as well as the likes and comments on the user's
+     * articles, which the database cascade removes along with those articles.
+     *
+     * @param userId identifier of the user
+     * @param limit count at which to stop
+     * @return number of dependent rows, at most {@code limit}
+     */
+    @Query(value = """
+        SELECT COUNT(*) FROM (
+            SELECT 1 FROM user_token WHERE user_id = :userId
+            UNION ALL
+            SELECT 1 FROM news_likes WHERE user_id = :userId
+            UNION ALL
+            SELECT 1 FROM news_comments WHERE author_id = :userId
+            UNION ALL
+            SELECT 1 FROM news_likes l JOIN news_articles a ON a.id = l.article_id WHERE a.author_id = :userId
+            UNION ALL
+            SELECT 1 FROM news_comments c JOIN news_articles a ON a.id = c.article_id WHERE a.author_id = :userId
+            LIMIT :limit
+        ) dependent
+    """, nativeQuery = true)
+    long countDependentRows(@Param("userId") Long userId, @Param("limit") int limit);
+
+    /**
+     * Deletes a user row without loading it. Tokens, roles, articles, comments and likes are removed
+     * by the database cascade.
+     *
+     * @param userId identifier of the user
+     * @return number of deleted rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_roles"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "news_articles"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "news_comments")
+    })
+    @Query(value = "DELETE FROM users WHERE id = :userId", nativeQuery = true)
+    int deleteDirectlyById(@Param("userId") Long userId);
+
+    /**
+     * Returns identifiers of accounts waiting for the deletion job, oldest requests first.
+     *
+     * @param limit maximum number of identifiers
+     * @return identifiers of pending accounts
+     */
+    @Query(value = """
+        SELECT id
+        FROM users
+        WHERE deletion_requested_at IS NOT NULL
+        ORDER BY deletion_requested_at
+        LIMIT :limit
+    """, nativeQuery = true)
+    List<Long> findPendingDeletionIds(@Param("limit") int limit);
 }
@@ -0,0 +1,110 @@
+package com.worfwint.tabletoprpgmanager.user.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.worfwint.tabletoprpgmanager.auth.repository.UserTokenRepository;
+import com.worfwint.tabletoprpgmanager.auth.security.JwtService;
+import com.worfwint.tabletoprpgmanager.common.config.DeletionProperties;
+import com.worfwint.tabletoprpgmanager.news.service.NewsArticleDeletionService;
+import com.worfwint.tabletoprpgmanager.user.entity.User;
+import com.worfwint.tabletoprpgmanager.user.repository.UserRepository;
+import com.worfwint.tabletoprpgmanager.common.datasource.DataSourcePool;
+import com.worfwint.tabletoprpgmanager.common.datasource.PoolLane;
+
+/**
+ * Deletes accounts without loading their tokens, articles, comments or likes.
+ * <p>
+ * Accounts with few dependent rows are deleted with a single statement and the {@code ON DELETE CASCADE}
+ * foreign keys remove the rest. Larger accounts are marked, which blocks sign-in, and {@link #purgePending()}
+ * removes their contributions in bounded chunks. The account row itself is deleted once the article
+ * deletion job has removed all of the user's articles.
+ */
+@Service
+public class UserDeletionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserDeletionService.class);
+
+    private final UserRepository userRepository;
+    private final UserTokenRepository userTokenRepository;
+    private final JwtService jwtService;
+    private final NewsArticleDeletionService articleDeletionService;
+    private final TransactionTemplate transactionTemplate;
+    private final DeletionProperties properties;
+
+    public UserDeletionService(UserRepository userRepository,
+                               UserTokenRepository userTokenRepository,
+                               JwtService jwtService,
+                               NewsArticleDeletionService articleDeletionService,
+                               TransactionTemplate transactionTemplate,
+                               DeletionProperties properties) {
+        this.userRepository = userRepository;
+        this.userTokenRepository = userTokenRepository;
+        this.jwtService = jwtService;
+        this.articleDeletionService = articleDeletionService;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Deletes the account, revoking its tokens and releasing the images of its articles.
+     *
+     * @param user account to delete
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void delete(User user) {
+        Long userId = user.getId();
+        jwtService.revokeAllTokens(userId);
+        articleDeletionService.releaseImagesOfAuthor(userId);
+
+        long dependentRows = userRepository.countDependentRows(userId, properties.inlineThreshold() + 1);
+        if (dependentRows <= properties.inlineThreshold()) {
+            userRepository.deleteDirectlyById(userId);
+            return;
+        }
+        user.setDeletionRequestedAt(LocalDateTime.now());
+        // flushes the change above before the bulk update clears the persistence context
+        articleDeletionService.markAuthoredForDeletion(userId);
+    }
+
+    /**
+     * Removes accounts marked for deletion, oldest requests first.
+     */
+    @Scheduled(initialDelayString = "${app.deletion.interval:PT5S}",
+               fixedDelayString = "${app.deletion.interval:PT5S}")
+    @DataSourcePool(PoolLane.MAINTENANCE)
+    public void purgePending() {
+        List<Long> userIds = userRepository.findPendingDeletionIds(properties.batchSize());
+        for (Long userId : userIds) {
+            try {
+                purge(userId);
+            } catch (RuntimeException ex) {
+                LOG.warn("Failed to purge user {}, retrying on the next run", userId, ex);
+            }
+        }
+    }
+
+    private void purge(Long userId) {
+        articleDeletionService.purgeContributionsOf(userId);
+        int deleted;
+        do {
+            Integer rows = transactionTemplate.execute(status ->
+                    userTokenRepository.deleteChunkByUserId(userId, properties.chunkSize()));
+            deleted = rows != null ? rows : 0;
+        } while (deleted >= properties.chunkSize());
+
+        if (articleDeletionService.hasArticleRows(userId)) {
+            LOG.debug("User {} still has articles pending deletion", userId);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> userRepository.deleteDirectlyById(userId));
+    }
+}
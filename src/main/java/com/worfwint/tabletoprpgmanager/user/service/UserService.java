@@ -6,7 +6,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.worfwint.tabletoprpgmanager.common.coalesce.RequestCoalescer;
 import com.worfwint.tabletoprpgmanager.common.dto.response.PageResponse;
+import com.worfwint.tabletoprpgmanager.common.jfr.MappingEvent;
+import com.worfwint.tabletoprpgmanager.common.jfr.Stages;
 import com.worfwint.tabletoprpgmanager.user.dto.response.UserFullProfileResponse;
 import com.worfwint.tabletoprpgmanager.user.dto.response.UserPublicProfileResponse;
 import com.worfwint.tabletoprpgmanager.user.dto.response.UserSearchProfileResponse;
@@ -22,15 +25,23 @@ import com.worfwint.tabletoprpgmanager.user.repository.UserRepository;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserDeletionService userDeletionService;
+    private final RequestCoalescer requestCoalescer;
     // private final PasswordEncoder passwordEncoder;
 
     /**
      * Creates a new {@link UserService} with the required dependencies.
      *
      * @param userRepository repository used to fetch user data
+     * @param userDeletionService service removing accounts together with their content
+     * @param requestCoalescer coalescer sharing identical concurrent profile reads
      */
-    public UserService(UserRepository userRepository/*, PasswordEncoder passwordEncoder*/) {
+    public UserService(UserRepository userRepository,
+                       UserDeletionService userDeletionService,
+                       RequestCoalescer requestCoalescer/*, PasswordEncoder passwordEncoder*/) {
         this.userRepository = userRepository;
+        this.userDeletionService = userDeletionService;
+        this.requestCoalescer = requestCoalescer;
         // this.passwordEncoder = passwordEncoder;
     }
 
@@ -40,10 +51,11 @@ public class UserService {
      * @param userId identifier of the user to lookup
      * @return DTO representing the public profile
      */
+    @Transactional(readOnly = true)
     public UserPublicProfileResponse getPublicUserProfile(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(UserNotFoundException::new);
-        return mapToUserPublicProfileResponse(user);
+        return requestCoalescer.execute("user.public-profile", userId, () ->
+                mapToUserPublicProfileResponse(userRepository.findById(userId)
+                        .orElseThrow(UserNotFoundException::new)));
     }
 
     /**
@@ -52,12 +64,14 @@ public class UserService {
      * @param userId identifier of the user to lookup
      * @return DTO representing the full profile
      */
+    @Transactional(readOnly = true)
     public UserFullProfileResponse getFullUserProfile(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(UserNotFoundException::new);
         return mapToUserFullProfileResponse(user);
     }
 
+    @Transactional(readOnly = true)
     public SelfUserProfile getSelfUserProfile(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(UserNotFoundException::new);
@@ -70,6 +84,7 @@ public class UserService {
      * @param username username to search for
      * @return DTO representing the public profile
      */
+    @Transactional(readOnly = true)
     public UserPublicProfileResponse getPublicUserProfileByUsername(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(UserNotFoundException::new);
@@ -82,6 +97,7 @@ public class UserService {
      * @param username username to search for
      * @return DTO representing the full profile
      */
+    @Transactional(readOnly = true)
     public UserFullProfileResponse getFullUserProfileByUsername(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(UserNotFoundException::new);
@@ -98,6 +114,7 @@ public class UserService {
      * @param pageable pagination parameters
      * @return page of public profile DTOs
      */
+    @Transactional(readOnly = true)
     public PageResponse<UserPublicProfileResponse> getUsers(Pageable pageable) {
         Page<User> users = userRepository.findAll(pageable);
         return PageResponse.from(users.map(this::mapToUserPublicProfileResponse));
@@ -110,6 +127,7 @@ public class UserService {
      * @param pageable pagination parameters
      * @return page of search result DTOs
      */
+    @Transactional(readOnly = true)
     public PageResponse<UserSearchProfileResponse> searchUsers(String username, Pageable pageable) {
         Page<User> usersPage;
         if (username == null || username.isBlank()) {
@@ -121,15 +139,17 @@ public class UserService {
     }
 
     /**
-     * Deletes the user with the provided identifier.
+     * Deletes the user with the provided identifier. Large accounts are removed by a background job,
+     * repeated requests for an account pending deletion are ignored.
      *
      * @param userId identifier of the user to delete
      */
     public void deleteUser(Long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException();
+        User user = userRepository.findById(userId)
+                .orElseThrow(UserNotFoundException::new);
+        if (!user.isDeletionRequested()) {
+            userDeletionService.delete(user);
         }
-        userRepository.deleteById(userId);
     }
 
     /**
@@ -139,6 +159,7 @@ public class UserService {
      * @param username username to compare against
      * @return {@code true} when the identifier belongs to the username
      */
+    @Transactional(readOnly = true)
     public boolean isCurrentUser(Long userId, String username) {
         try {
             User user = userRepository.findById(userId)
@@ -156,17 +177,18 @@ public class UserService {
      * @return fully populated profile DTO
      */
     private UserFullProfileResponse mapToUserFullProfileResponse(User user) {
-        return new UserFullProfileResponse(
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                user.getDisplayName(),
-                user.getBio(),
-                user.getAvatarUrl(),
-                user.getRoles(),
-                user.getCreatedAt(),
-                user.getUpdatedAt()
-        );
+        return Stages.record(new MappingEvent(), "UserService.mapToUserFullProfileResponse",
+                () -> new UserFullProfileResponse(
+                        user.getId(),
+                        user.getUsername(),
+                        user.getEmail(),
+                        user.getDisplayName(),
+                        user.getBio(),
+                        user.getAvatarUrl(),
+                        user.getRoles(),
+                        user.getCreatedAt(),
+                        user.getUpdatedAt()
+                ));
     }
 
     /**
@@ -176,13 +198,14 @@ public class UserService {
      * @return public profile DTO
      */
     private UserPublicProfileResponse mapToUserPublicProfileResponse(User user) {
-        return new UserPublicProfileResponse(
-                user.getId(),
-                user.getUsername(),
-                user.getDisplayName(),
-                user.getBio(),
-                user.getAvatarUrl()
-        );
+        return Stages.record(new MappingEvent(), "UserService.mapToUserPublicProfileResponse",
+                () -> new UserPublicProfileResponse(
+                        user.getId(),
+                        user.getUsername(),
+                        user.getDisplayName(),
+                        user.getBio(),
+                        user.getAvatarUrl()
+                ));
     }
 
     /**
@@ -192,23 +215,25 @@ public class UserService {
      * @return search result DTO
      */
     private UserSearchProfileResponse mapToUserSearchInfoResponse(User user) {
-        return new UserSearchProfileResponse(
-                user.getId(),
-                user.getUsername(),
-                user.getDisplayName(),
-                user.getAvatarUrl()
-        );
+        return Stages.record(new MappingEvent(), "UserService.mapToUserSearchInfoResponse",
+                () -> new UserSearchProfileResponse(
+                        user.getId(),
+                        user.getUsername(),
+                        user.getDisplayName(),
+                        user.getAvatarUrl()
+                ));
     }
 
     private SelfUserProfile mapToSelfUserProfileResponse(User user) {
-        return new SelfUserProfile(
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                user.getDisplayName(),
-                user.getBio(),
-                user.getAvatarUrl(),
-                user.getCreatedAt()
-        );
+        return Stages.record(new MappingEvent(), "UserService.mapToSelfUserProfileResponse",
+                () -> new SelfUserProfile(
+                        user.getId(),
+                        user.getUsername(),
+                        user.getEmail(),
+                        user.getDisplayName(),
+                        user.getBio(),
+                        user.getAvatarUrl(),
+                        user.getCreatedAt()
+                ));
     }
 }
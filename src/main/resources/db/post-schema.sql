@@ -0,0 +1,73 @@
+-- Runs after Hibernate has updated the schema. ddl-auto only creates missing constraints, so foreign keys
+-- created before @OnDelete was introduced are recreated here with ON DELETE CASCADE. Idempotent.
+-- Statements are separated by '@@' because the DO block contains semicolons.
+DO $$
+DECLARE
+    fk RECORD;
+BEGIN
+    FOR fk IN
+        SELECT c.conrelid::regclass AS table_name,
+               c.conname            AS constraint_name,
+               a.attname            AS column_name,
+               c.confrelid::regclass AS referenced_table,
+               ra.attname           AS referenced_column
+        FROM (VALUES ('news_comments', 'article_id'),
+                     ('news_comments', 'author_id'),
+                     ('news_likes', 'article_id'),
+                     ('news_likes', 'user_id'),
+                     ('news_articles', 'author_id'),
+                     ('user_token', 'user_id'),
+                     ('user_roles', 'user_id')) AS target(table_name, column_name)
+        JOIN pg_constraint c
+          ON c.conrelid = to_regclass(target.table_name)
+         AND c.contype = 'f'
+         AND c.confdeltype <> 'c'
+         AND array_length(c.conkey, 1) = 1
+        JOIN pg_attribute a
+          ON a.attrelid = c.conrelid
+         AND a.attnum = c.conkey[1]
+         AND a.attname = target.column_name
+        JOIN pg_attribute ra
+          ON ra.attrelid = c.confrelid
+         AND ra.attnum = c.confkey[1]
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I, ADD CONSTRAINT %I FOREIGN KEY (%I) REFERENCES %s (%I) ON DELETE CASCADE',
+                       fk.table_name, fk.constraint_name, fk.constraint_name,
+                       fk.column_name, fk.referenced_table, fk.referenced_column);
+        RAISE NOTICE 'Foreign key %.% now cascades on delete', fk.table_name, fk.constraint_name;
+    END LOOP;
+END
+$$@@
+
+-- Ids come from pooled sequences (allocationSize = 50) so Hibernate can batch inserts. Tables created
+-- with identity columns lose the identity default, and each sequence is moved past the current max id.
+-- With the pooled optimizer the next nextval returns last_value + 50 and ids are taken from
+-- (last_value, last_value + 50], so setting last_value to the max id is enough.
+DO $$
+DECLARE
+    target RECORD;
+    max_id BIGINT;
+    last_id BIGINT;
+BEGIN
+    FOR target IN
+        SELECT *
+        FROM (VALUES ('users', 'users_seq'),
+                     ('news_articles', 'news_articles_seq'),
+                     ('news_comments', 'news_comments_seq'),
+                     ('news_likes', 'news_likes_seq'),
+                     ('storage_deletion_outbox', 'storage_deletion_outbox_seq')) AS t(table_name, sequence_name)
+    LOOP
+        CONTINUE WHEN to_regclass(target.table_name) IS NULL OR to_regclass(target.sequence_name) IS NULL;
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', target.table_name);
+        EXECUTE format('SELECT MAX(id) FROM %I', target.table_name) INTO max_id;
+        SELECT COALESCE(s.last_value, 0) INTO last_id
+        FROM pg_sequences s
+        WHERE s.schemaname = current_schema()
+          AND s.sequencename = target.sequence_name;
+        IF max_id IS NOT NULL AND max_id > last_id THEN
+            PERFORM setval(target.sequence_name, max_id);
+            RAISE NOTICE 'Sequence % aligned to %', target.sequence_name, max_id;
+        END IF;
+    END LOOP;
+END
+$$@@
@@ -0,0 +1,55 @@
+-- Token buckets kept in hashes of the remaining tokens and the time they were counted. A token is taken
+-- from every bucket only when each of them has one, so a rejection by one limit never drains the others.
+-- KEYS buckets, ARGV capacity and milliseconds to refill the whole bucket for each key in turn.
+-- Returns for each key {has a token (0 or 1), remaining tokens, milliseconds until a token is available,
+-- milliseconds until full}.
+
+-- the server clock, so all application nodes agree on the refill
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local tokens = {}
+local allowed = true
+for i, key in ipairs(KEYS) do
+    local capacity = tonumber(ARGV[2 * i - 1])
+    local period = tonumber(ARGV[2 * i])
+    local bucket = redis.call('HMGET', key, 'tokens', 'ts')
+    local available = tonumber(bucket[1])
+    local ts = tonumber(bucket[2])
+    if available == nil or ts == nil then
+        available = capacity
+        ts = now
+    end
+    available = math.min(capacity, available + math.max(0, now - ts) * capacity / period)
+    tokens[i] = available
+    if available < 1 then
+        allowed = false
+    end
+end
+
+local result = {}
+for i, key in ipairs(KEYS) do
+    local capacity = tonumber(ARGV[2 * i - 1])
+    local period = tonumber(ARGV[2 * i])
+    local rate = capacity / period
+    local available = tokens[i]
+
+    local present = 1
+    local wait = 0
+    if available < 1 then
+        present = 0
+        wait = math.ceil((1 - available) / rate)
+    elseif allowed then
+        available = available - 1
+    end
+
+    redis.call('HSET', key, 'tokens', tostring(available), 'ts', tostring(now))
+    -- a bucket left alone for a whole period is full again and need not be stored
+    redis.call('PEXPIRE', key, period)
+
+    table.insert(result, present)
+    table.insert(result, math.floor(available))
+    table.insert(result, wait)
+    table.insert(result, math.ceil((capacity - available) / rate))
+end
+return result
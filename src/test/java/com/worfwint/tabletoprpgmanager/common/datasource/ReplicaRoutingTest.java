@@ -0,0 +1,206 @@
+package com.worfwint.tabletoprpgmanager.common.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.worfwint.tabletoprpgmanager.common.dto.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Routing between the primary and a streaming replica. Needs the replica of the docker-compose
+ * {@code replica} profile on port 5433, or another one given in {@code TEST_DB_REPLICA_URL}, whose
+ * connection user may pause WAL replay.
+ */
+@Tag("database")
+@SpringBootTest(properties = {
+        "app.datasource.replicas.urls=${TEST_DB_REPLICA_URL:jdbc:postgresql://localhost:5433/trpg_db}",
+        "app.datasource.replicas.max-lag=1s",
+        "app.datasource.replicas.health-check-interval=PT1H",
+        "app.datasource.replicas.read-your-writes-window=2s"
+})
+@Import(ReplicaRoutingTest.PooledReader.class)
+class ReplicaRoutingTest {
+
+    private static final String IN_RECOVERY = "SELECT pg_is_in_recovery()";
+    private static final String EMIT_COMMIT = "SELECT pg_logical_emit_message(true, 'replica-routing-test', '')::text";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PoolLaneRoutingDataSource primaryDataSource;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicaHealthMonitor healthMonitor;
+
+    @Autowired
+    private ReadYourWritesFilter readYourWritesFilter;
+
+    @Autowired
+    private PooledReader pooledReader;
+
+    private ReplicaNode replica;
+    private JdbcTemplate replicaJdbcTemplate;
+
+    @BeforeEach
+    void checkReplica() {
+        replica = routingDataSource.getReplicas().get(0);
+        replicaJdbcTemplate = new JdbcTemplate(replica.getDataSource());
+        healthMonitor.check();
+        assertThat(replica.isAvailable()).as("replica %s is up and in sync", replica.getName()).isTrue();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        Boolean writingTransactionUsesReplica = new TransactionTemplate(transactionManager)
+                .execute(status -> jdbcTemplate.queryForObject(IN_RECOVERY, Boolean.class));
+
+        assertThat(readOnlyTransactionUsesReplica()).isTrue();
+        assertThat(writingTransactionUsesReplica).isFalse();
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenTheReplicaIsDown() throws SQLException {
+        HikariDataSource unreachable = new HikariDataSource();
+        unreachable.setJdbcUrl("jdbc:postgresql://localhost:1/trpg_db");
+        unreachable.setConnectionTimeout(250);
+        unreachable.setInitializationFailTimeout(-1);
+        ReplicaNode down = new ReplicaNode("down", unreachable);
+        down.update(true, 0);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, List.of(down));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection connection = routing.getConnection()) {
+            assertThat(inRecovery(connection)).isFalse();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            routing.destroy();
+        }
+        assertThat(down.isAvailable()).isFalse();
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaLags() throws InterruptedException {
+        // the lag is measured from the last replayed commit, so the replica has to replay one first
+        awaitReplay(jdbcTemplate.queryForObject(EMIT_COMMIT, String.class));
+        replicaJdbcTemplate.execute("SELECT pg_wal_replay_pause()");
+        try {
+            jdbcTemplate.queryForObject(EMIT_COMMIT, String.class);
+            Thread.sleep(1_500);
+            healthMonitor.check();
+
+            assertThat(replica.isAvailable()).isFalse();
+            assertThat(replica.getLagSeconds()).isGreaterThan(1.0);
+            assertThat(readOnlyTransactionUsesReplica()).isFalse();
+        } finally {
+            replicaJdbcTemplate.execute("SELECT pg_wal_replay_resume()");
+        }
+        awaitReplay(jdbcTemplate.queryForObject(EMIT_COMMIT, String.class));
+        healthMonitor.check();
+        assertThat(replica.isAvailable()).isTrue();
+    }
+
+    @Test
+    void writersReadFromThePrimaryForTheReadYourWritesWindow() throws Exception {
+        AuthenticatedUser writer = randomUser();
+        AuthenticatedUser reader = randomUser();
+
+        perform("POST", writer, () -> true);
+
+        assertThat(perform("GET", writer, this::readOnlyTransactionUsesReplica)).isFalse();
+        assertThat(perform("GET", reader, this::readOnlyTransactionUsesReplica)).isTrue();
+        Thread.sleep(2_500);
+        assertThat(perform("GET", writer, this::readOnlyTransactionUsesReplica)).isTrue();
+    }
+
+    @Test
+    void poolLaneMethodsNeverUseTheReplica() {
+        assertThat(pooledReader.inRecovery()).isFalse();
+    }
+
+    private boolean readOnlyTransactionUsesReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return Boolean.TRUE.equals(readOnly.execute(status -> jdbcTemplate.queryForObject(IN_RECOVERY, Boolean.class)));
+    }
+
+    private boolean perform(String method, AuthenticatedUser user, BooleanSupplier handler) throws Exception {
+        AtomicBoolean result = new AtomicBoolean();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+        try {
+            readYourWritesFilter.doFilter(new MockHttpServletRequest(method, "/api/news"), new MockHttpServletResponse(),
+                    (request, response) -> result.set(handler.getAsBoolean()));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return result.get();
+    }
+
+    private void awaitReplay(String lsn) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!Boolean.TRUE.equals(replicaJdbcTemplate.queryForObject(
+                "SELECT pg_last_wal_replay_lsn() >= ?::pg_lsn", Boolean.class, lsn))) {
+            assertThat(System.nanoTime()).as("replica replays %s", lsn).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private static boolean inRecovery(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(IN_RECOVERY)) {
+            resultSet.next();
+            return resultSet.getBoolean(1);
+        }
+    }
+
+    private static AuthenticatedUser randomUser() {
+        long id = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE);
+        return new AuthenticatedUser(id, "replica-test-" + id, "replica-test-" + id + "@example.com");
+    }
+
+    static class PooledReader {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        PooledReader(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @DataSourcePool(PoolLane.MAINTENANCE)
+        @Transactional(readOnly = true)
+        public boolean inRecovery() {
+            return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IN_RECOVERY, Boolean.class));
+        }
+    }
+}
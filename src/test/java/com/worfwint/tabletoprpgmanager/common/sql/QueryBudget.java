@@ -0,0 +1,40 @@
+package com.worfwint.tabletoprpgmanager.common.sql;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Fails the annotated test when it does not run exactly the given number of SQL statements. Meant for
+ * MockMvc tests of a single endpoint, which execute the request on the test thread:
+ *
+ * <pre>{@code
+ * @Test
+ * @QueryBudget(statements = 2)
+ * void listsArticles() throws Exception {
+ *     mockMvc.perform(get("/api/news")).andExpect(status().isOk());
+ * }
+ * }</pre>
+ *
+ * Statements run in {@code @BeforeEach} methods are not counted.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+    /**
+     * @return exact number of statements the test has to run, counting each statement of a batch once
+     */
+    int statements();
+
+    /**
+     * @return highest number of executions allowed for a single statement shape, {@code -1} for no limit
+     */
+    int maxRepeated() default -1;
+}
@@ -0,0 +1,54 @@
+package com.worfwint.tabletoprpgmanager.common.sql;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+
+/**
+ * Counts the statements of a test annotated with {@link QueryBudget} and compares them with its budget.
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), QueryScopes.open(context.getDisplayName()));
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        QueryScope scope = context.getStore(NAMESPACE).remove(context.getUniqueId(), QueryScope.class);
+        if (scope == null) {
+            return;
+        }
+        QueryScopes.close(scope);
+        QueryBudget budget = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), QueryBudget.class)
+                .orElse(null);
+        if (budget == null || context.getExecutionException().isPresent()) {
+            return;
+        }
+        if (scope.getStatements() != budget.statements()) {
+            throw new AssertionFailedError("Expected " + budget.statements() + " statements but "
+                    + scope.getStatements() + " were executed:\n" + describe(scope),
+                    budget.statements(), scope.getStatements());
+        }
+        Map.Entry<String, Integer> repeated = scope.mostRepeated();
+        if (budget.maxRepeated() >= 0 && repeated != null && repeated.getValue() > budget.maxRepeated()) {
+            throw new AssertionFailedError("Statement executed " + repeated.getValue() + " times, at most "
+                    + budget.maxRepeated() + " allowed: " + repeated.getKey());
+        }
+    }
+
+    private static String describe(QueryScope scope) {
+        return scope.getShapes().entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .map(entry -> "  " + entry.getValue() + "x " + entry.getKey())
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.worfwint.tabletoprpgmanager.news.restcontroller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.worfwint.tabletoprpgmanager.common.sql.QueryBudget;
+import com.worfwint.tabletoprpgmanager.news.entity.NewsArticle;
+import com.worfwint.tabletoprpgmanager.news.repository.NewsArticleRepository;
+import com.worfwint.tabletoprpgmanager.user.entity.User;
+import com.worfwint.tabletoprpgmanager.user.repository.UserRepository;
+
+/**
+ * Statement budgets of the public news endpoints. Each endpoint is called once before it is measured,
+ * so the second-level cache is warm as it is in production.
+ */
+@Tag("database")
+@SpringBootTest
+@AutoConfigureMockMvc
+class NewsControllerQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NewsArticleRepository newsArticleRepository;
+
+    private User author;
+    private final List<NewsArticle> articles = new ArrayList<>();
+
+    @BeforeEach
+    void createArticles() throws Exception {
+        String name = "budget-" + UUID.randomUUID().toString().substring(0, 8);
+        author = userRepository.save(new User(name, name + "@example.com", "{noop}unused"));
+        for (int i = 0; i < 3; i++) {
+            NewsArticle article = new NewsArticle();
+            article.setTitle("Article " + i);
+            article.setContent("Content " + i);
+            article.setAuthor(author);
+            articles.add(newsArticleRepository.save(article));
+        }
+        mockMvc.perform(get("/api/news").param("size", "1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/news/{id}", articles.get(0).getId())).andExpect(status().isOk());
+    }
+
+    @AfterEach
+    void deleteArticles() {
+        newsArticleRepository.deleteAll(articles);
+        articles.clear();
+        userRepository.delete(author);
+    }
+
+    /**
+     * The page query carries authors and counts, plus the count query of the page. A full first page
+     * is requested so the count query runs whatever else is in the database.
+     */
+    @Test
+    @QueryBudget(statements = 2, maxRepeated = 1)
+    void listsArticlesWithPageAndCountQueries() throws Exception {
+        mockMvc.perform(get("/api/news").param("size", "1")).andExpect(status().isOk());
+    }
+
+    /**
+     * The article and its author come from the second-level cache, only the counts are queried.
+     */
+    @Test
+    @QueryBudget(statements = 1)
+    void readsArticleWithCountsQueryOnly() throws Exception {
+        mockMvc.perform(get("/api/news/{id}", articles.get(0).getId())).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,58 @@
+package com.worfwint.tabletoprpgmanager.user.restcontroller;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.worfwint.tabletoprpgmanager.common.sql.QueryBudget;
+import com.worfwint.tabletoprpgmanager.user.entity.User;
+import com.worfwint.tabletoprpgmanager.user.repository.UserRepository;
+
+/**
+ * Statement budget of the public profile endpoint, measured with a warm second-level cache.
+ */
+@Tag("database")
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User profile;
+
+    @BeforeEach
+    void createUser() throws Exception {
+        String name = "budget-" + UUID.randomUUID().toString().substring(0, 8);
+        profile = userRepository.save(new User(name, name + "@example.com", "{noop}unused"));
+        mockMvc.perform(get("/api/users/{id}", profile.getId()).with(user("reader"))).andExpect(status().isOk());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        userRepository.delete(profile);
+    }
+
+    /**
+     * The user and its roles are served from the second-level cache without touching the database.
+     */
+    @Test
+    @QueryBudget(statements = 0)
+    void readsPublicProfileFromCache() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", profile.getId()).with(user("reader"))).andExpect(status().isOk());
+    }
+}